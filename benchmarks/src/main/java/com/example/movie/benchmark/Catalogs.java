@@ -0,0 +1,112 @@
+package com.example.movie.benchmark;
+
+import com.example.movie.DTO.MovieResponseActorDto;
+import com.example.movie.DTO.MovieResponseDto;
+import com.example.movie.DTO.MovieResponseGenreDto;
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+// Deterministic catalog fixtures shared by the benchmarks: detached entity graphs, response DTOs and
+// the NDJSON used to seed a database through the bulk import
+public final class Catalogs {
+
+    public static final int GENRES = 20;
+
+    private Catalogs() {
+    }
+
+    public static Actor actor(long id) {
+        return Actor.builder()
+                .id(id)
+                .name("Actor " + id)
+                .birthDate(LocalDate.of(1950, 1, 1).plusDays(id * 37 % 18_000))
+                .movies(new ArrayList<>())
+                .build();
+    }
+
+    public static Genre genre(long id) {
+        return new Genre(id, "Genre " + id, new HashSet<>(), 0L, null);
+    }
+
+    // A movie of the given genre with actorCount actors
+    public static Movie movie(long id, Genre genre, int actorCount) {
+        List<Actor> actors = new ArrayList<>(actorCount);
+        for (int i = 0; i < actorCount; i++) {
+            actors.add(actor(id * actorCount + i + 1));
+        }
+        return Movie.builder()
+                .id(id)
+                .title("Movie " + id)
+                .releaseYear(1950 + (int) (id % 70))
+                .duration(80 + (int) (id % 90))
+                .genre(genre)
+                .actors(actors)
+                .build();
+    }
+
+    // A genre holding movieCount movies, each with actorCount actors
+    public static Genre genreWithMovies(long id, int movieCount, int actorCount) {
+        Genre genre = genre(id);
+        for (int i = 1; i <= movieCount; i++) {
+            genre.getMovies().add(movie(i, genre, actorCount));
+        }
+        return genre;
+    }
+
+    // count response DTOs as the movie endpoints return them, each with actorCount actors
+    public static List<MovieResponseDto> movieResponses(int count, int actorCount) {
+        List<MovieResponseDto> movies = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            List<MovieResponseActorDto> actors = new ArrayList<>(actorCount);
+            for (int i = 0; i < actorCount; i++) {
+                Actor actor = actor(id * actorCount + i + 1);
+                actors.add(MovieResponseActorDto.builder()
+                        .id(actor.getId())
+                        .name(actor.getName())
+                        .birthDate(actor.getBirthDate())
+                        .build());
+            }
+            movies.add(MovieResponseDto.builder()
+                    .id(id)
+                    .title("Movie " + id)
+                    .releaseYear(1950 + (int) (id % 70))
+                    .duration(80 + (int) (id % 90))
+                    .genre(MovieResponseGenreDto.builder().id(1 + id % GENRES).name("Genre " + (1 + id % GENRES)).build())
+                    .actors(actors)
+                    .build());
+        }
+        return movies;
+    }
+
+    // NDJSON import of GENRES genres, actorCount actors and movieCount movies with three actors each
+    public static byte[] ndjson(int actorCount, int movieCount) {
+        StringBuilder ndjson = new StringBuilder();
+        for (int genre = 1; genre <= GENRES; genre++) {
+            ndjson.append("{\"type\":\"genre\",\"id\":").append(genre)
+                    .append(",\"name\":\"Genre ").append(genre).append("\"}\n");
+        }
+        for (int actor = 1; actor <= actorCount; actor++) {
+            ndjson.append("{\"type\":\"actor\",\"id\":").append(actor)
+                    .append(",\"name\":\"Actor ").append(actor)
+                    .append("\",\"birthDate\":\"").append(actor(actor).getBirthDate()).append("\"}\n");
+        }
+        for (int movie = 1; movie <= movieCount; movie++) {
+            ndjson.append("{\"type\":\"movie\",\"id\":").append(movie)
+                    .append(",\"title\":\"Movie ").append(movie)
+                    .append("\",\"releaseYear\":").append(1950 + movie % 70)
+                    .append(",\"duration\":").append(80 + movie % 90)
+                    .append(",\"genreId\":").append(1 + movie % GENRES)
+                    .append(",\"actorIds\":[").append(1 + movie % actorCount)
+                    .append(',').append(1 + (movie * 7L) % actorCount)
+                    .append(',').append(1 + (movie * 13L) % actorCount).append("]}\n");
+        }
+        return ndjson.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
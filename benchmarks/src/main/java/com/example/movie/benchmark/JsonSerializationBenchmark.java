@@ -0,0 +1,61 @@
+package com.example.movie.benchmark;
+
+import com.example.movie.DTO.MovieResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of MovieResponseDto lists as the list endpoints return them, with an ObjectMapper
+// built with the same defaults Spring Boot applies
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    // Movies in the list
+    @Param({"1", "20", "100", "1000"})
+    public int size;
+
+    // Actors per movie
+    @Param({"3"})
+    public int actors;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<MovieResponseDto> movies;
+
+    @Setup
+    public void setUp() {
+        movies = Catalogs.movieResponses(size, actors);
+    }
+
+    // Serialize into a new byte array, as the response cache does
+    @Benchmark
+    public byte[] writeValueAsBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(movies);
+    }
+
+    // Serialize straight into a stream, as the message converter does for a response body
+    @Benchmark
+    public void writeToStream() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), movies);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.movie.benchmark;
+
+import com.example.movie.DTO.ActorView;
+import com.example.movie.DTO.GenreView;
+import com.example.movie.DTO.MovieActorView;
+import com.example.movie.DTO.MovieView;
+import com.example.movie.MovieApplication;
+import com.example.movie.entity.Movie;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.service.ImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Repository query methods against a SQLite file seeded through the bulk import. The application context
+// is started without the web server, with the same pools, pragmas and caches as the application.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    @Param({"5000"})
+    public int movies;
+
+    @Param({"1000"})
+    public int actors;
+
+    private Path directory;
+
+    private ConfigurableApplicationContext context;
+
+    private MovieRepository movieRepository;
+
+    private ActorRepository actorRepository;
+
+    private GenreRepository genreRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("movie-benchmark-");
+        context = new SpringApplicationBuilder(MovieApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:sqlite:" + directory.resolve("movies.db"),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        context.getBean(ImportService.class).importCatalog(new ByteArrayInputStream(Catalogs.ndjson(actors, movies)));
+        movieRepository = context.getBean(MovieRepository.class);
+        actorRepository = context.getBean(ActorRepository.class);
+        genreRepository = context.getBean(GenreRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        for (String file : new String[]{"movies.db", "movies.db-wal", "movies.db-shm"}) {
+            Files.deleteIfExists(directory.resolve(file));
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    // The single-movie read of the write paths: movie, genre and actors through the entity graph
+    @Benchmark
+    public Optional<Movie> movieFindWithGenreAndActorsById() {
+        return movieRepository.findWithGenreAndActorsById(randomMovieId());
+    }
+
+    // The first phase of GET /api/movies: a page of IDs by keyset
+    @Benchmark
+    public List<Long> movieFindIdsAfter() {
+        return movieRepository.findIdsAfter(randomMovieId(), Limit.of(20));
+    }
+
+    // The second phase of a movie list: movie and genre columns of 20 movies
+    @Benchmark
+    public List<MovieView> movieFindViewsByIdIn() {
+        return movieRepository.findViewsByIdIn(randomMovieIds(20));
+    }
+
+    // The second phase of a movie list: the actors of 20 movies
+    @Benchmark
+    public List<MovieActorView> movieFindActorViewsByMovieIdIn() {
+        return movieRepository.findActorViewsByMovieIdIn(randomMovieIds(20));
+    }
+
+    // The first phase of GET /api/movies/by-genre: LIMIT/OFFSET page of IDs plus the count query
+    @Benchmark
+    public Page<Long> movieFindIdsByGenreId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return movieRepository.findIdsByGenreId(1L + random.nextInt(Catalogs.GENRES), PageRequest.of(random.nextInt(10), 10));
+    }
+
+    @Benchmark
+    public List<Long> movieFindIdsByActorId() {
+        return movieRepository.findIdsByActorId(1L + ThreadLocalRandom.current().nextInt(actors));
+    }
+
+    // Served from the query cache once warm
+    @Benchmark
+    public Optional<ActorView> actorFindViewById() {
+        return actorRepository.findViewById(1L + ThreadLocalRandom.current().nextInt(actors));
+    }
+
+    @Benchmark
+    public List<GenreView> genreFindViewsAfter() {
+        return genreRepository.findViewsAfter(0, Limit.of(Catalogs.GENRES));
+    }
+
+    private long randomMovieId() {
+        return 1L + ThreadLocalRandom.current().nextInt(movies);
+    }
+
+    private List<Long> randomMovieIds(int count) {
+        long first = 1L + ThreadLocalRandom.current().nextInt(movies - count);
+        return LongStream.range(first, first + count).boxed().toList();
+    }
+}
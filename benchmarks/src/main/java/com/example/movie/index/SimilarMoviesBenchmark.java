@@ -0,0 +1,79 @@
+package com.example.movie.index;
+
+import com.example.movie.benchmark.Catalogs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The similar movies of a movie whose cast are the most prolific actors of the catalog, so that every
+// query walks thousands of postings; 1% of the movies are re-put afterwards to read through the delta too
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimilarMoviesBenchmark {
+
+    @Param({"10000", "100000"})
+    public int movies;
+
+    // Actors per movie; every 4th movie casts one of the first 20 actors, who make up the cast of movie 1
+    @Param({"5"})
+    public int actors;
+
+    private static final int PROLIFIC = 20;
+
+    private final InvertedMovieIndex index = new InvertedMovieIndex();
+
+    private final InvertedMovieIndex.Weights weights = new InvertedMovieIndex.Weights(0.5, 1);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Map<Long, InvertedMovieIndex.Movie> catalog = new HashMap<>();
+        for (long id = 1; id <= movies; id++) {
+            catalog.put(id, movie(id, random));
+        }
+        index.load(catalog);
+        for (int i = 0; i < movies / 100; i++) {
+            long id = 2 + random.nextInt(movies - 1);
+            index.put(id, movie(id, random));
+        }
+    }
+
+    private InvertedMovieIndex.Movie movie(long id, Random random) {
+        long[] cast = new long[actors];
+        for (int i = 0; i < actors; i++) {
+            if (id == 1) {
+                cast[i] = 1 + i * (PROLIFIC / actors);
+            } else if (i == 0 && id % 4 == 0) {
+                cast[i] = 1 + id / 4 % PROLIFIC;
+            } else {
+                cast[i] = PROLIFIC + 1 + random.nextInt(movies / 2);
+            }
+        }
+        return new InvertedMovieIndex.Movie(1 + id % Catalogs.GENRES, 1950 + (int) (id % 70),
+                Arrays.stream(cast).distinct().toArray());
+    }
+
+    @Benchmark
+    public List<SimilarMoviesIndex.Match> similar() {
+        return index.similar(1, 10, weights);
+    }
+}
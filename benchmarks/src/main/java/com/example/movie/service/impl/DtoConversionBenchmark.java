@@ -0,0 +1,80 @@
+package com.example.movie.service.impl;
+
+import com.example.movie.DTO.ActorResponseDto;
+import com.example.movie.DTO.GenreResponseDto;
+import com.example.movie.DTO.MovieResponseDto;
+import com.example.movie.benchmark.Catalogs;
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Entity-to-DTO conversion of the service implementations on detached entity graphs, no database involved.
+// Lives in the service package to reach the package-private conversion helpers.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoConversionBenchmark {
+
+    // Actors per movie
+    @Param({"3", "20"})
+    public int actors;
+
+    // Movies in the converted genre
+    @Param({"50"})
+    public int movies;
+
+    private final MovieServiceImpl movieService = new MovieServiceImpl();
+
+    private final ActorServiceImpl actorService = new ActorServiceImpl();
+
+    private final GenreServiceImpl genreService = new GenreServiceImpl();
+
+    private Movie movie;
+
+    private Actor actor;
+
+    private Genre genre;
+
+    @Setup
+    public void setUp() {
+        genre = Catalogs.genreWithMovies(1, movies, actors);
+        movie = genre.getMovies().iterator().next();
+        actor = movie.getActors().get(0);
+    }
+
+    @Benchmark
+    public MovieResponseDto movieServiceConvertMovieToDto() {
+        return movieService.convertMovieToDto(movie);
+    }
+
+    @Benchmark
+    public MovieResponseDto actorServiceMovieResponseDto() {
+        return ActorServiceImpl.movieResponseDto(movie);
+    }
+
+    @Benchmark
+    public ActorResponseDto actorServiceConvertToDto() {
+        return actorService.convertToDto(actor);
+    }
+
+    @Benchmark
+    public GenreResponseDto genreServiceConvertToDto() {
+        return genreService.convertToDto(genre);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.movie.service.impl;
+
+import com.example.movie.DTO.CursorPageDto;
+import com.example.movie.DTO.MovieActorView;
+import com.example.movie.DTO.MovieView;
+import com.example.movie.benchmark.Catalogs;
+import com.example.movie.json.MoviePageJsonWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A page of movies from the same rows both ways: the projections converted to MovieResponseDto by the
+// assembler and serialized by Jackson, against the joined rows written straight by MoviePageJsonWriter.
+// Run with -prof gc (the default of the exec goal) to compare the bytes allocated per page.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListSerializationBenchmark {
+
+    // Movies in the page
+    @Param({"20", "100", "1000"})
+    public int size;
+
+    // Actors per movie, drawn from a cast of 200 so that they repeat across the page
+    @Param({"3"})
+    public int actors;
+
+    private static final int CAST = 200;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final MovieDtoAssembler assembler = new MovieDtoAssembler();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+
+    private List<Long> ids;
+
+    private List<MovieView> movies;
+
+    private List<MovieActorView> actorRows;
+
+    @Setup
+    public void setUp() {
+        ids = new ArrayList<>(size);
+        movies = new ArrayList<>(size);
+        actorRows = new ArrayList<>(size * actors);
+        for (long id = 1; id <= size; id++) {
+            long genreId = 1 + id % Catalogs.GENRES;
+            ids.add(id);
+            movies.add(new MovieView(id, "Movie " + id, 1950 + (int) (id % 70), 80 + (int) (id % 90),
+                    genreId, "Genre " + genreId));
+            for (int i = 0; i < actors; i++) {
+                long actorId = 1 + (id * 7 + i * 13) % CAST;
+                actorRows.add(new MovieActorView(id, actorId, "Actor " + actorId, birthDate(actorId)));
+            }
+        }
+    }
+
+    // The list endpoints before: projections to DTOs, then Jackson over the DTO graph
+    @Benchmark
+    public int convertAndSerialize() throws IOException {
+        out.reset();
+        CursorPageDto<?> page = new CursorPageDto<>(assembler.assemble(ids, movies, actorRows), null);
+        objectMapper.writeValue(out, page);
+        return out.size();
+    }
+
+    // The list endpoints now: every joined row written as it arrives, no DTOs
+    @Benchmark
+    public int streamRows() throws IOException {
+        out.reset();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            MoviePageJsonWriter writer = new MoviePageJsonWriter(generator, size);
+            int row = 0;
+            for (MovieView movie : movies) {
+                for (int i = 0; i < actors; i++, row++) {
+                    MovieActorView actor = actorRows.get(row);
+                    writer.row(movie.id(), movie.title(), movie.releaseYear(), movie.duration(), movie.genreId(),
+                            movie.genreName(), actor.actorId(), actor.name(), actor.birthDate());
+                }
+            }
+            writer.finish();
+        }
+        return out.size();
+    }
+
+    private static LocalDate birthDate(long actorId) {
+        return LocalDate.of(1950, 1, 1).plusDays(actorId * 37 % 18_000);
+    }
+}
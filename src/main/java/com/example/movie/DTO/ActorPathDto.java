@@ -0,0 +1,22 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActorPathDto {
+    private Long from;
+    private Long to;
+    private boolean connected;
+
+    // Movies between the two actors, null when they are not connected
+    private Integer degrees;
+
+    // From the first actor to the second, empty when they are not connected
+    private List<ActorPathStepDto> steps;
+}
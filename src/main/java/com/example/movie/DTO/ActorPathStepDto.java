@@ -0,0 +1,17 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActorPathStepDto {
+    private Long actorId;
+    private String actorName;
+
+    // Movie shared with the previous actor of the path, null for the first actor
+    private Long movieId;
+    private String movieTitle;
+}
@@ -0,0 +1,5 @@
+package com.example.movie.DTO;
+
+// Read-only projection of an actor with the number of movies they play in
+public record ActorPopularityView(long id, String name, long movieCount) {
+}
@@ -0,0 +1,7 @@
+package com.example.movie.DTO;
+
+import java.time.LocalDate;
+
+// Read-only projection of an actor row
+public record ActorView(long id, String name, LocalDate birthDate) {
+}
@@ -0,0 +1,15 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AutocompleteDto {
+    private List<SuggestionDto> movies;
+    private List<SuggestionDto> actors;
+}
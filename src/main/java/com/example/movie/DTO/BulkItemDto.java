@@ -0,0 +1,19 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkItemDto {
+    // Position of the item in the request body, from 0
+    private int index;
+
+    // Generated ID, null when the item was not created
+    private Long id;
+
+    // Why the item was not created, null when it was
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkResultDto {
+    private boolean atomic;
+    private int created;
+    private int rejected;
+
+    // One result per item, in the order of the request body
+    private List<BulkItemDto> items;
+}
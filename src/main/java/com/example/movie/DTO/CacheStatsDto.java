@@ -0,0 +1,20 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDto {
+    private String name;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+
+    // Null when the cache does not track the figure
+    private Long size;
+    private Long putCount;
+    private Long evictionCount;
+}
@@ -0,0 +1,20 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeBatchDto {
+    private List<ChangeDto> changes;
+
+    // Cursor to pass as since for the changes after this batch, never null so it can be polled
+    private String next;
+
+    // True when more changes were already logged after this batch
+    private boolean hasMore;
+}
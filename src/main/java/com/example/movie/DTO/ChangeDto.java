@@ -0,0 +1,28 @@
+package com.example.movie.DTO;
+
+import com.example.movie.event.ChangeType;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeDto {
+    // Position in the change log, increasing in commit order
+    private long seq;
+
+    // "movie", "actor", "genre" or "movie_actor"
+    private String entity;
+
+    // ID of the row, the movie ID for a movie_actor link
+    private long entityId;
+
+    // The actor ID for a movie_actor link, null otherwise
+    private Long relatedId;
+
+    private ChangeType type;
+
+    // Epoch milliseconds of the commit
+    private long changedAt;
+}
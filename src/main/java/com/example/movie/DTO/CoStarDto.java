@@ -0,0 +1,16 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoStarDto {
+    private Long id;
+    private String name;
+
+    // Movies the co-star shares with the actor
+    private int sharedMovies;
+}
@@ -0,0 +1,17 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDto<T> {
+    private List<T> content;
+
+    // Opaque cursor of the next page, null on the last page
+    private String next;
+}
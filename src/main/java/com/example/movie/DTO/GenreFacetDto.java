@@ -0,0 +1,14 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GenreFacetDto {
+    private Long genreId;
+    private String name;
+    private long movies;
+}
@@ -0,0 +1,5 @@
+package com.example.movie.DTO;
+
+// Read-only projection of a movie row listed under its genre
+public record GenreMovieView(Long genreId, long id, String title, int releaseYear, int duration) {
+}
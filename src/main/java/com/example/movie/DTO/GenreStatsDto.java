@@ -0,0 +1,17 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GenreStatsDto {
+    private Long genreId;
+    private String name;
+    private long movies;
+
+    // Minutes, null when the genre has no movies
+    private Double averageDuration;
+}
@@ -0,0 +1,5 @@
+package com.example.movie.DTO;
+
+// Read-only projection of the movie count and total duration of a genre
+public record GenreStatsView(Long genreId, String name, long movies, long totalDuration) {
+}
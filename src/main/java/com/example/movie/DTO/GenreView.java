@@ -0,0 +1,5 @@
+package com.example.movie.DTO;
+
+// Read-only projection of a genre row
+public record GenreView(Long id, String name) {
+}
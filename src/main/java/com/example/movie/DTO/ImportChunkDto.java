@@ -0,0 +1,18 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportChunkDto {
+    private int chunk;
+    private long firstLine;
+    private long lastLine;
+    private int inserted;
+    private int rejected;
+    private long millis;
+    private double rowsPerSecond;
+}
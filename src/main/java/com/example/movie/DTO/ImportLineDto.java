@@ -0,0 +1,30 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// One NDJSON line of a catalog import, type is "genre", "actor" or "movie"
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportLineDto {
+    private String type;
+
+    // Optional, assigned after the current maximum ID when missing
+    private Long id;
+
+    // Genre and actor fields
+    private String name;
+    private LocalDate birthDate;
+
+    // Movie fields, genreId and actorIds refer to existing rows or to rows earlier in the import
+    private String title;
+    private Integer releaseYear;
+    private Integer duration;
+    private Long genreId;
+    private List<Long> actorIds;
+}
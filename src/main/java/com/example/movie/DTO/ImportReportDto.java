@@ -0,0 +1,24 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportReportDto {
+    private long lines;
+    private long genres;
+    private long actors;
+    private long movies;
+    private long movieActorLinks;
+    private long rejected;
+    private long millis;
+    private List<ImportChunkDto> chunks;
+
+    // The first rejected lines with the reason, the rejected count covers all of them
+    private List<RejectedLineDto> rejectedLines;
+}
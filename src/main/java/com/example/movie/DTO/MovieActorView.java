@@ -0,0 +1,7 @@
+package com.example.movie.DTO;
+
+import java.time.LocalDate;
+
+// Read-only projection of one movie_actor link with the actor columns
+public record MovieActorView(long movieId, long actorId, String name, LocalDate birthDate) {
+}
@@ -0,0 +1,29 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovieCriteriaDto {
+    // Every criterion is optional, the given ones are combined with AND
+    private Long genreId;
+
+    // Release years, inclusive
+    private Integer yearFrom;
+    private Integer yearTo;
+
+    // Minutes, inclusive
+    private Integer minDuration;
+    private Integer maxDuration;
+
+    // Actors who all play in the movie
+    private List<Long> actorIds;
+
+    // Part of the title, case-insensitive
+    private String title;
+}
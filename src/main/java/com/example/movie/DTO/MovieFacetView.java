@@ -0,0 +1,5 @@
+package com.example.movie.DTO;
+
+// Read-only projection of the matching movie count of a genre and release year
+public record MovieFacetView(Long genreId, String genreName, int releaseYear, long movies) {
+}
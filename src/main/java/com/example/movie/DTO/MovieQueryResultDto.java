@@ -0,0 +1,23 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovieQueryResultDto {
+    private List<MovieResponseDto> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    // Matching movies per genre, most first, and per bucket of release years, earliest first;
+    // only genres and buckets with matching movies are listed
+    private List<GenreFacetDto> genreFacets;
+    private List<YearFacetDto> yearFacets;
+}
@@ -1,5 +1,8 @@
 package com.example.movie.DTO;
 
+import com.example.movie.entity.Movie;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.*;
 
 import java.util.Set;
@@ -14,6 +17,9 @@ public class MovieRequestDto {
 
     private String title;
 
+    // Checked on create; 0 leaves the year unchanged on update, where the entity checks the new value
+    @Min(value = Movie.MIN_RELEASE_YEAR, message = "Release year should be valid")
+    @Max(value = Movie.MAX_RELEASE_YEAR, message = "Release year should be valid")
     private int releaseYear;
 
     private int duration;
@@ -0,0 +1,5 @@
+package com.example.movie.DTO;
+
+// Read-only projection of the movie columns the autocomplete index needs
+public record MovieTitleView(long id, String title, int releaseYear) {
+}
@@ -0,0 +1,5 @@
+package com.example.movie.DTO;
+
+// Read-only projection of a movie row joined with its genre
+public record MovieView(long id, String title, int releaseYear, int duration, Long genreId, String genreName) {
+}
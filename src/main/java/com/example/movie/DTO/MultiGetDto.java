@@ -0,0 +1,18 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MultiGetDto<T> {
+    // Found resources in the order of the requested IDs
+    private List<T> content;
+
+    // Requested IDs without a resource, empty when all were found
+    private List<Long> missing;
+}
@@ -0,0 +1,13 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RejectedLineDto {
+    private long line;
+    private String reason;
+}
@@ -0,0 +1,20 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SimilarMovieDto {
+    private Long id;
+    private String title;
+    private int releaseYear;
+    private MovieResponseGenreDto genre;
+
+    // Ranking score, higher is more similar
+    private double score;
+    private int sharedActors;
+    private boolean sameGenre;
+}
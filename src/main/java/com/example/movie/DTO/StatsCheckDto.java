@@ -0,0 +1,19 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsCheckDto {
+    // Whether the statistics matched the ones aggregated from the database
+    private boolean consistent;
+
+    // Genres and release years whose figures differed, and were replaced
+    private int genresRepaired;
+    private int yearsRepaired;
+    private long movies;
+    private long elapsedMillis;
+}
@@ -0,0 +1,16 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionDto {
+    private long id;
+    private String text;
+
+    // Release year of a movie, number of movies of an actor
+    private long score;
+}
@@ -0,0 +1,6 @@
+package com.example.movie.DTO;
+
+// Validators of a GET response: the entity tag built from the versions of every row the response embeds,
+// and the latest change of those rows in epoch milliseconds
+public record VersionView(String etag, long lastModified) {
+}
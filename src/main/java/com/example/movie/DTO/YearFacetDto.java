@@ -0,0 +1,15 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class YearFacetDto {
+    // Release years of the bucket, inclusive
+    private int from;
+    private int to;
+    private long movies;
+}
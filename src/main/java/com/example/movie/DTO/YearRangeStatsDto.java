@@ -0,0 +1,18 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class YearRangeStatsDto {
+    // Release years, inclusive
+    private int from;
+    private int to;
+    private long movies;
+
+    // Minutes, null when no movie was released in the range
+    private Double averageDuration;
+}
@@ -0,0 +1,16 @@
+package com.example.movie.DTO;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class YearStatsDto {
+    private int year;
+    private long movies;
+
+    // Minutes
+    private Double averageDuration;
+}
@@ -0,0 +1,5 @@
+package com.example.movie.DTO;
+
+// Read-only projection of the movie count and total duration of a release year
+public record YearStatsView(int releaseYear, long movies, long totalDuration) {
+}
@@ -0,0 +1,206 @@
+package com.example.movie.cache;
+
+import com.example.movie.DTO.CacheStatsDto;
+import com.example.movie.DTO.MovieResponseActorDto;
+import com.example.movie.DTO.MovieResponseDto;
+import com.example.movie.DTO.VersionView;
+import com.example.movie.event.ActorChangedEvent;
+import com.example.movie.event.CatalogImportedEvent;
+import com.example.movie.event.ChangeType;
+import com.example.movie.event.GenreChangedEvent;
+import com.example.movie.event.MovieChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Bounded in-process cache of the serialized JSON of GET /api/{movies,actors,genres}/{id}.
+// Entries expire after a TTL and are evicted by size; the write paths invalidate them through
+// the catalog change events once the change is committed. Each entry keeps the validators (ETag and
+// Last-Modified) read before its body, so conditional GETs of cached responses issue no query at all.
+@Component
+public class ResponseCache {
+
+    public enum Kind {
+        MOVIE,
+        ACTOR,
+        GENRE
+    }
+
+    private record Key(Kind kind, long id) {
+    }
+
+    // The validators of a response, null when the entity does not exist, and its body, loaded and serialized
+    // on the first call only: a conditional GET that is answered 304 Not Modified never loads the body
+    public static final class CachedResponse {
+
+        private final VersionView version;
+
+        private Supplier<byte[]> body;
+
+        private CachedResponse(VersionView version, Supplier<byte[]> body) {
+            this.version = version;
+            this.body = body;
+        }
+
+        public VersionView version() {
+            return version;
+        }
+
+        public byte[] body() {
+            byte[] loaded = body.get();
+            body = () -> loaded;
+            return loaded;
+        }
+    }
+
+    // The cached body and validators plus the genre and actors a movie response embeds, used for precise invalidation
+    private record Entry(byte[] body, VersionView version, Long genreId, long[] actorIds) {
+
+        boolean embedsActor(long actorId) {
+            for (long id : actorIds) {
+                if (id == actorId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final long[] NO_ACTORS = new long[0];
+
+    private final Cache<Key, Entry> cache;
+
+    private final ObjectMapper objectMapper;
+
+    // Bumped by every invalidation, a load that raced with a write is not stored
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCache(ObjectMapper objectMapper,
+                         @Value("${movie.response-cache.max-size:10000}") long maxSize,
+                         @Value("${movie.response-cache.ttl:10m}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Get the JSON of a movie, reading its validators and then loading and serializing it on a miss
+    public CachedResponse movie(long id, Supplier<Optional<VersionView>> version, Supplier<MovieResponseDto> loader) {
+        return get(new Key(Kind.MOVIE, id), version, validators -> {
+            MovieResponseDto movie = loader.get();
+            long[] actorIds = movie.getActors() == null ? NO_ACTORS
+                    : movie.getActors().stream().mapToLong(MovieResponseActorDto::getId).toArray();
+            Long genreId = movie.getGenre() != null ? movie.getGenre().getId() : null;
+            return new Entry(serialize(movie), validators, genreId, actorIds);
+        });
+    }
+
+    // Get the JSON of an actor, reading its validators and then loading and serializing it on a miss
+    public CachedResponse actor(long id, Supplier<Optional<VersionView>> version, Supplier<?> loader) {
+        return get(new Key(Kind.ACTOR, id), version,
+                validators -> new Entry(serialize(loader.get()), validators, null, NO_ACTORS));
+    }
+
+    // Get the JSON of a genre, reading its validators and then loading and serializing it on a miss
+    public CachedResponse genre(long id, Supplier<Optional<VersionView>> version, Supplier<?> loader) {
+        return get(new Key(Kind.GENRE, id), version,
+                validators -> new Entry(serialize(loader.get()), validators, null, NO_ACTORS));
+    }
+
+    public CacheStatsDto stats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsDto.builder()
+                .name("responses")
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    // A movie change affects the movie itself and the movie lists of its old and new genre
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        generation.incrementAndGet();
+        cache.invalidate(new Key(Kind.MOVIE, event.movieId()));
+        if (event.before() != null && event.before().genreId() != null) {
+            cache.invalidate(new Key(Kind.GENRE, event.before().genreId()));
+        }
+        if (event.after() != null && event.after().genreId() != null) {
+            cache.invalidate(new Key(Kind.GENRE, event.after().genreId()));
+        }
+    }
+
+    // An actor change affects the actor and every cached movie that embeds it
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActorChanged(ActorChangedEvent event) {
+        generation.incrementAndGet();
+        cache.invalidate(new Key(Kind.ACTOR, event.actorId()));
+        if (event.type() != ChangeType.CREATED) {
+            cache.asMap().entrySet().removeIf(entry -> entry.getKey().kind() == Kind.MOVIE
+                    && entry.getValue().embedsActor(event.actorId()));
+        }
+    }
+
+    // A genre change affects the genre and every cached movie that embeds it
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGenreChanged(GenreChangedEvent event) {
+        generation.incrementAndGet();
+        cache.invalidate(new Key(Kind.GENRE, event.genreId()));
+        if (event.type() != ChangeType.CREATED) {
+            cache.asMap().entrySet().removeIf(entry -> entry.getKey().kind() == Kind.MOVIE
+                    && Long.valueOf(event.genreId()).equals(entry.getValue().genreId()));
+        }
+    }
+
+    // A bulk import may have added movies to any cached genre
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    // The validators are read before the body: a write landing in between pairs a newer body with older
+    // validators, which only costs the client one more full response, never a stale 304
+    private CachedResponse get(Key key, Supplier<Optional<VersionView>> version, Function<VersionView, Entry> loader) {
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return new CachedResponse(cached.version(), cached::body);
+        }
+        long loadGeneration = generation.get();
+        VersionView validators = version.get().orElse(null);
+        return new CachedResponse(validators, () -> {
+            Entry entry = loader.apply(validators);
+            if (generation.get() == loadGeneration) {
+                cache.put(key, entry);
+            }
+            return entry.body();
+        });
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize response", ex);
+        }
+    }
+}
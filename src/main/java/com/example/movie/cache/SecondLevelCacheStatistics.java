@@ -0,0 +1,109 @@
+package com.example.movie.cache;
+
+import com.example.movie.DTO.CacheStatsDto;
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import com.example.movie.event.ActorChangedEvent;
+import com.example.movie.event.CatalogImportedEvent;
+import com.example.movie.event.MovieChangedEvent;
+import com.example.movie.event.MovieSnapshot;
+import org.hibernate.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.metamodel.MappingMetamodel;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Hit, miss and put figures of the Hibernate second-level cache regions
+@Component
+public class SecondLevelCacheStatistics {
+
+    private static final String MOVIE_ACTORS = Movie.class.getName() + ".actors";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public List<CacheStatsDto> stats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toDto(region, statistics.getCacheRegionStatistics(region)))
+                .collect(Collectors.toList());
+    }
+
+    // Drop every entity, collection and query cache entry, used after writes that bypass Hibernate
+    public void evictAll() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    // A bulk import writes through JDBC, which Hibernate does not see
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        evictAll();
+    }
+
+    // The bulk creates write movies and links through JDBC and publish the change events of the entity write paths,
+    // so the cached cast of the movie, the cached movies of its genres and the cached query results over the movie
+    // tables are dropped here; after an entity write, which Hibernate already evicted, this only costs a second lookup
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictCollectionData(MOVIE_ACTORS, event.movieId());
+        evictGenreMovies(cache, event.before());
+        evictGenreMovies(cache, event.after());
+        invalidateQuerySpaces(Movie.class);
+    }
+
+    // The same for the actor rows and links of the bulk creates
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActorChanged(ActorChangedEvent event) {
+        invalidateQuerySpaces(Actor.class);
+    }
+
+    // Mark the tables of the entity and of the movie-actor links as written in the update timestamps cache, so the
+    // query cache stops serving results read before, like Hibernate does after its own writes
+    private void invalidateQuerySpaces(Class<?> entity) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        MappingMetamodel metamodel = sessionFactory.getMappingMetamodel();
+        String[] spaces = Stream.concat(Arrays.stream(metamodel.getEntityDescriptor(entity).getPropertySpaces()),
+                Arrays.stream(metamodel.getCollectionDescriptor(MOVIE_ACTORS).getCollectionSpaces()))
+                .distinct()
+                .toArray(String[]::new);
+        try (Session session = sessionFactory.openSession()) {
+            sessionFactory.getCache().getTimestampsCache()
+                    .invalidate(spaces, session.unwrap(SharedSessionContractImplementor.class));
+        }
+    }
+
+    private static void evictGenreMovies(Cache cache, MovieSnapshot movie) {
+        if (movie != null && movie.genreId() != null) {
+            cache.evictCollectionData(Genre.class.getName() + ".movies", movie.genreId());
+        }
+    }
+
+    private CacheStatsDto toDto(String region, CacheRegionStatistics regionStatistics) {
+        long hits = regionStatistics.getHitCount();
+        long size = regionStatistics.getElementCountInMemory();
+        long misses = regionStatistics.getMissCount();
+        return CacheStatsDto.builder()
+                .name(region)
+                .size(size < 0 ? null : size) // The JCache regions do not report their size
+                .hitCount(hits)
+                .missCount(misses)
+                .hitRate(hits + misses == 0 ? 0.0 : (double) hits / (hits + misses))
+                .putCount(regionStatistics.getPutCount())
+                .build();
+    }
+}
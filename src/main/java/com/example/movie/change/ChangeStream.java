@@ -0,0 +1,172 @@
+package com.example.movie.change;
+
+import com.example.movie.DTO.ChangeDto;
+import com.example.movie.event.ActorChangedEvent;
+import com.example.movie.event.CatalogImportedEvent;
+import com.example.movie.event.GenreChangedEvent;
+import com.example.movie.event.MovieChangedEvent;
+import com.example.movie.service.ChangeService;
+import com.example.movie.util.Cursors;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Pushes the change log to server-sent-event subscribers as changes commit. One thread reads the log for all
+// subscribers: from the oldest position among them, in batches, sending each subscriber only what it has not
+// seen, so a new subscriber replays from its cursor and then follows the live changes with the others.
+// The thread is woken by the change events, which fire after commit, and polls the log at poll-interval as well
+// to pick up writes that publish no event. Each event carries its cursor as the id, so a client reconnecting with
+// Last-Event-ID resumes where it stopped.
+@Component
+public class ChangeStream {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStream.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        // Seq of the last change sent, only touched by the stream thread once subscribed
+        private volatile long lastSeq;
+
+        private Subscriber(SseEmitter emitter, long lastSeq) {
+            this.emitter = emitter;
+            this.lastSeq = lastSeq;
+        }
+    }
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean pumpScheduled = new AtomicBoolean();
+
+    private final ChangeService changeService;
+
+    private final ScheduledExecutorService executor;
+
+    public ChangeStream(ChangeService changeService,
+                        @Value("${movie.changes.poll-interval:1s}") Duration pollInterval,
+                        @Value("${movie.changes.heartbeat:15s}") Duration heartbeat) {
+        this.changeService = changeService;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::wake, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Stream the changes logged after the given seq, then every new one, until the client disconnects
+    public SseEmitter subscribe(long since) {
+        SseEmitter emitter = new SseEmitter(0L); // No timeout
+        Subscriber subscriber = new Subscriber(emitter, since);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        wake();
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        wake();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActorChanged(ActorChangedEvent event) {
+        wake();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGenreChanged(GenreChangedEvent event) {
+        wake();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        wake();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    // Run the pump on the stream thread, once for any number of wake-ups that arrive before it starts
+    private void wake() {
+        if (!subscribers.isEmpty() && pumpScheduled.compareAndSet(false, true)) {
+            executor.execute(this::pump);
+        }
+    }
+
+    private void pump() {
+        pumpScheduled.set(false);
+        try {
+            while (!subscribers.isEmpty()) {
+                long from = subscribers.stream().mapToLong(subscriber -> subscriber.lastSeq).min().orElse(0L);
+                List<ChangeDto> changes = changeService.getChangesAfter(from, BATCH_SIZE);
+                for (Subscriber subscriber : subscribers) {
+                    send(subscriber, changes);
+                }
+                if (changes.size() < BATCH_SIZE) {
+                    return;
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Retried at the next wake-up or poll
+            log.warn("Could not read the change log", ex);
+        }
+    }
+
+    private void send(Subscriber subscriber, List<ChangeDto> changes) {
+        try {
+            for (ChangeDto change : changes) {
+                if (change.getSeq() > subscriber.lastSeq) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Cursors.encode(change.getSeq()))
+                            .name("change")
+                            .data(change, MediaType.APPLICATION_JSON));
+                    subscriber.lastSeq = change.getSeq();
+                }
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // The client is gone
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(ex);
+        }
+    }
+
+    // A comment line keeps idle connections open through proxies and detects clients that went away
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException ex) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(ex);
+            }
+        }
+    }
+}
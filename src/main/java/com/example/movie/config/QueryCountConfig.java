@@ -0,0 +1,29 @@
+package com.example.movie.config;
+
+import com.example.movie.sql.QueryCounter;
+import com.example.movie.sql.QueryCountingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Counts the statements of every request: wraps the primary "dataSource" bean, the one Hibernate and JdbcTemplate
+// use, with split pools as well as with the single default pool
+@Configuration
+public class QueryCountConfig {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor(ObjectProvider<QueryCounter> queryCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    return new QueryCountingDataSource(dataSource, queryCounter.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.movie.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// SQLite in WAL mode behind two pools. SQLite lets one connection write at a time, so the writer pool has a
+// single connection: concurrent writes queue for it in the pool instead of failing with SQLITE_BUSY. In WAL
+// mode readers do not block the writer or each other, so the read-only pool has several connections.
+// Transactions marked @Transactional(readOnly = true) run on the reader pool, all others on the writer.
+@Configuration
+@ConditionalOnProperty(name = "movie.datasource.split-pools", havingValue = "true")
+public class SQLiteDataSourceConfig {
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${movie.datasource.reader-pool-size:4}")
+    private int readerPoolSize;
+
+    // Milliseconds a connection waits on a lock held by another process before SQLITE_BUSY
+    @Value("${movie.datasource.busy-timeout:5000}")
+    private int busyTimeout;
+
+    @Value("${movie.datasource.mmap-size:268435456}")
+    private long mmapSize;
+
+    // With virtual threads, callers wait for a connection on a semaphore in front of each pool
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${movie.datasource.connection-timeout:30s}")
+    private Duration connectionTimeout;
+
+    // Publishes the hikaricp.* gauges and the connection acquire/usage timers of both pools
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    // Opened first, so the database is switched to WAL before any reader connects
+    @Bean(destroyMethod = "close")
+    public HikariDataSource writerDataSource() {
+        SQLiteConfig config = sqliteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        return pool("sqlite-writer", config, 1, false);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource readerDataSource(HikariDataSource writerDataSource) {
+        SQLiteConfig config = sqliteConfig();
+        config.setReadOnly(true);
+        return pool("sqlite-reader", config, readerPoolSize, true);
+    }
+
+    // Picks the pool on the first statement, after the transaction manager has marked the connection read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource writerDataSource, HikariDataSource readerDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(guarded(writerDataSource));
+        dataSource.setReadOnlyDataSource(guarded(readerDataSource));
+        return dataSource;
+    }
+
+    private DataSource guarded(HikariDataSource pool) {
+        return virtualThreads ? new SemaphoreDataSource(pool, pool.getMaximumPoolSize(), connectionTimeout) : pool;
+    }
+
+    private SQLiteConfig sqliteConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        // WAL is durable across crashes with NORMAL; only the last commits may roll back on power loss
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setBusyTimeout(busyTimeout);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+        return config;
+    }
+
+    private HikariDataSource pool(String name, SQLiteConfig config, int size, boolean readOnly) {
+        SQLiteDataSource sqlite = new SQLiteDataSource(config);
+        sqlite.setUrl(url);
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName(name);
+        hikari.setDataSource(sqlite);
+        hikari.setMaximumPoolSize(size);
+        hikari.setReadOnly(readOnly);
+        hikari.setConnectionTimeout(connectionTimeout.toMillis());
+        meterRegistry.ifAvailable(registry -> hikari.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return new HikariDataSource(hikari);
+    }
+}
@@ -1,20 +1,33 @@
 package com.example.movie.controller;
 
+import com.example.movie.DTO.ActorPathDto;
 import com.example.movie.DTO.ActorRequestDto;
 import com.example.movie.DTO.ActorResponseDto;
+import com.example.movie.DTO.BulkResultDto;
+import com.example.movie.DTO.CoStarDto;
+import com.example.movie.cache.ResponseCache;
 import com.example.movie.DTO.MovieResponseDto;
+import com.example.movie.DTO.MultiGetDto;
+import com.example.movie.DTO.VersionView;
 import com.example.movie.entity.Actor;
 import com.example.movie.service.ActorService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/actors")
@@ -23,6 +36,9 @@ public class ActorController {
     @Autowired
     private ActorService actorService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     // Create a new actor and return HTTP status 201 (Created) if successful
     @PostMapping
     public ResponseEntity<ActorResponseDto> createActor(@Valid @RequestBody ActorRequestDto actorRequestDto) {
@@ -30,37 +46,100 @@ public class ActorController {
         return ResponseEntity.status(201).body(newActor); // Returning HTTP 201 Created
     }
 
-    // Get actor by ID, return 200 (OK) if found or 404 (Not Found) if not
+    // Create many actors in one transaction, return 201 (Created) when all were created, 200 (OK) when only some
+    // were, or 400 (Bad Request) when none was, with the result of every item
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResultDto> createActors(
+            @RequestBody List<ActorRequestDto> actors,
+            @RequestParam(defaultValue = "${movie.bulk.atomic:true}") boolean atomic  // All or nothing, or partial success
+    ) {
+        BulkResultDto result = actorService.createActors(actors, atomic);
+        if (result.getRejected() == 0) {
+            return ResponseEntity.status(201).body(result); // Returning HTTP 201 Created
+        }
+        return ResponseEntity.status(result.getCreated() > 0 ? 200 : 400).body(result); // Returning HTTP 200 OK or 400 Bad Request
+    }
+
+    // Get actor by ID from the response cache, return 200 (OK) if found or 404 (Not Found) if not
     @GetMapping("/{id}")
-    public ResponseEntity<ActorResponseDto> getActorById(@PathVariable Long id) {
-        ActorResponseDto actor = actorService.getActorById(id);
-        if (actor != null) {
-            return ResponseEntity.ok(actor); // Returning HTTP 200 OK
-        } else {
-            return ResponseEntity.notFound().build(); // Returning HTTP 404 Not Found
+    public ResponseEntity<byte[]> getActorById(@PathVariable Long id, WebRequest request) {
+        ResponseCache.CachedResponse actor = responseCache.actor(id,
+                () -> actorService.getActorVersion(id), () -> actorService.getActorById(id));
+        // Answer from the version alone while the client's ETag or Last-Modified is current
+        VersionView version = actor.version();
+        if (version != null && request.checkNotModified(version.etag(), version.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build(); // Returning HTTP 304 Not Modified
         }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(actor.body()); // Returning HTTP 200 OK
+    }
+
+    // Get several actors by their comma-separated IDs (at most 100) in one request, return 200 (OK)
+    // with the actors in the order of the IDs and the IDs that were not found in "missing"
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetDto<ActorResponseDto>> getActorsByIds(@RequestParam List<Long> ids) {
+        MultiGetDto<ActorResponseDto> actors = actorService.getActorsByIds(ids);
+        return ResponseEntity.ok(actors); // Returning HTTP 200 OK
+    }
+
+    // Get the movies of an actor, return 200 (OK), 304 (Not Modified) for a current conditional GET, or 404 (Not Found)
+    @GetMapping("/{id}/movies")
+    public ResponseEntity<List<MovieResponseDto>> getMoviesOfActor(@PathVariable Long id, WebRequest request) {
+        // Read the versions of the movies, their genres and casts before loading the movies
+        Optional<VersionView> version = actorService.getActorMoviesVersion(id);
+        if (version.isPresent() && request.checkNotModified(version.get().etag(), version.get().lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build(); // Returning HTTP 304 Not Modified
+        }
+        List<MovieResponseDto> movies = actorService.getAllMoviesByActorId(id);
+        return ResponseEntity.ok(movies); // Returning HTTP 200 OK
+    }
+
+    // Get the actors who share the most movies with an actor, return 200 OK or 404 (Not Found)
+    @GetMapping("/{id}/costars")
+    public ResponseEntity<List<CoStarDto>> getCoStars(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit  // Co-stars to return, 10 by default
+    ) {
+        return ResponseEntity.ok(actorService.getCoStars(id, limit)); // Returning HTTP 200 OK
+    }
+
+    // Get a shortest chain of co-stars between two actors, return 200 OK or 404 (Not Found)
+    @GetMapping("/path")
+    public ResponseEntity<ActorPathDto> getActorPath(@RequestParam Long from, @RequestParam Long to) {
+        return ResponseEntity.ok(actorService.getActorPath(from, to)); // Returning HTTP 200 OK
     }
 
     // Search actors by name, return paginated results with 200 OK
     @GetMapping("/search")
-    public ResponseEntity<Page<Actor>> searchActorsByName(
+    public ResponseEntity<Page<ActorResponseDto>> searchActorsByName(
             @RequestParam String name,
             Pageable pageable
     ) {
-        Page<Actor> actors = actorService.searchActorsByName(name, pageable);
+        Page<ActorResponseDto> actors = actorService.searchActorsByName(name, pageable);
         return ResponseEntity.ok(actors); // Returning HTTP 200 OK
     }
 
-    // Get all actors with pagination, return 200 OK
-    @GetMapping
-    public ResponseEntity<List<ActorResponseDto>> getAllActors(
-            @RequestParam(required = false)@Max(100) Integer page,
-            @RequestParam(required = false)@Min(0)@Max(20) Integer size
+    // Search actor names through the full-text index, best match first, return paginated results with 200 OK
+    @GetMapping(value = "/search", params = "q")
+    public ResponseEntity<Page<ActorResponseDto>> searchActors(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size
     ) {
-        List<ActorResponseDto> actors = actorService.getAllActors(page, size);
+        Page<ActorResponseDto> actors = actorService.searchActors(q, PageRequest.of(page, size));
         return ResponseEntity.ok(actors); // Returning HTTP 200 OK
     }
 
+    // Get actors one keyset page at a time, written to the response as the rows are read, return 200 OK
+    @GetMapping
+    public void getAllActors(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false)@Min(1)@Max(100) Integer size,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        actorService.writeAllActors(cursor, size, response.getOutputStream()); // Returning HTTP 200 OK
+    }
+
     // Update an actor by ID, return 200 (OK) if successful or 404 (Not Found) if actor not found
     @PatchMapping("/{id}")
     public ResponseEntity<ActorResponseDto> updateActor(@PathVariable Long id, @RequestBody ActorRequestDto actorDetails) {
@@ -0,0 +1,32 @@
+package com.example.movie.controller;
+
+import com.example.movie.DTO.AutocompleteDto;
+import com.example.movie.index.AutocompleteIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+public class AutocompleteController {
+
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
+    // Endpoint to get type-ahead suggestions of movie titles and actor names from the in-memory index
+    @GetMapping
+    public ResponseEntity<AutocompleteDto> autocomplete(
+            @RequestParam String q,                         // Text typed so far
+            @RequestParam(defaultValue = "10") int limit    // Suggestions per kind, at most 50
+    ) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return ResponseEntity.ok(autocompleteIndex.suggest(q, limit)); // Return 200 OK with the suggestions
+    }
+}
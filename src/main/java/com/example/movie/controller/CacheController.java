@@ -0,0 +1,33 @@
+package com.example.movie.controller;
+
+import com.example.movie.DTO.CacheStatsDto;
+import com.example.movie.cache.ResponseCache;
+import com.example.movie.cache.SecondLevelCacheStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private SecondLevelCacheStatistics secondLevelCacheStatistics;
+
+    // Endpoint to get hit, miss and eviction statistics of the response cache and the second-level cache regions
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats() {
+        List<CacheStatsDto> stats = new ArrayList<>();
+        stats.add(responseCache.stats());
+        stats.addAll(secondLevelCacheStatistics.stats());
+        return ResponseEntity.ok(stats); // Return 200 OK with the statistics
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.movie.controller;
+
+import com.example.movie.DTO.ChangeBatchDto;
+import com.example.movie.change.ChangeStream;
+import com.example.movie.service.ChangeService;
+import com.example.movie.util.Cursors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeController {
+
+    @Autowired
+    private ChangeService changeService;
+
+    @Autowired
+    private ChangeStream changeStream;
+
+    // Endpoint to read the changes logged after a cursor, oldest first, with the cursor to poll next
+    @GetMapping
+    public ResponseEntity<ChangeBatchDto> getChanges(
+            @RequestParam(required = false) String since,   // Cursor from the previous batch, absent to read from the start
+            @RequestParam(required = false) Integer limit    // Changes per batch, 100 by default, maximum 1000
+    ) {
+        ChangeBatchDto changes = changeService.getChanges(since, limit);
+        return ResponseEntity.ok(changes); // Return 200 OK with the batch and the next cursor
+    }
+
+    // Endpoint to get the cursor of the last change, taken before a full download to sync from afterwards
+    @GetMapping("/head")
+    public ResponseEntity<ChangeBatchDto> getHead() {
+        return ResponseEntity.ok(changeService.getHead()); // Return 200 OK with an empty batch and the cursor
+    }
+
+    // Endpoint to stream the changes as server-sent events while they commit. Starts after Last-Event-ID when a
+    // client reconnects, else after since, else at the last change logged
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) String since,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        String cursor = lastEventId != null ? lastEventId : since;
+        long after = cursor != null ? Cursors.decode(cursor) : Cursors.decode(changeService.getHead().getNext());
+        return changeStream.subscribe(after); // Return 200 OK with the event stream
+    }
+}
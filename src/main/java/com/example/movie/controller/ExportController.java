@@ -0,0 +1,42 @@
+package com.example.movie.controller;
+
+import com.example.movie.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    // Endpoint to download every movie with its genre and actors, streamed while it is read from the database
+    @GetMapping("/movies")
+    public ResponseEntity<StreamingResponseBody> exportMovies(
+            @RequestParam(defaultValue = "ndjson") String format  // ndjson or csv
+    ) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"movies.csv\"")
+                    .body(exportService::exportMoviesAsCsv); // Return 200 OK with the CSV stream
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"movies.ndjson\"")
+                    .body(exportService::exportMoviesAsNdjson); // Return 200 OK with the NDJSON stream
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format);
+    }
+}
@@ -2,17 +2,24 @@ package com.example.movie.controller;
 
 import com.example.movie.DTO.GenreRequestDto;
 import com.example.movie.DTO.GenreResponseDto;
+import com.example.movie.DTO.MultiGetDto;
+import com.example.movie.DTO.VersionView;
+import com.example.movie.cache.ResponseCache;
 import com.example.movie.entity.Genre;
 import com.example.movie.entity.Movie;
 import com.example.movie.service.GenreService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -22,6 +29,9 @@ public class GenreController {
     @Autowired
     private GenreService genreService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     // Endpoint to create a new Genre
     @PostMapping
     public ResponseEntity<GenreResponseDto> createGenre(@Valid @RequestBody GenreRequestDto genre) {
@@ -31,19 +41,35 @@ public class GenreController {
 
     // Endpoint to get a Genre by its ID
     @GetMapping("/{id}")
-    public ResponseEntity<GenreResponseDto> getGenreById(@PathVariable Long id) {
-        GenreResponseDto genre = genreService.getGenreById(id);
-        return ResponseEntity.ok(genre); // Return 200 OK with the genre data
+    public ResponseEntity<byte[]> getGenreById(@PathVariable Long id, WebRequest request) {
+        // Serve the serialized JSON from the response cache, loading it on a miss
+        ResponseCache.CachedResponse genre = responseCache.genre(id,
+                () -> genreService.getGenreVersion(id), () -> genreService.getGenreById(id));
+        // Answer from the versions alone while the client's ETag or Last-Modified is current
+        VersionView version = genre.version();
+        if (version != null && request.checkNotModified(version.etag(), version.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build(); // Return 304 Not Modified
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(genre.body()); // Return 200 OK with the genre data
+    }
+
+    // Endpoint to get several Genres by their comma-separated IDs (at most 100) in one request,
+    // in the order of the IDs and with the IDs that were not found in "missing"
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetDto<GenreResponseDto>> getGenresByIds(@RequestParam List<Long> ids) {
+        MultiGetDto<GenreResponseDto> genres = genreService.getGenresByIds(ids);
+        return ResponseEntity.ok(genres); // Return 200 OK with the found genres and the missing IDs
     }
 
-    // Endpoint to get all Genres, with optional pagination
+    // Endpoint to get Genres one keyset page at a time, written to the response as the rows are read
     @GetMapping
-    public ResponseEntity<List<GenreResponseDto>> getAllGenre(
-            @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer page_size
-    ) {
-        List<GenreResponseDto> genres = genreService.getAllGenres(page, page_size);
-        return ResponseEntity.ok(genres); // Return 200 OK with list of genres
+    public void getAllGenre(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        genreService.writeAllGenres(cursor, size, response.getOutputStream()); // Return 200 OK with the page of genres and the next cursor
     }
 
     // Endpoint to update an existing Genre
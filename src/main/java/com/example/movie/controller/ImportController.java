@@ -0,0 +1,26 @@
+package com.example.movie.controller;
+
+import com.example.movie.DTO.ImportReportDto;
+import com.example.movie.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    @Autowired
+    private ImportService importService;
+
+    // Endpoint to bulk import genres, actors and movies from an NDJSON body, streamed as it is read
+    @PostMapping(consumes = {"application/x-ndjson", "application/ndjson"})
+    public ResponseEntity<ImportReportDto> importCatalog(InputStream body) {
+        ImportReportDto report = importService.importCatalog(body);
+        return ResponseEntity.ok(report); // Return 200 OK with the per-chunk figures and the rejected lines
+    }
+}
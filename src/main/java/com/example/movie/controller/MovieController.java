@@ -1,21 +1,35 @@
 package com.example.movie.controller;
 
 import com.example.movie.DTO.ActorResponseDto;
+import com.example.movie.DTO.BulkResultDto;
+import com.example.movie.DTO.MovieCriteriaDto;
+import com.example.movie.DTO.MovieQueryResultDto;
+import com.example.movie.cache.ResponseCache;
 import com.example.movie.DTO.MovieRequestDto;
 import com.example.movie.DTO.MovieResponseDto;
+import com.example.movie.DTO.MultiGetDto;
+import com.example.movie.DTO.SimilarMovieDto;
+import com.example.movie.DTO.VersionView;
 import com.example.movie.service.ActorService;
 import com.example.movie.service.MovieService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -28,6 +42,9 @@ public class MovieController {
     @Autowired
     private ActorService actorService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     // POST method to create a new movie and return HTTP 201 (Created)
     @PostMapping
     public ResponseEntity<MovieResponseDto> createMovie(@Valid @RequestBody MovieRequestDto movieRequestDto) {
@@ -35,23 +52,57 @@ public class MovieController {
         return ResponseEntity.status(HttpStatus.CREATED).body(newMovie); // Return 201 Created
     }
 
+    // POST method to create many movies in one transaction and return HTTP 201 (Created) when all were created,
+    // 200 (OK) when only some were, or 400 (Bad Request) when none was, with the result of every item
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResultDto> createMovies(
+            @RequestBody List<MovieRequestDto> movies,
+            @RequestParam(defaultValue = "${movie.bulk.atomic:true}") boolean atomic  // All or nothing, or partial success
+    ) {
+        BulkResultDto result = movieService.createMovies(movies, atomic);
+        if (result.getRejected() == 0) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(result); // Return 201 Created
+        }
+        return ResponseEntity.status(result.getCreated() > 0 ? HttpStatus.OK : HttpStatus.BAD_REQUEST)
+                .body(result); // Return 200 OK or 400 Bad Request
+    }
+
     // GET method to retrieve a specific movie by its ID and return HTTP 200 (OK)
     @GetMapping("/{id}")
-    public ResponseEntity<MovieResponseDto> getMovieById(@PathVariable Long id) {
-        MovieResponseDto movie = movieService.getMovieById(id);
-        return ResponseEntity.ok(movie); // Return 200 OK
+    public ResponseEntity<byte[]> getMovieById(@PathVariable Long id, WebRequest request) {
+        // Serve the serialized JSON from the response cache, loading it on a miss
+        ResponseCache.CachedResponse movie = responseCache.movie(id,
+                () -> movieService.getMovieVersion(id), () -> movieService.getMovieById(id));
+        // Answer from the versions alone while the client's ETag or Last-Modified is current
+        VersionView version = movie.version();
+        if (version != null && request.checkNotModified(version.etag(), version.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build(); // Return 304 Not Modified
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(movie.body()); // Return 200 OK
     }
 
-    // GET method to retrieve all movies with pagination and return HTTP 200 (OK)
-    @GetMapping
-    public ResponseEntity<List<MovieResponseDto>> getAllMovies(
-            @RequestParam(required = false) @Min(0) Integer page,  // Page number, minimum value 0
-            @RequestParam(required = false) @Min(0) @Max(20) Integer size  // Page size, maximum 20 items per page
+    // GET method to retrieve several movies by their IDs in one request and return HTTP 200 (OK),
+    // the movies come in the order of the IDs and the IDs that were not found are listed in "missing"
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetDto<MovieResponseDto>> getMoviesByIds(
+            @RequestParam List<Long> ids  // Comma-separated movie IDs, at most 100
     ) {
-        List<MovieResponseDto> movies = movieService.getAllMovies(page, size);
+        MultiGetDto<MovieResponseDto> movies = movieService.getMoviesByIds(ids);
         return ResponseEntity.ok(movies); // Return 200 OK
     }
 
+    // GET method to retrieve movies one keyset page at a time and return HTTP 200 (OK),
+    // the page is written to the response as the rows are read instead of being built as DTOs first
+    @GetMapping
+    public void getAllMovies(
+            @RequestParam(required = false) String cursor,  // Cursor from the previous page, absent for the first page
+            @RequestParam(required = false) @Min(1) @Max(100) Integer size,  // Page size, 20 by default, maximum 100
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        movieService.writeAllMovies(cursor, size, response.getOutputStream()); // Return 200 OK
+    }
+
     // GET method to search for movies by title (case-insensitive) with pagination and return HTTP 200 (OK)
     @GetMapping("/search/by-title")
     public ResponseEntity<List<MovieResponseDto>> findByTitleContainingIgnoreCase(
@@ -64,6 +115,51 @@ public class MovieController {
         return ResponseEntity.ok(moviePage.getContent()); // Return 200 OK
     }
 
+    // GET method to search movie titles through the full-text index, best match first, and return HTTP 200 (OK)
+    @GetMapping(value = "/search", params = "q")
+    public ResponseEntity<Page<MovieResponseDto>> searchMovies(
+            @RequestParam String q,                              // Words to search, each matched as a prefix
+            @RequestParam(defaultValue = "0") @Min(0) int page,  // Default page number (0)
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size  // Default page size (10)
+    ) {
+        Page<MovieResponseDto> movies = movieService.searchMovies(q, PageRequest.of(page, size));
+        return ResponseEntity.ok(movies); // Return 200 OK
+    }
+
+    // GET method to query movies by any combination of criteria, combined with AND, and return HTTP 200 (OK)
+    // with a page of the matching movies and their counts per genre and per bucket of release years
+    @GetMapping("/query")
+    public ResponseEntity<MovieQueryResultDto> queryMovies(
+            @RequestParam(required = false) Long genreId,                // Genre of the movies
+            @RequestParam(required = false) Integer yearFrom,            // Earliest release year, inclusive
+            @RequestParam(required = false) Integer yearTo,              // Latest release year, inclusive
+            @RequestParam(required = false) Integer minDuration,         // Shortest duration in minutes, inclusive
+            @RequestParam(required = false) Integer maxDuration,         // Longest duration in minutes, inclusive
+            @RequestParam(required = false) @Size(max = 10) List<Long> actorIds,  // Actors who all play in the movie
+            @RequestParam(required = false) String title,                // Part of the title, case-insensitive
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int yearBucket,  // Years per release year facet
+            @RequestParam(defaultValue = "0") @Min(0) int page,          // Default page number (0)
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size  // Default page size (10)
+    ) {
+        if (yearFrom != null && yearTo != null && yearFrom > yearTo) {
+            throw new IllegalArgumentException("The year range must not end before it starts");
+        }
+        if (minDuration != null && maxDuration != null && minDuration > maxDuration) {
+            throw new IllegalArgumentException("The duration range must not end before it starts");
+        }
+        MovieCriteriaDto criteria = MovieCriteriaDto.builder()
+                .genreId(genreId)
+                .yearFrom(yearFrom)
+                .yearTo(yearTo)
+                .minDuration(minDuration)
+                .maxDuration(maxDuration)
+                .actorIds(actorIds)
+                .title(title)
+                .build();
+        MovieQueryResultDto movies = movieService.queryMovies(criteria, yearBucket, PageRequest.of(page, size));
+        return ResponseEntity.ok(movies); // Return 200 OK
+    }
+
     // PATCH method to update movie details by ID and return HTTP 200 (OK)
     @PatchMapping("/{id}")
     public ResponseEntity<MovieResponseDto> updateMovie(@PathVariable Long id, @RequestBody MovieRequestDto movieDetails) {
@@ -92,6 +188,15 @@ public class MovieController {
         List<ActorResponseDto> actors = movieService.getAllActorsInMovie(movieId);
         return ResponseEntity.ok(actors); // Return 200 OK status with the list of actors
     }
+    // Get the movies most similar to a movie by shared actors, genre and optionally release year, or 404 (Not Found)
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarMovieDto>> getSimilarMovies(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,  // Movies to return, 10 by default
+            @RequestParam(defaultValue = "0") @DecimalMin("0") @DecimalMax("10") double yearWeight  // Release year proximity weight
+    ) {
+        return ResponseEntity.ok(movieService.getSimilarMovies(id, limit, yearWeight)); // Return 200 OK with the ranking
+    }
     // DELETE method to delete a movie by ID and return HTTP 204 (No Content)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteMovie(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean cascade) {
@@ -0,0 +1,23 @@
+package com.example.movie.controller;
+
+import com.example.movie.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    // Endpoint to re-index every movie title and actor name, e.g. after rows were loaded with the triggers missing
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuildIndex() {
+        searchService.rebuildIndex();
+        return ResponseEntity.noContent().build(); // Return 204 No Content
+    }
+}
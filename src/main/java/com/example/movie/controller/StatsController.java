@@ -0,0 +1,62 @@
+package com.example.movie.controller;
+
+import com.example.movie.DTO.GenreStatsDto;
+import com.example.movie.DTO.StatsCheckDto;
+import com.example.movie.DTO.YearRangeStatsDto;
+import com.example.movie.DTO.YearStatsDto;
+import com.example.movie.stats.CatalogStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    @Autowired
+    private CatalogStatistics catalogStatistics;
+
+    // Endpoint to get the movie count and average duration of every genre
+    @GetMapping("/genres")
+    public ResponseEntity<List<GenreStatsDto>> getGenreStats() {
+        return ResponseEntity.ok(catalogStatistics.genreStats()); // Return 200 OK with the statistics
+    }
+
+    // Endpoint to get the movie count and average duration of every release year with movies
+    @GetMapping("/years")
+    public ResponseEntity<List<YearStatsDto>> getYearStats(
+            @RequestParam(required = false) Integer from,  // Earliest release year, inclusive
+            @RequestParam(required = false) Integer to     // Latest release year, inclusive
+    ) {
+        checkRange(from, to);
+        return ResponseEntity.ok(catalogStatistics.yearStats(from, to)); // Return 200 OK with the statistics
+    }
+
+    // Endpoint to get the movie count and average duration over a range of release years
+    @GetMapping("/years/range")
+    public ResponseEntity<YearRangeStatsDto> getYearRangeStats(
+            @RequestParam(required = false) Integer from,  // Earliest release year, inclusive
+            @RequestParam(required = false) Integer to     // Latest release year, inclusive
+    ) {
+        checkRange(from, to);
+        return ResponseEntity.ok(catalogStatistics.yearRangeStats(from, to)); // Return 200 OK with the totals
+    }
+
+    // Endpoint to check the statistics against the database, rebuilding them if they differ
+    @PostMapping("/check")
+    public ResponseEntity<StatsCheckDto> checkStats() {
+        return ResponseEntity.ok(catalogStatistics.check()); // Return 200 OK with the outcome
+    }
+
+    private void checkRange(Integer from, Integer to) {
+        if (from != null && to != null && from > to) {
+            throw new IllegalArgumentException("The year range must not end before it starts");
+        }
+    }
+}
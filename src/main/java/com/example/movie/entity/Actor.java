@@ -9,6 +9,9 @@ import jakarta.validation.constraints.NotBlank;
 
 import jakarta.validation.constraints.Past;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -20,6 +23,8 @@ import java.util.List;
 @Getter
 @Setter
 @Table(name = "Actors")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "actors")
 public class Actor {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -37,4 +42,12 @@ public class Actor {
 
     private List<Movie> movies;
 
+    // Bumped by the triggers of CatalogVersionRepository on every change of the row or of its associations
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false, insertable = false, updatable = false)
+    private long version;
+
+    // Epoch milliseconds of the last change, maintained by the same triggers
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Long updatedAt;
 }
\ No newline at end of file
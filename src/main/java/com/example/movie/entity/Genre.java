@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Set;
 
@@ -13,6 +16,8 @@ import java.util.Set;
 @AllArgsConstructor
 @Entity
 @Table(name = "Genres")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "genres")
 public class Genre {
 
     @Id
@@ -23,5 +28,15 @@ public class Genre {
     private String name;
 
     @OneToMany(mappedBy = "genre", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "genre-movies")
     private Set<Movie> movies;
+
+    // Bumped by the triggers of CatalogVersionRepository on every change of the row or of its associations
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false, insertable = false, updatable = false)
+    private long version;
+
+    // Epoch milliseconds of the last change, maintained by the same triggers
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Long updatedAt;
 }
@@ -2,11 +2,15 @@ package com.example.movie.entity;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 import java.util.Set;
@@ -17,8 +21,23 @@ import java.util.Set;
 @AllArgsConstructor
 @Entity
 @Builder
+@NamedEntityGraph(
+        name = "Movie.withGenreAndActors",
+        attributeNodes = {@NamedAttributeNode("genre"), @NamedAttributeNode("actors")}
+)
+// The genre and cast lookups of the version queries and read paths go through these indexes; the composite ones
+// also serve the release year and duration ranges of the query endpoint, with or without a genre, and its facet
+// counts read genre_id and release_year from the index alone
+@Table(indexes = {
+        @Index(name = "idx_movie_genre_year_duration", columnList = "genre_id, release_year, duration"),
+        @Index(name = "idx_movie_year_duration", columnList = "release_year, duration")
+})
 public class Movie {
 
+    // Release years accepted by every write path; the statistics index their year trees over this window
+    public static final int MIN_RELEASE_YEAR = 1888;
+    public static final int MAX_RELEASE_YEAR = 2100;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
@@ -26,7 +45,8 @@ public class Movie {
     @NotBlank(message = "Movie title is required")
     private String title;
 
-    @Min(value = 1888, message = "Release year should be valid")
+    @Min(value = MIN_RELEASE_YEAR, message = "Release year should be valid")
+    @Max(value = MAX_RELEASE_YEAR, message = "Release year should be valid")
     private int releaseYear;
 
     @Positive(message = "Duration must be positive")
@@ -41,9 +61,23 @@ public class Movie {
     @JoinTable(
             name = "movie_actor",
             joinColumns = @JoinColumn(name = "movie_id"),
-            inverseJoinColumns = @JoinColumn(name = "actor_id")
+            inverseJoinColumns = @JoinColumn(name = "actor_id"),
+            indexes = {
+                    @Index(name = "idx_movie_actor_movie_id", columnList = "movie_id"),
+                    // Answers the actor filter of the query endpoint from the index alone
+                    @Index(name = "idx_movie_actor_actor_movie", columnList = "actor_id, movie_id")
+            }
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "movie-actors")
 
     private List<Actor> actors;
 
+    // Bumped by the triggers of CatalogVersionRepository on every change of the row or of its associations
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false, insertable = false, updatable = false)
+    private long version;
+
+    // Epoch milliseconds of the last change, maintained by the same triggers
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Long updatedAt;
 }
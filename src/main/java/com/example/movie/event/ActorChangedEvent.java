@@ -0,0 +1,7 @@
+package com.example.movie.event;
+
+import java.time.LocalDate;
+
+// Published by the actor write paths with the actor columns after the change (before it on DELETED)
+public record ActorChangedEvent(ChangeType type, long actorId, String name, LocalDate birthDate) {
+}
@@ -0,0 +1,6 @@
+package com.example.movie.event;
+
+// Published by the bulk import after rows were written through JDBC, bypassing the entity write paths,
+// so caches and indexes have to be reloaded instead of updated
+public record CatalogImportedEvent(long genres, long actors, long movies) {
+}
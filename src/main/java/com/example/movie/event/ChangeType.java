@@ -0,0 +1,7 @@
+package com.example.movie.event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,5 @@
+package com.example.movie.event;
+
+// Published by the genre write paths with the genre columns after the change (before it on DELETED)
+public record GenreChangedEvent(ChangeType type, long genreId, String name) {
+}
@@ -0,0 +1,9 @@
+package com.example.movie.event;
+
+// Published by the movie write paths, before is null on CREATED and after is null on DELETED
+public record MovieChangedEvent(ChangeType type, MovieSnapshot before, MovieSnapshot after) {
+
+    public long movieId() {
+        return after != null ? after.id() : before.id();
+    }
+}
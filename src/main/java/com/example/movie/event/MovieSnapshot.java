@@ -0,0 +1,17 @@
+package com.example.movie.event;
+
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Movie;
+
+import java.util.List;
+
+// Immutable copy of the movie columns and links at the time of a change
+public record MovieSnapshot(long id, String title, int releaseYear, int duration, Long genreId, List<Long> actorIds) {
+
+    public static MovieSnapshot of(Movie movie) {
+        List<Long> actorIds = movie.getActors() == null ? List.of()
+                : movie.getActors().stream().map(Actor::getId).toList();
+        return new MovieSnapshot(movie.getId(), movie.getTitle(), movie.getReleaseYear(), movie.getDuration(),
+                movie.getGenre() != null ? movie.getGenre().getId() : null, actorIds);
+    }
+}
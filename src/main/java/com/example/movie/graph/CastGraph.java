@@ -0,0 +1,291 @@
+package com.example.movie.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory graph of the actors and the movies they play in; two actors are co-stars when they share a movie.
+// Reads go to an immutable snapshot in compressed sparse row layout: the sorted actor and movie IDs and, for each
+// of them, a range of one flat int array holding the positions of its movies or actors. Movies whose cast changed
+// since the snapshot was built are read from a small delta instead, which also lists the changed movies of each
+// actor of their new cast. Once the delta outgrows a quarter of the snapshot, both are compacted into a new snapshot.
+final class CastGraph {
+
+    private static final Comparator<CoStarGraph.CoStar> BEST_FIRST =
+            Comparator.comparingInt(CoStarGraph.CoStar::sharedMovies).reversed()
+                    .thenComparingLong(CoStarGraph.CoStar::actorId);
+
+    private static final int MIN_COMPACTION_DELTA = 256;
+
+    private static final long[] NO_IDS = new long[0];
+
+    private interface LinkVisitor {
+        void visit(long movieId, long coStarId);
+    }
+
+    // The delta maps the changed movies to their cast, empty once a movie has none, and each actor to the changed
+    // movies they play in
+    private record State(Snapshot snapshot, Map<Long, long[]> casts, Map<Long, long[]> filmographies) {
+    }
+
+    // Cast of every movie with actors, the source a snapshot is rebuilt from, guarded by this
+    private final Map<Long, long[]> records = new HashMap<>();
+
+    private volatile State state = new State(Snapshot.EMPTY, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+    // Replace every cast with the given ones
+    synchronized void load(Map<Long, long[]> casts) {
+        records.clear();
+        casts.forEach((movieId, cast) -> {
+            long[] distinct = Arrays.stream(cast).distinct().toArray();
+            if (distinct.length > 0) {
+                records.put(movieId, distinct);
+            }
+        });
+        compact();
+    }
+
+    // Set the cast of a movie, an empty cast removes the movie
+    synchronized void put(long movieId, long[] cast) {
+        long[] distinct = Arrays.stream(cast).distinct().toArray();
+        if (distinct.length > 0) {
+            records.put(movieId, distinct);
+        } else if (records.remove(movieId) == null) {
+            return;
+        }
+        State current = state;
+        long[] stale = current.casts().get(movieId);
+        if (stale != null) {
+            for (long actorId : stale) {
+                current.filmographies().computeIfPresent(actorId, (id, movies) -> without(movies, movieId));
+            }
+        }
+        current.casts().put(movieId, distinct);
+        for (long actorId : distinct) {
+            current.filmographies().merge(actorId, new long[]{movieId}, CastGraph::with);
+        }
+        compactIfNeeded();
+    }
+
+    // Take the actor out of the cast of every movie they play in
+    synchronized void removeActor(long actorId) {
+        Map<Long, long[]> casts = new HashMap<>();
+        records.forEach((movieId, cast) -> {
+            if (Arrays.stream(cast).anyMatch(id -> id == actorId)) {
+                casts.put(movieId, Arrays.stream(cast).filter(id -> id != actorId).toArray());
+            }
+        });
+        casts.forEach(this::put);
+    }
+
+    // The n actors sharing the most movies with the actor, best first
+    List<CoStarGraph.CoStar> coStars(long actorId, int n) {
+        Map<Long, int[]> shared = new HashMap<>();
+        forEachCoStar(state, actorId, (movieId, coStarId) -> shared.computeIfAbsent(coStarId, id -> new int[1])[0]++);
+        // Min-heap of the best n seen so far, its head is the first to drop
+        PriorityQueue<CoStarGraph.CoStar> best = new PriorityQueue<>(n + 1, BEST_FIRST.reversed());
+        shared.forEach((coStarId, count) -> {
+            best.add(new CoStarGraph.CoStar(coStarId, count[0]));
+            if (best.size() > n) {
+                best.poll();
+            }
+        });
+        List<CoStarGraph.CoStar> result = new ArrayList<>(best);
+        result.sort(BEST_FIRST);
+        return result;
+    }
+
+    // A shortest chain of co-stars from one actor to the other, empty when they are not connected.
+    // Bidirectional breadth-first search: each round extends the smaller of the two frontiers by one level,
+    // and the search stops after the first level that reaches an actor seen from the other side.
+    List<CoStarGraph.PathStep> shortestPath(long from, long to) {
+        if (from == to) {
+            return List.of(new CoStarGraph.PathStep(from, null));
+        }
+        State current = state;
+        // Every actor reached from a side maps to {the actor it was reached from, their shared movie, depth}
+        Map<Long, long[]> forward = new HashMap<>();
+        Map<Long, long[]> backward = new HashMap<>();
+        forward.put(from, new long[]{from, -1, 0});
+        backward.put(to, new long[]{to, -1, 0});
+        List<Long> forwardFrontier = List.of(from);
+        List<Long> backwardFrontier = List.of(to);
+        // The actor where the two searches meet on a shortest path, and the length of that path
+        long[] meeting = {-1, Long.MAX_VALUE};
+        while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+            if (forwardFrontier.size() <= backwardFrontier.size()) {
+                forwardFrontier = expand(current, forwardFrontier, forward, backward, meeting);
+            } else {
+                backwardFrontier = expand(current, backwardFrontier, backward, forward, meeting);
+            }
+            if (meeting[0] >= 0) {
+                return path(from, to, meeting[0], forward, backward);
+            }
+        }
+        return List.of();
+    }
+
+    // Visit the co-stars of the actor in the current snapshot and delta, once per shared movie
+    private static void forEachCoStar(State state, long actorId, LinkVisitor visitor) {
+        Snapshot snapshot = state.snapshot();
+        boolean hasDelta = !state.casts().isEmpty();
+        int actor = snapshot.actorIndex(actorId);
+        if (actor >= 0) {
+            for (int i = snapshot.actorOffsets[actor]; i < snapshot.actorOffsets[actor + 1]; i++) {
+                int movie = snapshot.actorMovies[i];
+                long movieId = snapshot.movieIds[movie];
+                // The delta holds the current cast of a changed movie
+                if (hasDelta && state.casts().containsKey(movieId)) {
+                    continue;
+                }
+                for (int j = snapshot.movieOffsets[movie]; j < snapshot.movieOffsets[movie + 1]; j++) {
+                    int coStar = snapshot.movieActors[j];
+                    if (coStar != actor) {
+                        visitor.visit(movieId, snapshot.actorIds[coStar]);
+                    }
+                }
+            }
+        }
+        long[] changed = hasDelta ? state.filmographies().get(actorId) : null;
+        if (changed != null) {
+            for (long movieId : changed) {
+                for (long coStarId : state.casts().getOrDefault(movieId, NO_IDS)) {
+                    if (coStarId != actorId) {
+                        visitor.visit(movieId, coStarId);
+                    }
+                }
+            }
+        }
+    }
+
+    // Extend one side of the search by a level, recording the best meeting with the other side
+    private static List<Long> expand(State state, List<Long> frontier, Map<Long, long[]> visited,
+                                     Map<Long, long[]> other, long[] meeting) {
+        List<Long> next = new ArrayList<>();
+        for (long actorId : frontier) {
+            long depth = visited.get(actorId)[2] + 1;
+            forEachCoStar(state, actorId, (movieId, coStarId) -> {
+                if (visited.containsKey(coStarId)) {
+                    return;
+                }
+                visited.put(coStarId, new long[]{actorId, movieId, depth});
+                next.add(coStarId);
+                long[] reached = other.get(coStarId);
+                if (reached != null && depth + reached[2] < meeting[1]) {
+                    meeting[0] = coStarId;
+                    meeting[1] = depth + reached[2];
+                }
+            });
+        }
+        return next;
+    }
+
+    private static List<CoStarGraph.PathStep> path(long from, long to, long meeting,
+                                                   Map<Long, long[]> forward, Map<Long, long[]> backward) {
+        Deque<CoStarGraph.PathStep> path = new ArrayDeque<>();
+        for (long actorId = meeting; actorId != from; ) {
+            long[] link = forward.get(actorId);
+            path.addFirst(new CoStarGraph.PathStep(actorId, link[1]));
+            actorId = link[0];
+        }
+        path.addFirst(new CoStarGraph.PathStep(from, null));
+        for (long actorId = meeting; actorId != to; ) {
+            long[] link = backward.get(actorId);
+            path.addLast(new CoStarGraph.PathStep(link[0], link[1]));
+            actorId = link[0];
+        }
+        return new ArrayList<>(path);
+    }
+
+    private void compactIfNeeded() {
+        State current = state;
+        if (current.casts().size() > Math.max(MIN_COMPACTION_DELTA, current.snapshot().movieIds.length / 4)) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        state = new State(Snapshot.of(records), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    private static long[] with(long[] ids, long[] added) {
+        long[] result = Arrays.copyOf(ids, ids.length + added.length);
+        System.arraycopy(added, 0, result, ids.length, added.length);
+        return result;
+    }
+
+    private static long[] without(long[] ids, long removed) {
+        return Arrays.stream(ids).filter(id -> id != removed).toArray();
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = of(Map.of());
+
+        private final long[] actorIds;
+
+        // The movies of actor i are at actorMovies[actorOffsets[i]] to actorMovies[actorOffsets[i + 1] - 1]
+        private final int[] actorOffsets;
+        private final int[] actorMovies;
+
+        private final long[] movieIds;
+
+        // The cast of movie i is at movieActors[movieOffsets[i]] to movieActors[movieOffsets[i + 1] - 1]
+        private final int[] movieOffsets;
+        private final int[] movieActors;
+
+        private Snapshot(long[] actorIds, int[] actorOffsets, int[] actorMovies,
+                         long[] movieIds, int[] movieOffsets, int[] movieActors) {
+            this.actorIds = actorIds;
+            this.actorOffsets = actorOffsets;
+            this.actorMovies = actorMovies;
+            this.movieIds = movieIds;
+            this.movieOffsets = movieOffsets;
+            this.movieActors = movieActors;
+        }
+
+        static Snapshot of(Map<Long, long[]> casts) {
+            long[] movieIds = casts.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            long[] actorIds = casts.values().stream().flatMapToLong(Arrays::stream).distinct().sorted().toArray();
+            int[] movieOffsets = new int[movieIds.length + 1];
+            for (int i = 0; i < movieIds.length; i++) {
+                movieOffsets[i + 1] = movieOffsets[i] + casts.get(movieIds[i]).length;
+            }
+            int[] movieActors = new int[movieOffsets[movieIds.length]];
+            int[] actorOffsets = new int[actorIds.length + 1];
+            for (int i = 0; i < movieIds.length; i++) {
+                long[] cast = casts.get(movieIds[i]);
+                for (int k = 0; k < cast.length; k++) {
+                    int actor = Arrays.binarySearch(actorIds, cast[k]);
+                    movieActors[movieOffsets[i] + k] = actor;
+                    actorOffsets[actor + 1]++;
+                }
+            }
+            for (int i = 0; i < actorIds.length; i++) {
+                actorOffsets[i + 1] += actorOffsets[i];
+            }
+            // Movies in ID order for every actor, filled through a moving copy of the offsets
+            int[] actorMovies = new int[movieActors.length];
+            int[] next = Arrays.copyOf(actorOffsets, actorIds.length);
+            for (int i = 0; i < movieIds.length; i++) {
+                for (int j = movieOffsets[i]; j < movieOffsets[i + 1]; j++) {
+                    actorMovies[next[movieActors[j]]++] = i;
+                }
+            }
+            return new Snapshot(actorIds, actorOffsets, actorMovies, movieIds, movieOffsets, movieActors);
+        }
+
+        // Position of the actor, -1 when the actor plays in no movie of the snapshot
+        int actorIndex(long actorId) {
+            int index = Arrays.binarySearch(actorIds, actorId);
+            return index >= 0 ? index : -1;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.movie.graph;
+
+import com.example.movie.event.ActorChangedEvent;
+import com.example.movie.event.CatalogImportedEvent;
+import com.example.movie.event.ChangeType;
+import com.example.movie.event.MovieChangedEvent;
+import com.example.movie.repository.CatalogJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+// Co-star queries over the movie_actor links: the actors sharing the most movies with an actor, and the shortest
+// chain of co-stars between two actors. The links are loaded once the application has started, then the cast of a
+// movie is replaced whenever a committed change event says it changed, so the queries never touch the database.
+@Component
+public class CoStarGraph {
+
+    public record CoStar(long actorId, int sharedMovies) {
+    }
+
+    // An actor of a chain, with the movie shared with the previous actor, null for the first one
+    public record PathStep(long actorId, Long movieId) {
+    }
+
+    @Autowired
+    private CatalogJdbcRepository catalogJdbcRepository;
+
+    private final CastGraph graph = new CastGraph();
+
+    // The loads and the updates are serialized, and an update sets the whole cast of a movie,
+    // so an update is never overwritten by an older load
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        CastCollector collector = new CastCollector();
+        catalogJdbcRepository.streamMovieActors(collector);
+        graph.load(collector.finish());
+    }
+
+    // A bulk import changes too many links to apply one by one
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        load();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onMovieChanged(MovieChangedEvent event) {
+        List<Long> before = event.before() != null ? event.before().actorIds() : List.of();
+        List<Long> after = event.after() != null ? event.after().actorIds() : List.of();
+        if (!new HashSet<>(before).equals(new HashSet<>(after))) {
+            graph.put(event.movieId(), after.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onActorChanged(ActorChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            graph.removeActor(event.actorId());
+        }
+    }
+
+    // Get the n actors sharing the most movies with the actor, best first
+    public List<CoStar> coStars(long actorId, int n) {
+        return graph.coStars(actorId, n);
+    }
+
+    // Get a shortest chain of co-stars from one actor to the other, empty when they are not connected
+    public List<PathStep> shortestPath(long fromActorId, long toActorId) {
+        return graph.shortestPath(fromActorId, toActorId);
+    }
+
+    // Collects the cast of every movie in a growing buffer, the links arriving in movie order
+    private static final class CastCollector implements CatalogJdbcRepository.LinkHandler {
+
+        private final Map<Long, long[]> casts = new HashMap<>();
+
+        private long movieId = -1;
+
+        private long[] cast = new long[8];
+
+        private int size;
+
+        @Override
+        public void link(long movieId, long actorId) {
+            if (movieId != this.movieId) {
+                flush();
+                this.movieId = movieId;
+            }
+            if (size == cast.length) {
+                cast = Arrays.copyOf(cast, size * 2);
+            }
+            cast[size++] = actorId;
+        }
+
+        Map<Long, long[]> finish() {
+            flush();
+            return casts;
+        }
+
+        private void flush() {
+            if (size > 0) {
+                casts.put(movieId, Arrays.copyOf(cast, size));
+                size = 0;
+            }
+        }
+    }
+}
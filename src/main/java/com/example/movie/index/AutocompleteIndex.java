@@ -0,0 +1,124 @@
+package com.example.movie.index;
+
+import com.example.movie.DTO.ActorPopularityView;
+import com.example.movie.DTO.AutocompleteDto;
+import com.example.movie.DTO.SuggestionDto;
+import com.example.movie.event.ActorChangedEvent;
+import com.example.movie.event.CatalogImportedEvent;
+import com.example.movie.event.ChangeType;
+import com.example.movie.event.MovieChangedEvent;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Type-ahead suggestions over movie titles, best by most recent release year, and actor names, best by
+// number of movies. Loaded once the application has started, then kept up to date from the committed
+// catalog change events, so lookups never touch the database. The listeners run after the publishing
+// transaction has committed and read the changed rows in a read-only transaction of their own.
+@Component
+public class AutocompleteIndex {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    private final PrefixIndex movies = new PrefixIndex();
+
+    private final PrefixIndex actors = new PrefixIndex();
+
+    // The loads and the updates are serialized, so an update is never overwritten by an older load
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        movies.load(movieRepository.findTitleViews().stream()
+                .map(movie -> new PrefixIndex.Suggestion(movie.id(), movie.title(), movie.releaseYear()))
+                .collect(Collectors.toList()));
+        actors.load(actorRepository.findPopularityViews().stream()
+                .map(this::toSuggestion)
+                .collect(Collectors.toList()));
+    }
+
+    // A bulk import changes too many records to apply one by one
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        load();
+    }
+
+    // Get the best movies and actors that have a word starting with the query
+    public AutocompleteDto suggest(String query, int limit) {
+        String prefix = PrefixIndex.normalize(query);
+        if (prefix.isEmpty()) {
+            return new AutocompleteDto(List.of(), List.of());
+        }
+        return AutocompleteDto.builder()
+                .movies(toDtos(movies.top(prefix, limit)))
+                .actors(toDtos(actors.top(prefix, limit)))
+                .build();
+    }
+
+    // A movie change affects the movie and the movie counts of the actors added to or removed from it
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onMovieChanged(MovieChangedEvent event) {
+        if (event.after() == null) {
+            movies.remove(event.movieId());
+        } else {
+            movies.put(new PrefixIndex.Suggestion(event.movieId(), event.after().title(), event.after().releaseYear()));
+        }
+        Set<Long> before = event.before() != null ? new HashSet<>(event.before().actorIds()) : new HashSet<>();
+        Set<Long> after = event.after() != null ? new HashSet<>(event.after().actorIds()) : new HashSet<>();
+        Set<Long> changed = new HashSet<>(before);
+        changed.addAll(after);
+        before.retainAll(after);
+        changed.removeAll(before);
+        refreshActors(changed);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onActorChanged(ActorChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            actors.remove(event.actorId());
+        } else {
+            refreshActors(Set.of(event.actorId()));
+        }
+    }
+
+    // Re-read the names and movie counts of the given actors
+    private void refreshActors(Set<Long> actorIds) {
+        if (actorIds.isEmpty()) {
+            return;
+        }
+        for (ActorPopularityView actor : actorRepository.findPopularityViewsByIdIn(actorIds)) {
+            actors.put(toSuggestion(actor));
+        }
+    }
+
+    private PrefixIndex.Suggestion toSuggestion(ActorPopularityView actor) {
+        return new PrefixIndex.Suggestion(actor.id(), actor.name(), actor.movieCount());
+    }
+
+    private List<SuggestionDto> toDtos(List<PrefixIndex.Suggestion> suggestions) {
+        return suggestions.stream()
+                .map(suggestion -> SuggestionDto.builder()
+                        .id(suggestion.id())
+                        .text(suggestion.text())
+                        .score(suggestion.score())
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
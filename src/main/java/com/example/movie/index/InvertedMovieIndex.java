@@ -0,0 +1,361 @@
+package com.example.movie.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory inverted index of the movies by actor and by genre, for ranking the movies similar to a movie.
+// Reads go to an immutable snapshot in compressed sparse row layout: the sorted movie, actor and genre IDs and,
+// for each actor and genre, a range of one flat int array holding the positions of its movies, next to the genre,
+// release year and cast of every movie in int arrays. Movies changed since the snapshot was built are read from
+// a small delta instead. Once the delta outgrows a quarter of the snapshot, both are compacted into a new snapshot.
+final class InvertedMovieIndex {
+
+    // The fields of a movie the ranking uses
+    record Movie(long genreId, int releaseYear, long[] actorIds) {
+    }
+
+    record Weights(double genre, double releaseYear) {
+    }
+
+    private static final int MIN_COMPACTION_DELTA = 256;
+
+    // Delta entry of a movie deleted since the snapshot was built
+    private static final Movie REMOVED = new Movie(-1, 0, new long[0]);
+
+    private record State(Snapshot snapshot, Map<Long, Movie> delta) {
+    }
+
+    // Every movie, the source a snapshot is rebuilt from, guarded by this
+    private final Map<Long, Movie> records = new HashMap<>();
+
+    private volatile State state = new State(Snapshot.EMPTY, new ConcurrentHashMap<>());
+
+    // Replace every movie with the given ones
+    synchronized void load(Map<Long, Movie> movies) {
+        records.clear();
+        movies.forEach((movieId, movie) -> records.put(movieId, distinct(movie)));
+        compact();
+    }
+
+    // Add a movie or replace the movie with the same ID
+    synchronized void put(long movieId, Movie movie) {
+        Movie distinct = distinct(movie);
+        records.put(movieId, distinct);
+        state.delta().put(movieId, distinct);
+        compactIfNeeded();
+    }
+
+    synchronized void remove(long movieId) {
+        if (records.remove(movieId) != null) {
+            state.delta().put(movieId, REMOVED);
+            compactIfNeeded();
+        }
+    }
+
+    // Take the actor out of the cast of every movie they play in
+    synchronized void removeActor(long actorId) {
+        Map<Long, Movie> changed = new HashMap<>();
+        records.forEach((movieId, movie) -> {
+            if (Arrays.stream(movie.actorIds()).anyMatch(id -> id == actorId)) {
+                changed.put(movieId, new Movie(movie.genreId(), movie.releaseYear(),
+                        Arrays.stream(movie.actorIds()).filter(id -> id != actorId).toArray()));
+            }
+        });
+        changed.forEach(this::put);
+    }
+
+    // The n movies most similar to the movie, best first: a point for every shared actor, plus the genre weight
+    // for the same genre and the release year weight divided by one plus the years between the two movies.
+    // Only movies sharing an actor or the genre are ranked.
+    List<SimilarMoviesIndex.Match> similar(long movieId, int n, Weights weights) {
+        State current = state;
+        Snapshot snapshot = current.snapshot();
+        Map<Long, Movie> delta = current.delta();
+        boolean hasDelta = !delta.isEmpty();
+        Movie target = hasDelta && delta.containsKey(movieId) ? delta.get(movieId) : snapshot.movie(movieId);
+        if (target == null || target == REMOVED) {
+            return List.of();
+        }
+        TopK top = new TopK(n);
+
+        // Count the shared actors of every snapshot movie of the cast through the actor lists
+        int[] shared = new int[snapshot.movieIds.length];
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (long actorId : target.actorIds()) {
+            int actor = Arrays.binarySearch(snapshot.actorIds, actorId);
+            if (actor < 0) {
+                continue;
+            }
+            for (int i = snapshot.actorOffsets[actor]; i < snapshot.actorOffsets[actor + 1]; i++) {
+                int movie = snapshot.actorMovies[i];
+                if (shared[movie]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = movie;
+                }
+            }
+        }
+        int genre = Arrays.binarySearch(snapshot.genreIds, target.genreId());
+        for (int i = 0; i < touchedCount; i++) {
+            offer(snapshot, delta, hasDelta, movieId, touched[i], shared[touched[i]], genre, target, weights, top);
+        }
+        // Then the movies of the genre that share no actor
+        if (genre >= 0) {
+            for (int i = snapshot.genreOffsets[genre]; i < snapshot.genreOffsets[genre + 1]; i++) {
+                int movie = snapshot.genreMovies[i];
+                if (shared[movie] == 0) {
+                    offer(snapshot, delta, hasDelta, movieId, movie, 0, genre, target, weights, top);
+                }
+            }
+        }
+        // The movies changed since the snapshot are compared with the movie one by one
+        if (hasDelta) {
+            long[] cast = target.actorIds().clone();
+            Arrays.sort(cast);
+            delta.forEach((candidateId, candidate) -> {
+                if (candidate == REMOVED || candidateId == movieId) {
+                    return;
+                }
+                int sharedActors = 0;
+                for (long actorId : candidate.actorIds()) {
+                    if (Arrays.binarySearch(cast, actorId) >= 0) {
+                        sharedActors++;
+                    }
+                }
+                boolean sameGenre = candidate.genreId() == target.genreId();
+                if (sharedActors > 0 || sameGenre) {
+                    top.offer(candidateId, score(sharedActors, sameGenre, candidate.releaseYear(), target, weights),
+                            sharedActors, sameGenre);
+                }
+            });
+        }
+        return top.toList();
+    }
+
+    private static void offer(Snapshot snapshot, Map<Long, Movie> delta, boolean hasDelta, long movieId, int movie,
+                              int sharedActors, int genre, Movie target, Weights weights, TopK top) {
+        long candidateId = snapshot.movieIds[movie];
+        // The delta holds the current version of a changed movie
+        if (candidateId == movieId || (hasDelta && delta.containsKey(candidateId))) {
+            return;
+        }
+        boolean sameGenre = genre >= 0 && snapshot.movieGenres[movie] == genre;
+        top.offer(candidateId, score(sharedActors, sameGenre, snapshot.movieYears[movie], target, weights),
+                sharedActors, sameGenre);
+    }
+
+    private static double score(int sharedActors, boolean sameGenre, int releaseYear, Movie target, Weights weights) {
+        return sharedActors
+                + (sameGenre ? weights.genre() : 0)
+                + weights.releaseYear() / (1 + Math.abs(releaseYear - target.releaseYear()));
+    }
+
+    private void compactIfNeeded() {
+        State current = state;
+        if (current.delta().size() > Math.max(MIN_COMPACTION_DELTA, current.snapshot().movieIds.length / 4)) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        state = new State(Snapshot.of(records), new ConcurrentHashMap<>());
+    }
+
+    private static Movie distinct(Movie movie) {
+        return new Movie(movie.genreId(), movie.releaseYear(), Arrays.stream(movie.actorIds()).distinct().toArray());
+    }
+
+    // The best n candidates in a min-heap of primitive arrays, the worst at the root
+    private static final class TopK {
+
+        private final long[] ids;
+        private final double[] scores;
+        private final int[] sharedActors;
+        private final boolean[] sameGenres;
+        private int size;
+
+        private TopK(int n) {
+            ids = new long[n];
+            scores = new double[n];
+            sharedActors = new int[n];
+            sameGenres = new boolean[n];
+        }
+
+        void offer(long id, double score, int shared, boolean sameGenre) {
+            if (size < ids.length) {
+                set(size, id, score, shared, sameGenre);
+                siftUp(size++);
+            } else if (ids.length > 0 && better(score, id, scores[0], ids[0])) {
+                set(0, id, score, shared, sameGenre);
+                siftDown(0);
+            }
+        }
+
+        List<SimilarMoviesIndex.Match> toList() {
+            List<SimilarMoviesIndex.Match> matches = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                matches.add(new SimilarMoviesIndex.Match(ids[i], scores[i], sharedActors[i], sameGenres[i]));
+            }
+            matches.sort((a, b) -> better(a.score(), a.movieId(), b.score(), b.movieId()) ? -1 : 1);
+            return matches;
+        }
+
+        // Higher score first, then lower ID
+        private static boolean better(double score, long id, double otherScore, long otherId) {
+            return score > otherScore || (score == otherScore && id < otherId);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!better(scores[parent], ids[parent], scores[i], ids[i])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int worst = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (better(scores[worst], ids[worst], scores[child], ids[child])) {
+                        worst = child;
+                    }
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void set(int i, long id, double score, int shared, boolean sameGenre) {
+            ids[i] = id;
+            scores[i] = score;
+            sharedActors[i] = shared;
+            sameGenres[i] = sameGenre;
+        }
+
+        private void swap(int i, int j) {
+            long id = ids[i];
+            double score = scores[i];
+            int shared = sharedActors[i];
+            boolean sameGenre = sameGenres[i];
+            set(i, ids[j], scores[j], sharedActors[j], sameGenres[j]);
+            set(j, id, score, shared, sameGenre);
+        }
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = of(Map.of());
+
+        private final long[] movieIds;
+
+        // Position of the genre, release year and cast of movie i
+        private final int[] movieGenres;
+        private final int[] movieYears;
+        private final int[] movieOffsets;
+        private final int[] movieActors;
+
+        // The movies of actor i are at actorMovies[actorOffsets[i]] to actorMovies[actorOffsets[i + 1] - 1]
+        private final long[] actorIds;
+        private final int[] actorOffsets;
+        private final int[] actorMovies;
+
+        // The movies of genre i are at genreMovies[genreOffsets[i]] to genreMovies[genreOffsets[i + 1] - 1]
+        private final long[] genreIds;
+        private final int[] genreOffsets;
+        private final int[] genreMovies;
+
+        private Snapshot(long[] movieIds, int[] movieGenres, int[] movieYears, int[] movieOffsets, int[] movieActors,
+                         long[] actorIds, int[] actorOffsets, int[] actorMovies,
+                         long[] genreIds, int[] genreOffsets, int[] genreMovies) {
+            this.movieIds = movieIds;
+            this.movieGenres = movieGenres;
+            this.movieYears = movieYears;
+            this.movieOffsets = movieOffsets;
+            this.movieActors = movieActors;
+            this.actorIds = actorIds;
+            this.actorOffsets = actorOffsets;
+            this.actorMovies = actorMovies;
+            this.genreIds = genreIds;
+            this.genreOffsets = genreOffsets;
+            this.genreMovies = genreMovies;
+        }
+
+        static Snapshot of(Map<Long, Movie> movies) {
+            long[] movieIds = movies.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            long[] actorIds = movies.values().stream().flatMapToLong(movie -> Arrays.stream(movie.actorIds()))
+                    .distinct().sorted().toArray();
+            long[] genreIds = movies.values().stream().mapToLong(Movie::genreId).distinct().sorted().toArray();
+            int[] movieGenres = new int[movieIds.length];
+            int[] movieYears = new int[movieIds.length];
+            int[] movieOffsets = new int[movieIds.length + 1];
+            for (int i = 0; i < movieIds.length; i++) {
+                Movie movie = movies.get(movieIds[i]);
+                movieGenres[i] = Arrays.binarySearch(genreIds, movie.genreId());
+                movieYears[i] = movie.releaseYear();
+                movieOffsets[i + 1] = movieOffsets[i] + movie.actorIds().length;
+            }
+            int[] movieActors = new int[movieOffsets[movieIds.length]];
+            for (int i = 0; i < movieIds.length; i++) {
+                long[] cast = movies.get(movieIds[i]).actorIds();
+                for (int k = 0; k < cast.length; k++) {
+                    movieActors[movieOffsets[i] + k] = Arrays.binarySearch(actorIds, cast[k]);
+                }
+            }
+            int[] actorOffsets = new int[actorIds.length + 1];
+            int[] actorMovies = invert(movieOffsets, movieActors, actorOffsets);
+            int[] genreOffsets = new int[genreIds.length + 1];
+            int[] movieSelf = new int[movieIds.length + 1];
+            for (int i = 0; i < movieIds.length; i++) {
+                movieSelf[i + 1] = i + 1;
+            }
+            int[] genreMovies = invert(movieSelf, movieGenres, genreOffsets);
+            return new Snapshot(movieIds, movieGenres, movieYears, movieOffsets, movieActors,
+                    actorIds, actorOffsets, actorMovies, genreIds, genreOffsets, genreMovies);
+        }
+
+        // Invert the lists of targets of every movie into the lists of movies of every target, in movie order,
+        // filling the offsets of the inverted lists
+        private static int[] invert(int[] offsets, int[] targets, int[] invertedOffsets) {
+            for (int target : targets) {
+                invertedOffsets[target + 1]++;
+            }
+            for (int i = 1; i < invertedOffsets.length; i++) {
+                invertedOffsets[i] += invertedOffsets[i - 1];
+            }
+            int[] inverted = new int[targets.length];
+            int[] next = Arrays.copyOf(invertedOffsets, invertedOffsets.length - 1);
+            for (int movie = 0; movie + 1 < offsets.length; movie++) {
+                for (int j = offsets[movie]; j < offsets[movie + 1]; j++) {
+                    inverted[next[targets[j]]++] = movie;
+                }
+            }
+            return inverted;
+        }
+
+        // The fields of the movie, null when the snapshot does not hold it
+        Movie movie(long movieId) {
+            int movie = Arrays.binarySearch(movieIds, movieId);
+            if (movie < 0) {
+                return null;
+            }
+            long[] cast = new long[movieOffsets[movie + 1] - movieOffsets[movie]];
+            for (int i = 0; i < cast.length; i++) {
+                cast[i] = actorIds[movieActors[movieOffsets[movie] + i]];
+            }
+            return new Movie(genreIds[movieGenres[movie]], movieYears[movie], cast);
+        }
+    }
+}
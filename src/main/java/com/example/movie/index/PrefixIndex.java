@@ -0,0 +1,260 @@
+package com.example.movie.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+// In-memory prefix index of one kind of record (movie titles or actor names): returns the N best scored
+// records that have a word starting with the typed prefix.
+// Reads go to an immutable snapshot, a sorted array of keys searched with binary search plus a segment tree
+// that yields the best records of a key range without scanning it, and to a small sorted delta of the
+// records changed since the snapshot was built. Snapshot entries of changed records are hidden by a
+// tombstone. Once the delta outgrows a quarter of the snapshot, both are compacted into a new snapshot.
+final class PrefixIndex {
+
+    record Suggestion(long id, String text, long score) {
+    }
+
+    private static final Comparator<Suggestion> BEST_FIRST = Comparator.comparingLong(Suggestion::score).reversed()
+            .thenComparing(Suggestion::text)
+            .thenComparingLong(Suggestion::id);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Keys of a record are its normalized text from the start of each word, capped for very long texts
+    private static final int MAX_KEYS_PER_RECORD = 8;
+    private static final int MIN_COMPACTION_DELTA = 256;
+    private static final char ID_SEPARATOR = '\u0000';
+    private static final char RANGE_END = Character.MAX_VALUE;
+
+    private record State(Snapshot snapshot, ConcurrentNavigableMap<String, Suggestion> delta, Set<Long> tombstones) {
+    }
+
+    // Current record of every ID, the source a snapshot is rebuilt from, guarded by this
+    private final Map<Long, Suggestion> records = new HashMap<>();
+
+    private volatile State state = new State(Snapshot.EMPTY, new ConcurrentSkipListMap<>(), ConcurrentHashMap.newKeySet());
+
+    // Lower-case text without accents, with every run of punctuation and spaces collapsed to one space
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // Replace every record with the given ones
+    synchronized void load(Collection<Suggestion> suggestions) {
+        records.clear();
+        for (Suggestion suggestion : suggestions) {
+            records.put(suggestion.id(), suggestion);
+        }
+        compact();
+    }
+
+    // Add a record or replace the record with the same ID
+    synchronized void put(Suggestion suggestion) {
+        Suggestion old = records.put(suggestion.id(), suggestion);
+        State current = state;
+        Set<String> keys = keys(suggestion.text());
+        for (String key : keys) {
+            current.delta().put(deltaKey(key, suggestion.id()), suggestion);
+        }
+        if (old != null) {
+            for (String key : keys(old.text())) {
+                if (!keys.contains(key)) {
+                    current.delta().remove(deltaKey(key, old.id()));
+                }
+            }
+        }
+        current.tombstones().add(suggestion.id());
+        compactIfNeeded();
+    }
+
+    synchronized void remove(long id) {
+        Suggestion old = records.remove(id);
+        if (old == null) {
+            return;
+        }
+        State current = state;
+        for (String key : keys(old.text())) {
+            current.delta().remove(deltaKey(key, id));
+        }
+        current.tombstones().add(id);
+        compactIfNeeded();
+    }
+
+    // The best n records with a key starting with the normalized prefix, best first
+    List<Suggestion> top(String prefix, int n) {
+        State current = state;
+        List<Suggestion> candidates = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        // The delta holds the latest version of a changed record, so it goes first
+        for (Suggestion suggestion : current.delta().subMap(prefix, prefix + RANGE_END).values()) {
+            if (seen.add(suggestion.id())) {
+                candidates.add(suggestion);
+            }
+        }
+        current.snapshot().collect(prefix, n,
+                suggestion -> !current.tombstones().contains(suggestion.id()) && seen.add(suggestion.id()),
+                candidates);
+        candidates.sort(BEST_FIRST);
+        return candidates.size() > n ? candidates.subList(0, n) : candidates;
+    }
+
+    private void compactIfNeeded() {
+        State current = state;
+        if (current.delta().size() > Math.max(MIN_COMPACTION_DELTA, current.snapshot().size() / 4)) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        state = new State(Snapshot.of(records.values()), new ConcurrentSkipListMap<>(), ConcurrentHashMap.newKeySet());
+    }
+
+    private static Set<String> keys(String text) {
+        String normalized = normalize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0 && keys.size() < MAX_KEYS_PER_RECORD; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    // Delta keys carry the ID so that records with the same text do not overwrite each other
+    private static String deltaKey(String key, long id) {
+        return key + ID_SEPARATOR + id;
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new String[0], new Suggestion[0]);
+
+        private final String[] keys;
+
+        // Record of each key
+        private final Suggestion[] owners;
+
+        // Iterative segment tree, each node holds the position of the best record of its key range
+        private final int[] tree;
+
+        private Snapshot(String[] keys, Suggestion[] owners) {
+            this.keys = keys;
+            this.owners = owners;
+            int n = keys.length;
+            this.tree = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                tree[n + i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                tree[i] = better(tree[2 * i], tree[2 * i + 1]);
+            }
+        }
+
+        static Snapshot of(Collection<Suggestion> suggestions) {
+            List<Map.Entry<String, Suggestion>> entries = new ArrayList<>();
+            for (Suggestion suggestion : suggestions) {
+                for (String key : keys(suggestion.text())) {
+                    entries.add(Map.entry(key, suggestion));
+                }
+            }
+            entries.sort(Map.Entry.comparingByKey());
+            String[] keys = new String[entries.size()];
+            Suggestion[] owners = new Suggestion[entries.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = entries.get(i).getKey();
+                owners[i] = entries.get(i).getValue();
+            }
+            return new Snapshot(keys, owners);
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        // Add the best records of the prefix range that pass the filter to out, until n of them passed
+        void collect(String prefix, int n, Predicate<Suggestion> accept, List<Suggestion> out) {
+            int from = lowerBound(prefix);
+            int to = lowerBound(prefix + RANGE_END) - 1;
+            if (from > to) {
+                return;
+            }
+            // Ranges ordered by their best record: take the best, then split the range around it
+            PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                    (a, b) -> BEST_FIRST.compare(owners[a[2]], owners[b[2]]));
+            ranges.add(new int[]{from, to, best(from, to)});
+            int accepted = 0;
+            while (accepted < n && !ranges.isEmpty()) {
+                int[] range = ranges.poll();
+                int position = range[2];
+                if (accept.test(owners[position])) {
+                    out.add(owners[position]);
+                    accepted++;
+                }
+                if (range[0] < position) {
+                    ranges.add(new int[]{range[0], position - 1, best(range[0], position - 1)});
+                }
+                if (position < range[1]) {
+                    ranges.add(new int[]{position + 1, range[1], best(position + 1, range[1])});
+                }
+            }
+        }
+
+        // Position of the best record between from and to, both inclusive
+        private int best(int from, int to) {
+            int n = keys.length;
+            int result = -1;
+            for (int lo = from + n, hi = to + n + 1; lo < hi; lo >>= 1, hi >>= 1) {
+                if ((lo & 1) == 1) {
+                    result = better(result, tree[lo++]);
+                }
+                if ((hi & 1) == 1) {
+                    result = better(result, tree[--hi]);
+                }
+            }
+            return result;
+        }
+
+        private int better(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            return BEST_FIRST.compare(owners[a], owners[b]) <= 0 ? a : b;
+        }
+
+        private int lowerBound(String key) {
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
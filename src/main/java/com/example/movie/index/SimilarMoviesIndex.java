@@ -0,0 +1,134 @@
+package com.example.movie.index;
+
+import com.example.movie.event.ActorChangedEvent;
+import com.example.movie.event.CatalogImportedEvent;
+import com.example.movie.event.ChangeType;
+import com.example.movie.event.MovieChangedEvent;
+import com.example.movie.event.MovieSnapshot;
+import com.example.movie.repository.CatalogJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Ranks the movies similar to a movie by shared actors, same genre and, on request, release year proximity,
+// from an in-memory inverted index of the movies by actor and by genre. Loaded once the application has started,
+// then kept up to date from the committed movie and actor change events, so rankings never touch the database.
+@Component
+public class SimilarMoviesIndex {
+
+    public record Match(long movieId, double score, int sharedActors, boolean sameGenre) {
+    }
+
+    @Autowired
+    private CatalogJdbcRepository catalogJdbcRepository;
+
+    // Score of the same genre, against a point per shared actor
+    @Value("${movie.similar.genre-weight:0.5}")
+    private double genreWeight;
+
+    private final InvertedMovieIndex index = new InvertedMovieIndex();
+
+    // The loads and the updates are serialized, and an update replaces the whole movie,
+    // so an update is never overwritten by an older load
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        MovieCollector collector = new MovieCollector();
+        catalogJdbcRepository.streamMovieCasts(collector);
+        index.load(collector.finish());
+    }
+
+    // A bulk import changes too many records to apply one by one
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        load();
+    }
+
+    // Only the genre, release year and cast of a movie are indexed
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onMovieChanged(MovieChangedEvent event) {
+        if (event.after() == null) {
+            index.remove(event.movieId());
+        } else if (event.before() == null || !sameIndexedFields(event.before(), event.after())) {
+            MovieSnapshot movie = event.after();
+            index.put(movie.id(), new InvertedMovieIndex.Movie(movie.genreId() != null ? movie.genreId() : -1,
+                    movie.releaseYear(), movie.actorIds().stream().mapToLong(Long::longValue).toArray()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onActorChanged(ActorChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            index.removeActor(event.actorId());
+        }
+    }
+
+    // Get the n movies most similar to the movie, best first, empty for a movie the index does not hold.
+    // yearWeight is added in full for a movie of the same year, halved for a year apart, and so on.
+    public List<Match> similar(long movieId, int n, double yearWeight) {
+        return index.similar(movieId, n, new InvertedMovieIndex.Weights(genreWeight, yearWeight));
+    }
+
+    private static boolean sameIndexedFields(MovieSnapshot before, MovieSnapshot after) {
+        return before.releaseYear() == after.releaseYear() && Objects.equals(before.genreId(), after.genreId())
+                && new HashSet<>(before.actorIds()).equals(new HashSet<>(after.actorIds()));
+    }
+
+    // Collects every movie with its cast in a growing buffer, the rows arriving in movie order
+    private static final class MovieCollector implements CatalogJdbcRepository.MovieCastHandler {
+
+        private final Map<Long, InvertedMovieIndex.Movie> movies = new HashMap<>();
+
+        private long movieId = -1;
+
+        private long genreId;
+
+        private int releaseYear;
+
+        private long[] cast = new long[8];
+
+        private int size;
+
+        @Override
+        public void row(long movieId, long genreId, int releaseYear, Long actorId) {
+            if (movieId != this.movieId) {
+                flush();
+                this.movieId = movieId;
+                this.genreId = genreId;
+                this.releaseYear = releaseYear;
+            }
+            if (actorId == null) {
+                return;
+            }
+            if (size == cast.length) {
+                cast = Arrays.copyOf(cast, size * 2);
+            }
+            cast[size++] = actorId;
+        }
+
+        Map<Long, InvertedMovieIndex.Movie> finish() {
+            flush();
+            return movies;
+        }
+
+        private void flush() {
+            if (movieId >= 0) {
+                movies.put(movieId, new InvertedMovieIndex.Movie(genreId, releaseYear, Arrays.copyOf(cast, size)));
+                size = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.movie.json;
+
+import com.example.movie.repository.CatalogJdbcRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+// Writes a page of actors as ActorResponseDto objects, each as soon as its row was read
+public class ActorPageJsonWriter extends PageJsonWriter implements CatalogJdbcRepository.ActorRowHandler {
+
+    public ActorPageJsonWriter(JsonGenerator generator, int limit) {
+        super(generator, limit);
+    }
+
+    @Override
+    public void row(long id, String name, LocalDate birthDate) {
+        if (!startElement(id)) {
+            return;
+        }
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            generator.writeStringField("name", name);
+            writeDateField("birthDate", birthDate);
+            generator.writeEndObject();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
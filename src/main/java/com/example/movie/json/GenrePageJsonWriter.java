@@ -0,0 +1,61 @@
+package com.example.movie.json;
+
+import com.example.movie.repository.CatalogJdbcRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Writes a page of genres as GenreResponseDto objects from their joined rows, one row per movie of the genre
+public class GenrePageJsonWriter extends PageJsonWriter implements CatalogJdbcRepository.GenreRowHandler {
+
+    private long currentId = -1;
+
+    // The rows of a genre past the limit are skipped
+    private boolean skipping;
+
+    private boolean open;
+
+    public GenrePageJsonWriter(JsonGenerator generator, int limit) {
+        super(generator, limit);
+    }
+
+    @Override
+    public void row(long id, String name, Long movieId, String title, int releaseYear, int duration) {
+        try {
+            if (id != currentId) {
+                endElement();
+                currentId = id;
+                skipping = !startElement(id);
+                if (skipping) {
+                    return;
+                }
+                generator.writeStartObject();
+                generator.writeNumberField("id", id);
+                generator.writeStringField("name", name);
+                generator.writeArrayFieldStart("movies");
+                open = true;
+            }
+            if (skipping || movieId == null) {
+                return;
+            }
+            generator.writeStartObject();
+            generator.writeNumberField("id", movieId);
+            generator.writeStringField("title", title);
+            generator.writeNumberField("releaseYear", releaseYear);
+            generator.writeNumberField("duration", duration);
+            generator.writeEndObject();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    protected void endElement() throws IOException {
+        if (open) {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            open = false;
+        }
+    }
+}
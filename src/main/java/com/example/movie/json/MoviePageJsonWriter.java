@@ -0,0 +1,68 @@
+package com.example.movie.json;
+
+import com.example.movie.repository.CatalogJdbcRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+// Writes a page of movies as MovieResponseDto objects from their joined rows, one row per actor
+public class MoviePageJsonWriter extends PageJsonWriter implements CatalogJdbcRepository.MovieRowHandler {
+
+    private long currentId = -1;
+
+    // The rows of a movie past the limit are skipped
+    private boolean skipping;
+
+    private boolean open;
+
+    public MoviePageJsonWriter(JsonGenerator generator, int limit) {
+        super(generator, limit);
+    }
+
+    @Override
+    public void row(long id, String title, int releaseYear, int duration, long genreId, String genreName,
+                    Long actorId, String actorName, LocalDate birthDate) {
+        try {
+            if (id != currentId) {
+                endElement();
+                currentId = id;
+                skipping = !startElement(id);
+                if (skipping) {
+                    return;
+                }
+                generator.writeStartObject();
+                generator.writeNumberField("id", id);
+                generator.writeStringField("title", title);
+                generator.writeNumberField("releaseYear", releaseYear);
+                generator.writeNumberField("duration", duration);
+                generator.writeObjectFieldStart("genre");
+                generator.writeNumberField("id", genreId);
+                generator.writeStringField("name", genreName);
+                generator.writeEndObject();
+                generator.writeArrayFieldStart("actors");
+                open = true;
+            }
+            if (skipping || actorId == null) {
+                return;
+            }
+            generator.writeStartObject();
+            generator.writeNumberField("id", actorId);
+            generator.writeStringField("name", actorName);
+            writeDateField("birthDate", birthDate);
+            generator.writeEndObject();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    protected void endElement() throws IOException {
+        if (open) {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            open = false;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.movie.json;
+
+import com.example.movie.util.Cursors;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+// Writes a keyset page straight to a JsonGenerator in the shape of CursorPageDto, {"content":[...],"next":...},
+// one element at a time as the rows are read. The rows are read with LIMIT limit + 1: an element past the
+// limit is not written, it only tells that a next page exists.
+public abstract class PageJsonWriter {
+
+    protected final JsonGenerator generator;
+
+    private final int limit;
+
+    private int written;
+
+    private long lastId;
+
+    private boolean hasNext;
+
+    // ISO dates are formatted here rather than through LocalDate.toString(), which allocates for every actor row
+    private final char[] date = new char[10];
+
+    protected PageJsonWriter(JsonGenerator generator, int limit) {
+        this.generator = generator;
+        this.limit = limit;
+        try {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("content");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Called with the ID of every new element, false when the element is past the limit and must be skipped
+    protected boolean startElement(long id) {
+        if (written == limit) {
+            hasNext = true;
+            return false;
+        }
+        written++;
+        lastId = id;
+        return true;
+    }
+
+    // Close the element being written, if any
+    protected void endElement() throws IOException {
+    }
+
+    // Same text as LocalDate.toString(), which Jackson writes for the birth dates of the DTOs
+    protected void writeDateField(String name, LocalDate value) throws IOException {
+        if (value == null || value.getYear() < 0 || value.getYear() > 9999) {
+            generator.writeStringField(name, value != null ? value.toString() : null);
+            return;
+        }
+        digits(value.getYear(), 0, 4);
+        date[4] = '-';
+        digits(value.getMonthValue(), 5, 2);
+        date[7] = '-';
+        digits(value.getDayOfMonth(), 8, 2);
+        generator.writeFieldName(name);
+        generator.writeString(date, 0, date.length);
+    }
+
+    private void digits(int value, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            date[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // Close the content and write the cursor of the next page, called once after the last row
+    public void finish() {
+        try {
+            endElement();
+            generator.writeEndArray();
+            generator.writeStringField("next", hasNext ? Cursors.encode(lastId) : null);
+            generator.writeEndObject();
+            generator.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -1,17 +1,53 @@
 package com.example.movie.repository;
 
+import com.example.movie.DTO.ActorPopularityView;
+import com.example.movie.DTO.ActorView;
 import com.example.movie.entity.Actor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ActorRepository extends JpaRepository<Actor, Long> {
     Page<Actor> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
-    @Query(value = "SELECT * FROM actor LIMIT ?1 OFFSET ?2", nativeQuery = true)
-    List<Actor> findAllWithPagination(int limit, int offset);
+    // Read-only projections for the GET endpoints, keyset paging reads WHERE id > :after ORDER BY id LIMIT :limit
+    // Results are kept in the query cache until the next write to the actors table
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.example.movie.DTO.ActorView(a.id, a.name, a.birthDate) FROM Actor a WHERE a.id = :id")
+    Optional<ActorView> findViewById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.example.movie.DTO.ActorView(a.id, a.name, a.birthDate) FROM Actor a "
+            + "WHERE a.id > :after ORDER BY a.id")
+    List<ActorView> findViewsAfter(@Param("after") long after, Limit limit);
+
+    @Query("SELECT new com.example.movie.DTO.ActorView(a.id, a.name, a.birthDate) FROM Actor a WHERE a.id IN :ids")
+    List<ActorView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Actors with the number of movies they play in, for the autocomplete index
+    @Query("SELECT new com.example.movie.DTO.ActorPopularityView(a.id, a.name, COUNT(m)) FROM Actor a "
+            + "LEFT JOIN a.movies m GROUP BY a.id, a.name")
+    List<ActorPopularityView> findPopularityViews();
+
+    @Query("SELECT new com.example.movie.DTO.ActorPopularityView(a.id, a.name, COUNT(m)) FROM Actor a "
+            + "LEFT JOIN a.movies m WHERE a.id IN :ids GROUP BY a.id, a.name")
+    List<ActorPopularityView> findPopularityViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // The name is expected in lower case; % and _ in it are escaped so they match themselves, as in the derived query
+    @Query(value = "SELECT new com.example.movie.DTO.ActorView(a.id, a.name, a.birthDate) FROM Actor a "
+            + "WHERE LOWER(a.name) LIKE %?#{escape([0])}% ESCAPE ?#{escapeCharacter()}",
+            countQuery = "SELECT COUNT(a) FROM Actor a WHERE LOWER(a.name) LIKE %?#{escape([0])}% "
+                    + "ESCAPE ?#{escapeCharacter()}")
+    Page<ActorView> findViewsByNameContaining(@Param("name") String name, Pageable pageable);
 }
 
@@ -0,0 +1,308 @@
+package com.example.movie.repository;
+
+import com.example.movie.DTO.ImportLineDto;
+import com.example.movie.DTO.MovieResponseActorDto;
+import com.example.movie.DTO.MovieResponseDto;
+import com.example.movie.DTO.MovieResponseGenreDto;
+import com.example.movie.event.MovieSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Bulk reads and writes of the catalog tables through JDBC batches, for imports where going through
+// the entities would cost one statement round trip and one persistence context entry per row.
+// Writes here bypass the second-level cache and the change events; callers publish the change events
+// of the rows they wrote, or a CatalogImportedEvent when there are too many of them.
+@Repository
+public class CatalogJdbcRepository {
+
+    // Keeps IN lists well below the SQLite limit on bound parameters
+    private static final int MAX_IN_LIST = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Same batch size as the Hibernate write paths
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int batchSize;
+
+    // Rows the driver reads ahead from the export cursor
+    @Value("${movie.export.fetch-size:1000}")
+    private int fetchSize;
+
+    public enum Table {
+        GENRES("Genres"),
+        ACTORS("Actors"),
+        MOVIES("movie");
+
+        private final String name;
+
+        Table(String name) {
+            this.name = name;
+        }
+    }
+
+    // Receives the joined rows of a page of movies in ID order, one row per actor, actorId null for a movie without
+    public interface MovieRowHandler {
+        void row(long id, String title, int releaseYear, int duration, long genreId, String genreName,
+                 Long actorId, String actorName, LocalDate birthDate);
+    }
+
+    public interface ActorRowHandler {
+        void row(long id, String name, LocalDate birthDate);
+    }
+
+    // Receives the joined rows of a page of genres in ID order, one row per movie, movieId null for a genre without
+    public interface GenreRowHandler {
+        void row(long id, String name, Long movieId, String title, int releaseYear, int duration);
+    }
+
+    public interface LinkHandler {
+        void link(long movieId, long actorId);
+    }
+
+    // Receives one row per actor of every movie in movie order, actorId null for a movie without actors
+    public interface MovieCastHandler {
+        void row(long movieId, long genreId, int releaseYear, Long actorId);
+    }
+
+    // Read every movie-actor link in movie order from one forward-only cursor
+    public void streamMovieActors(LinkHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT movie_id, actor_id FROM movie_actor ORDER BY movie_id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> handler.link(rs.getLong(1), rs.getLong(2)));
+    }
+
+    // Read the genre, release year and actors of every movie in ID order from one forward-only cursor
+    public void streamMovieCasts(MovieCastHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT m.id, m.genre_id, m.release_year, ma.actor_id "
+                            + "FROM movie m LEFT JOIN movie_actor ma ON ma.movie_id = m.id ORDER BY m.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            long actorId = rs.getLong(4);
+            boolean hasActor = !rs.wasNull();
+            handler.row(rs.getLong(1), rs.getLong(2), rs.getInt(3), hasActor ? actorId : null);
+        });
+    }
+
+    // Read every movie with its genre and actors in ID order from one forward-only cursor, handing each movie
+    // to the consumer as soon as its last row was read, so only one movie is held in memory at a time
+    public void streamMovies(Consumer<MovieResponseDto> consumer) {
+        String sql = "SELECT m.id, m.title, m.release_year, m.duration, g.id AS genre_id, g.name AS genre_name, "
+                + "a.id AS actor_id, a.name AS actor_name, a.birth_date "
+                + "FROM movie m JOIN Genres g ON g.id = m.genre_id "
+                + "LEFT JOIN movie_actor ma ON ma.movie_id = m.id LEFT JOIN Actors a ON a.id = ma.actor_id "
+                + "ORDER BY m.id";
+        MovieRowGrouper grouper = new MovieRowGrouper(consumer);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, grouper);
+        grouper.finish();
+    }
+
+    // Read the movies with an ID above after, at most limit of them, with their genre and actors in one query,
+    // handing over every row as it is read
+    public void streamMoviePage(long after, int limit, MovieRowHandler handler) {
+        String sql = "SELECT m.id, m.title, m.release_year, m.duration, g.id AS genre_id, g.name AS genre_name, "
+                + "a.id AS actor_id, a.name AS actor_name, a.birth_date "
+                + "FROM (SELECT id, title, release_year, duration, genre_id FROM movie WHERE id > ? ORDER BY id LIMIT ?) m "
+                + "JOIN Genres g ON g.id = m.genre_id "
+                + "LEFT JOIN movie_actor ma ON ma.movie_id = m.id LEFT JOIN Actors a ON a.id = ma.actor_id "
+                + "ORDER BY m.id, ma.rowid";
+        jdbcTemplate.query(sql, rs -> {
+            long actorId = rs.getLong("actor_id");
+            boolean hasActor = !rs.wasNull();
+            handler.row(rs.getLong("id"), rs.getString("title"), rs.getInt("release_year"), rs.getInt("duration"),
+                    rs.getLong("genre_id"), rs.getString("genre_name"),
+                    hasActor ? actorId : null, rs.getString("actor_name"), localDate(rs, "birth_date"));
+        }, after, limit);
+    }
+
+    public void streamActorPage(long after, int limit, ActorRowHandler handler) {
+        jdbcTemplate.query("SELECT id, name, birth_date FROM Actors WHERE id > ? ORDER BY id LIMIT ?",
+                (RowCallbackHandler) rs -> handler.row(rs.getLong("id"), rs.getString("name"), localDate(rs, "birth_date")),
+                after, limit);
+    }
+
+    // Read the genres with an ID above after, at most limit of them, with their movies in one query
+    public void streamGenrePage(long after, int limit, GenreRowHandler handler) {
+        String sql = "SELECT g.id, g.name, m.id AS movie_id, m.title, m.release_year, m.duration "
+                + "FROM (SELECT id, name FROM Genres WHERE id > ? ORDER BY id LIMIT ?) g "
+                + "LEFT JOIN movie m ON m.genre_id = g.id "
+                + "ORDER BY g.id, m.id";
+        jdbcTemplate.query(sql, rs -> {
+            long movieId = rs.getLong("movie_id");
+            boolean hasMovie = !rs.wasNull();
+            handler.row(rs.getLong("id"), rs.getString("name"), hasMovie ? movieId : null, rs.getString("title"),
+                    rs.getInt("release_year"), rs.getInt("duration"));
+        }, after, limit);
+    }
+
+    public long maxId(Table table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table.name, Long.class);
+        return max == null ? 0L : max;
+    }
+
+    // The subset of the given IDs that exist in the table
+    public Set<Long> findExistingIds(Table table, Collection<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += MAX_IN_LIST) {
+            List<Long> part = all.subList(from, Math.min(from + MAX_IN_LIST, all.size()));
+            String placeholders = part.stream().map(id -> "?").collect(Collectors.joining(","));
+            existing.addAll(jdbcTemplate.queryForList(
+                    "SELECT id FROM " + table.name + " WHERE id IN (" + placeholders + ")", Long.class, part.toArray()));
+        }
+        return existing;
+    }
+
+    // The columns and actors of the given movies, keyed by movie ID, without the IDs that do not exist
+    public Map<Long, MovieSnapshot> findMovieSnapshots(Collection<Long> ids) {
+        Map<Long, MovieSnapshot> snapshots = new LinkedHashMap<>();
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += MAX_IN_LIST) {
+            List<Long> part = all.subList(from, Math.min(from + MAX_IN_LIST, all.size()));
+            String placeholders = part.stream().map(id -> "?").collect(Collectors.joining(","));
+            jdbcTemplate.query("SELECT m.id, m.title, m.release_year, m.duration, m.genre_id, ma.actor_id "
+                    + "FROM movie m LEFT JOIN movie_actor ma ON ma.movie_id = m.id "
+                    + "WHERE m.id IN (" + placeholders + ") ORDER BY m.id", (RowCallbackHandler) rs -> {
+                long id = rs.getLong("id");
+                MovieSnapshot movie = snapshots.get(id);
+                if (movie == null) {
+                    long genreId = rs.getLong("genre_id");
+                    boolean hasGenre = !rs.wasNull();
+                    movie = new MovieSnapshot(id, rs.getString("title"), rs.getInt("release_year"),
+                            rs.getInt("duration"), hasGenre ? genreId : null, new ArrayList<>());
+                    snapshots.put(id, movie);
+                }
+                long actorId = rs.getLong("actor_id");
+                if (!rs.wasNull()) {
+                    movie.actorIds().add(actorId);
+                }
+            }, part.toArray());
+        }
+        // The actor lists were only growing while the rows were read
+        snapshots.replaceAll((id, movie) -> new MovieSnapshot(id, movie.title(), movie.releaseYear(),
+                movie.duration(), movie.genreId(), List.copyOf(movie.actorIds())));
+        return snapshots;
+    }
+
+    // The rows are expected to carry their ID
+    public void insertGenres(List<ImportLineDto> genres) {
+        jdbcTemplate.batchUpdate("INSERT INTO Genres (id, name) VALUES (?, ?)", genres, batchSize, (ps, genre) -> {
+            ps.setLong(1, genre.getId());
+            ps.setString(2, genre.getName());
+        });
+    }
+
+    public void insertActors(List<ImportLineDto> actors) {
+        jdbcTemplate.batchUpdate("INSERT INTO Actors (id, name, birth_date) VALUES (?, ?, ?)", actors, batchSize,
+                (ps, actor) -> {
+                    ps.setLong(1, actor.getId());
+                    ps.setString(2, actor.getName());
+                    // Bound like Hibernate binds LocalDate, so both paths store the same value
+                    ps.setDate(3, Date.valueOf(actor.getBirthDate()));
+                });
+    }
+
+    public void insertMovies(List<ImportLineDto> movies) {
+        jdbcTemplate.batchUpdate("INSERT INTO movie (id, title, release_year, duration, genre_id) VALUES (?, ?, ?, ?, ?)",
+                movies, batchSize, (ps, movie) -> {
+                    ps.setLong(1, movie.getId());
+                    ps.setString(2, movie.getTitle());
+                    ps.setInt(3, movie.getReleaseYear());
+                    ps.setInt(4, movie.getDuration());
+                    ps.setLong(5, movie.getGenreId());
+                });
+    }
+
+    // Each link is a {movieId, actorId} pair
+    public void insertMovieActors(List<long[]> links) {
+        jdbcTemplate.batchUpdate("INSERT INTO movie_actor (movie_id, actor_id) VALUES (?, ?)", links, batchSize,
+                (ps, link) -> {
+                    ps.setLong(1, link[0]);
+                    ps.setLong(2, link[1]);
+                });
+    }
+
+    private static LocalDate localDate(ResultSet rs, String column) throws SQLException {
+        Date date = rs.getDate(column);
+        return date != null ? date.toLocalDate() : null;
+    }
+
+    // Folds the joined rows of one movie, one row per actor, into a single MovieResponseDto
+    private static final class MovieRowGrouper implements RowCallbackHandler {
+
+        private final Consumer<MovieResponseDto> consumer;
+
+        private MovieResponseDto current;
+
+        MovieRowGrouper(Consumer<MovieResponseDto> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (current == null || current.getId() != id) {
+                finish();
+                current = MovieResponseDto.builder()
+                        .id(id)
+                        .title(rs.getString("title"))
+                        .releaseYear(rs.getInt("release_year"))
+                        .duration(rs.getInt("duration"))
+                        .genre(MovieResponseGenreDto.builder()
+                                .id(rs.getLong("genre_id"))
+                                .name(rs.getString("genre_name"))
+                                .build())
+                        .actors(new ArrayList<>())
+                        .build();
+            }
+            long actorId = rs.getLong("actor_id");
+            if (!rs.wasNull()) {
+                Date birthDate = rs.getDate("birth_date");
+                current.getActors().add(MovieResponseActorDto.builder()
+                        .id(actorId)
+                        .name(rs.getString("actor_name"))
+                        .birthDate(birthDate != null ? birthDate.toLocalDate() : null)
+                        .build());
+            }
+        }
+
+        // Hand over the movie being built, called once more after the last row
+        void finish() {
+            if (current != null) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.movie.repository;
+
+import com.example.movie.DTO.VersionView;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+// Row versions of movie, Actors and Genres. Triggers bump the version and updated_at of a row on every change
+// of its columns, and of the rows on both sides of a changed association: a movie added to or removed from a
+// genre bumps the genre, a changed cast bumps the movie and the actors joining or leaving it. Like the full-text
+// triggers they apply to every code path that writes the tables, the Hibernate entities and the bulk import.
+// The lookups below combine the versions of every row a GET response embeds into its validators, so a
+// conditional GET is answered from one aggregate query instead of loading and serializing the response.
+@Repository
+@DependsOn("entityManagerFactory") // The base tables are created by Hibernate first
+public class CatalogVersionRepository {
+
+    // Epoch milliseconds, fixed for the duration of a statement
+    static final String NOW = "CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)";
+
+    private static final String BUMP = "SET version = version + 1, updated_at = " + NOW;
+
+    private static final String[] SCHEMA = {
+            "CREATE TRIGGER IF NOT EXISTS movie_version_insert AFTER INSERT ON movie BEGIN "
+                    + "UPDATE movie SET updated_at = " + NOW + " WHERE id = new.id; "
+                    + "UPDATE Genres " + BUMP + " WHERE id = new.genre_id; END",
+            "CREATE TRIGGER IF NOT EXISTS movie_version_update AFTER UPDATE OF title, release_year, duration, genre_id "
+                    + "ON movie WHEN old.title IS NOT new.title OR old.release_year IS NOT new.release_year "
+                    + "OR old.duration IS NOT new.duration OR old.genre_id IS NOT new.genre_id BEGIN "
+                    + "UPDATE movie " + BUMP + " WHERE id = new.id; "
+                    + "UPDATE Genres " + BUMP + " WHERE old.genre_id IS NOT new.genre_id "
+                    + "AND id IN (old.genre_id, new.genre_id); END",
+            "CREATE TRIGGER IF NOT EXISTS movie_version_delete AFTER DELETE ON movie BEGIN "
+                    + "UPDATE Genres " + BUMP + " WHERE id = old.genre_id; END",
+            "CREATE TRIGGER IF NOT EXISTS movie_actor_version_insert AFTER INSERT ON movie_actor BEGIN "
+                    + "UPDATE movie " + BUMP + " WHERE id = new.movie_id; "
+                    + "UPDATE Actors " + BUMP + " WHERE id = new.actor_id; END",
+            "CREATE TRIGGER IF NOT EXISTS movie_actor_version_delete AFTER DELETE ON movie_actor BEGIN "
+                    + "UPDATE movie " + BUMP + " WHERE id = old.movie_id; "
+                    + "UPDATE Actors " + BUMP + " WHERE id = old.actor_id; END",
+            "CREATE TRIGGER IF NOT EXISTS actor_version_insert AFTER INSERT ON Actors BEGIN "
+                    + "UPDATE Actors SET updated_at = " + NOW + " WHERE id = new.id; END",
+            "CREATE TRIGGER IF NOT EXISTS actor_version_update AFTER UPDATE OF name, birth_date ON Actors "
+                    + "WHEN old.name IS NOT new.name OR old.birth_date IS NOT new.birth_date BEGIN "
+                    + "UPDATE Actors " + BUMP + " WHERE id = new.id; END",
+            "CREATE TRIGGER IF NOT EXISTS genre_version_insert AFTER INSERT ON Genres BEGIN "
+                    + "UPDATE Genres SET updated_at = " + NOW + " WHERE id = new.id; END",
+            "CREATE TRIGGER IF NOT EXISTS genre_version_update AFTER UPDATE OF name ON Genres "
+                    + "WHEN old.name IS NOT new.name BEGIN "
+                    + "UPDATE Genres " + BUMP + " WHERE id = new.id; END",
+            // Rows written before the columns existed
+            "UPDATE movie SET updated_at = " + NOW + " WHERE updated_at IS NULL",
+            "UPDATE Actors SET updated_at = " + NOW + " WHERE updated_at IS NULL",
+            "UPDATE Genres SET updated_at = " + NOW + " WHERE updated_at IS NULL"
+    };
+
+    // A movie embeds its genre and actors; its own version covers changes of which genre and actors those are
+    private static final String MOVIE_VERSION =
+            "SELECT m.version || '-' || g.version || '-' || COALESCE(SUM(a.version), 0) AS etag, "
+                    + "max(COALESCE(m.updated_at, 0), COALESCE(g.updated_at, 0), COALESCE(MAX(a.updated_at), 0)) "
+                    + "AS last_modified "
+                    + "FROM movie m JOIN Genres g ON g.id = m.genre_id "
+                    + "LEFT JOIN movie_actor ma ON ma.movie_id = m.id LEFT JOIN Actors a ON a.id = ma.actor_id "
+                    + "WHERE m.id = ? GROUP BY m.id";
+
+    // A genre embeds its movies; its own version covers movies joining or leaving it
+    private static final String GENRE_VERSION =
+            "SELECT g.version || '-' || COALESCE(SUM(m.version), 0) AS etag, "
+                    + "max(COALESCE(g.updated_at, 0), COALESCE(MAX(m.updated_at), 0)) AS last_modified "
+                    + "FROM Genres g LEFT JOIN movie m ON m.genre_id = g.id WHERE g.id = ? GROUP BY g.id";
+
+    private static final String ACTOR_VERSION =
+            "SELECT CAST(version AS TEXT) AS etag, COALESCE(updated_at, 0) AS last_modified FROM Actors WHERE id = ?";
+
+    // The movies of an actor embed their genre and their whole cast, summed per movie first
+    private static final String ACTOR_MOVIES_VERSION =
+            "SELECT a.version || '-' || COALESCE(SUM(mv.version), 0) || '-' || COALESCE(SUM(mv.embedded), 0) AS etag, "
+                    + "max(COALESCE(a.updated_at, 0), COALESCE(MAX(mv.updated_at), 0)) AS last_modified "
+                    + "FROM Actors a LEFT JOIN ("
+                    + "SELECT ma.actor_id, m.version, g.version + COALESCE(SUM(c.version), 0) AS embedded, "
+                    + "max(COALESCE(m.updated_at, 0), COALESCE(g.updated_at, 0), COALESCE(MAX(c.updated_at), 0)) "
+                    + "AS updated_at "
+                    + "FROM movie_actor ma JOIN movie m ON m.id = ma.movie_id JOIN Genres g ON g.id = m.genre_id "
+                    + "LEFT JOIN movie_actor mc ON mc.movie_id = m.id LEFT JOIN Actors c ON c.id = mc.actor_id "
+                    + "WHERE ma.actor_id = ? GROUP BY ma.rowid"
+                    + ") mv ON mv.actor_id = a.id "
+                    + "WHERE a.id = ? GROUP BY a.id";
+
+    private static final RowMapper<VersionView> VERSION_VIEW = (rs, rowNum) ->
+            new VersionView(rs.getString("etag"), rs.getLong("last_modified"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Create the triggers if missing
+    @PostConstruct
+    void createSchema() {
+        for (String statement : SCHEMA) {
+            jdbcTemplate.execute(statement);
+        }
+    }
+
+    public Optional<VersionView> findMovieVersion(long id) {
+        return find(MOVIE_VERSION, id);
+    }
+
+    public Optional<VersionView> findGenreVersion(long id) {
+        return find(GENRE_VERSION, id);
+    }
+
+    public Optional<VersionView> findActorVersion(long id) {
+        return find(ACTOR_VERSION, id);
+    }
+
+    public Optional<VersionView> findActorMoviesVersion(long actorId) {
+        return find(ACTOR_MOVIES_VERSION, actorId, actorId);
+    }
+
+    private Optional<VersionView> find(String sql, Object... args) {
+        return jdbcTemplate.query(sql, VERSION_VIEW, args).stream().findFirst();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.movie.repository;
+
+import com.example.movie.DTO.ChangeDto;
+import com.example.movie.event.ChangeType;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+import static com.example.movie.repository.CatalogVersionRepository.NOW;
+
+// Append-only log of every change to movie, Actors, Genres and movie_actor. Like the version and full-text
+// triggers, the log triggers run inside the statement that changes the row, so an entry commits or rolls back
+// with its change whichever code path wrote it: the entities, the bulk import or the bulk create endpoints.
+// SQLite runs one write transaction at a time and AUTOINCREMENT never reuses a seq, so a reader that has seen
+// seq n will never see a later commit log an entry at or below n: seq is a safe cursor for delta sync.
+// Hibernate rewrites a changed cast as delete-all then insert, so a cast update logs a DELETED entry for every
+// old link and a CREATED entry for every new one; replayed in order they give the new cast.
+@Repository
+@DependsOn("entityManagerFactory") // The base tables are created by Hibernate first
+public class ChangeLogRepository {
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS change_log (seq INTEGER PRIMARY KEY AUTOINCREMENT, entity TEXT NOT NULL, "
+                    + "entity_id INTEGER NOT NULL, related_id INTEGER, change_type TEXT NOT NULL, "
+                    + "changed_at INTEGER NOT NULL)",
+            "CREATE TRIGGER IF NOT EXISTS movie_change_insert AFTER INSERT ON movie BEGIN "
+                    + log("movie", "new.id", "NULL", ChangeType.CREATED) + " END",
+            "CREATE TRIGGER IF NOT EXISTS movie_change_update AFTER UPDATE OF title, release_year, duration, genre_id "
+                    + "ON movie WHEN old.title IS NOT new.title OR old.release_year IS NOT new.release_year "
+                    + "OR old.duration IS NOT new.duration OR old.genre_id IS NOT new.genre_id BEGIN "
+                    + log("movie", "new.id", "NULL", ChangeType.UPDATED) + " END",
+            "CREATE TRIGGER IF NOT EXISTS movie_change_delete AFTER DELETE ON movie BEGIN "
+                    + log("movie", "old.id", "NULL", ChangeType.DELETED) + " END",
+            "CREATE TRIGGER IF NOT EXISTS movie_actor_change_insert AFTER INSERT ON movie_actor BEGIN "
+                    + log("movie_actor", "new.movie_id", "new.actor_id", ChangeType.CREATED) + " END",
+            "CREATE TRIGGER IF NOT EXISTS movie_actor_change_delete AFTER DELETE ON movie_actor BEGIN "
+                    + log("movie_actor", "old.movie_id", "old.actor_id", ChangeType.DELETED) + " END",
+            "CREATE TRIGGER IF NOT EXISTS actor_change_insert AFTER INSERT ON Actors BEGIN "
+                    + log("actor", "new.id", "NULL", ChangeType.CREATED) + " END",
+            "CREATE TRIGGER IF NOT EXISTS actor_change_update AFTER UPDATE OF name, birth_date ON Actors "
+                    + "WHEN old.name IS NOT new.name OR old.birth_date IS NOT new.birth_date BEGIN "
+                    + log("actor", "new.id", "NULL", ChangeType.UPDATED) + " END",
+            "CREATE TRIGGER IF NOT EXISTS actor_change_delete AFTER DELETE ON Actors BEGIN "
+                    + log("actor", "old.id", "NULL", ChangeType.DELETED) + " END",
+            "CREATE TRIGGER IF NOT EXISTS genre_change_insert AFTER INSERT ON Genres BEGIN "
+                    + log("genre", "new.id", "NULL", ChangeType.CREATED) + " END",
+            "CREATE TRIGGER IF NOT EXISTS genre_change_update AFTER UPDATE OF name ON Genres "
+                    + "WHEN old.name IS NOT new.name BEGIN "
+                    + log("genre", "new.id", "NULL", ChangeType.UPDATED) + " END",
+            "CREATE TRIGGER IF NOT EXISTS genre_change_delete AFTER DELETE ON Genres BEGIN "
+                    + log("genre", "old.id", "NULL", ChangeType.DELETED) + " END"
+    };
+
+    private static final RowMapper<ChangeDto> CHANGE = (rs, rowNum) -> {
+        long relatedId = rs.getLong("related_id");
+        boolean hasRelatedId = !rs.wasNull();
+        return ChangeDto.builder()
+                .seq(rs.getLong("seq"))
+                .entity(rs.getString("entity"))
+                .entityId(rs.getLong("entity_id"))
+                .relatedId(hasRelatedId ? relatedId : null)
+                .type(ChangeType.valueOf(rs.getString("change_type")))
+                .changedAt(rs.getLong("changed_at"))
+                .build();
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Create the table and the triggers if missing
+    @PostConstruct
+    void createSchema() {
+        for (String statement : SCHEMA) {
+            jdbcTemplate.execute(statement);
+        }
+    }
+
+    // The changes logged after the given seq, oldest first
+    public List<ChangeDto> findAfter(long after, int limit) {
+        return jdbcTemplate.query("SELECT seq, entity, entity_id, related_id, change_type, changed_at FROM change_log "
+                + "WHERE seq > ? ORDER BY seq LIMIT ?", CHANGE, after, limit);
+    }
+
+    // The seq of the last change logged, 0 when there is none
+    public long findLastSeq() {
+        Long last = jdbcTemplate.queryForObject("SELECT MAX(seq) FROM change_log", Long.class);
+        return last == null ? 0L : last;
+    }
+
+    private static String log(String entity, String entityId, String relatedId, ChangeType type) {
+        return "INSERT INTO change_log (entity, entity_id, related_id, change_type, changed_at) VALUES ('"
+                + entity + "', " + entityId + ", " + relatedId + ", '" + type + "', " + NOW + ");";
+    }
+}
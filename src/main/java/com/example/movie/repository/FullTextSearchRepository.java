@@ -0,0 +1,84 @@
+package com.example.movie.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// FTS5 indexes of movie titles and actor names. The virtual tables are external-content tables over
+// movie and Actors, so they store only the index; triggers on the base tables keep them in sync on
+// insert, update and delete, whichever code path writes the rows.
+@Repository
+@DependsOn("entityManagerFactory") // The base tables are created by Hibernate first
+public class FullTextSearchRepository {
+
+    private static final String[] SCHEMA = {
+            "CREATE VIRTUAL TABLE IF NOT EXISTS movie_fts USING fts5(title, content='movie', content_rowid='id', "
+                    + "tokenize='unicode61 remove_diacritics 2', prefix='2 3')",
+            "CREATE TRIGGER IF NOT EXISTS movie_fts_insert AFTER INSERT ON movie BEGIN "
+                    + "INSERT INTO movie_fts(rowid, title) VALUES (new.id, new.title); END",
+            "CREATE TRIGGER IF NOT EXISTS movie_fts_delete AFTER DELETE ON movie BEGIN "
+                    + "INSERT INTO movie_fts(movie_fts, rowid, title) VALUES ('delete', old.id, old.title); END",
+            "CREATE TRIGGER IF NOT EXISTS movie_fts_update AFTER UPDATE OF title ON movie BEGIN "
+                    + "INSERT INTO movie_fts(movie_fts, rowid, title) VALUES ('delete', old.id, old.title); "
+                    + "INSERT INTO movie_fts(rowid, title) VALUES (new.id, new.title); END",
+            "CREATE VIRTUAL TABLE IF NOT EXISTS actor_fts USING fts5(name, content='Actors', content_rowid='id', "
+                    + "tokenize='unicode61 remove_diacritics 2', prefix='2 3')",
+            "CREATE TRIGGER IF NOT EXISTS actor_fts_insert AFTER INSERT ON Actors BEGIN "
+                    + "INSERT INTO actor_fts(rowid, name) VALUES (new.id, new.name); END",
+            "CREATE TRIGGER IF NOT EXISTS actor_fts_delete AFTER DELETE ON Actors BEGIN "
+                    + "INSERT INTO actor_fts(actor_fts, rowid, name) VALUES ('delete', old.id, old.name); END",
+            "CREATE TRIGGER IF NOT EXISTS actor_fts_update AFTER UPDATE OF name ON Actors BEGIN "
+                    + "INSERT INTO actor_fts(actor_fts, rowid, name) VALUES ('delete', old.id, old.name); "
+                    + "INSERT INTO actor_fts(rowid, name) VALUES (new.id, new.name); END"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Create the indexes and triggers if missing, indexing the existing rows the first time
+    @PostConstruct
+    void createSchema() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE name IN ('movie_fts', 'actor_fts')", Integer.class);
+        for (String statement : SCHEMA) {
+            jdbcTemplate.execute(statement);
+        }
+        if (existing == null || existing < 2) {
+            rebuild();
+        }
+    }
+
+    // Re-index every movie title and actor name from the base tables
+    public void rebuild() {
+        jdbcTemplate.update("INSERT INTO movie_fts(movie_fts) VALUES ('rebuild')");
+        jdbcTemplate.update("INSERT INTO actor_fts(actor_fts) VALUES ('rebuild')");
+        jdbcTemplate.update("INSERT INTO movie_fts(movie_fts) VALUES ('optimize')");
+        jdbcTemplate.update("INSERT INTO actor_fts(actor_fts) VALUES ('optimize')");
+    }
+
+    // IDs of the movies whose title matches, best bm25 rank first
+    public Page<Long> findMovieIds(String match, Pageable pageable) {
+        return findIds("movie_fts", match, pageable);
+    }
+
+    // IDs of the actors whose name matches, best bm25 rank first
+    public Page<Long> findActorIds(String match, Pageable pageable) {
+        return findIds("actor_fts", match, pageable);
+    }
+
+    private Page<Long> findIds(String table, String match, Pageable pageable) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT rowid FROM " + table + " WHERE " + table + " MATCH ? ORDER BY rank, rowid LIMIT ? OFFSET ?",
+                Long.class, match, pageable.getPageSize(), pageable.getOffset());
+        // The count query only runs when the total cannot be told from the page itself
+        return PageableExecutionUtils.getPage(ids, pageable, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE " + table + " MATCH ?", Long.class, match));
+    }
+}
@@ -1,15 +1,37 @@
 package com.example.movie.repository;
 
 
+import com.example.movie.DTO.GenreStatsView;
+import com.example.movie.DTO.GenreView;
 import com.example.movie.entity.Genre;
-import com.example.movie.entity.Movie;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface GenreRepository extends JpaRepository<Genre, Long> {
-    @Query(value = "SELECT * FROM genre LIMIT :limit OFFSET :offset", nativeQuery = true)
-    List<Genre> findGenresWithPagination(@Param("limit") int limit, @Param("offset") int offset);
+    // Read-only projections for the GET endpoints, keyset paging reads WHERE id > :after ORDER BY id LIMIT :limit
+    // Results are kept in the query cache until the next write to the genres table
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.example.movie.DTO.GenreView(g.id, g.name) FROM Genre g WHERE g.id = :id")
+    Optional<GenreView> findViewById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.example.movie.DTO.GenreView(g.id, g.name) FROM Genre g WHERE g.id > :after ORDER BY g.id")
+    List<GenreView> findViewsAfter(@Param("after") long after, Limit limit);
+
+    @Query("SELECT new com.example.movie.DTO.GenreView(g.id, g.name) FROM Genre g WHERE g.id IN :ids")
+    List<GenreView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Movie count and total duration of every genre, zero for the genres without movies
+    @Query("SELECT new com.example.movie.DTO.GenreStatsView(g.id, g.name, COUNT(m), COALESCE(SUM(m.duration), 0L)) "
+            + "FROM Genre g LEFT JOIN g.movies m GROUP BY g.id, g.name")
+    List<GenreStatsView> findStatsViews();
 }
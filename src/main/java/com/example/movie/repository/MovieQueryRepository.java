@@ -0,0 +1,18 @@
+package com.example.movie.repository;
+
+import com.example.movie.DTO.MovieFacetView;
+import com.example.movie.entity.Movie;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+// Criteria queries over the movies matching a specification, a fragment of MovieRepository
+public interface MovieQueryRepository {
+
+    // IDs of one page of the matching movies in ID order, without a count query
+    List<Long> findIdsBy(Specification<Movie> spec, Pageable pageable);
+
+    // Matching movie count of every genre and release year, in one GROUP BY
+    List<MovieFacetView> findFacetViewsBy(Specification<Movie> spec);
+}
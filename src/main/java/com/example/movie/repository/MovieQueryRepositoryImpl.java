@@ -0,0 +1,55 @@
+package com.example.movie.repository;
+
+import com.example.movie.DTO.MovieFacetView;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+class MovieQueryRepositoryImpl implements MovieQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findIdsBy(Specification<Movie> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Movie> movie = query.from(Movie.class);
+        query.select(movie.get("id")).orderBy(cb.asc(movie.get("id")));
+        where(query, spec.toPredicate(movie, query, cb));
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public List<MovieFacetView> findFacetViewsBy(Specification<Movie> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MovieFacetView> query = cb.createQuery(MovieFacetView.class);
+        Root<Movie> movie = query.from(Movie.class);
+        Join<Movie, Genre> genre = movie.join("genre");
+        query.select(cb.construct(MovieFacetView.class,
+                        genre.get("id"), genre.get("name"), movie.get("releaseYear"), cb.count(movie)))
+                .groupBy(genre.get("id"), genre.get("name"), movie.get("releaseYear"));
+        where(query, spec.toPredicate(movie, query, cb));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    // A specification without criteria gives no predicate
+    private static void where(CriteriaQuery<?> query, Predicate predicate) {
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
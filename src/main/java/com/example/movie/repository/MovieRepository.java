@@ -1,20 +1,81 @@
 package com.example.movie.repository;
 
-import com.example.movie.DTO.MovieResponseDto;
+import com.example.movie.DTO.ActorView;
+import com.example.movie.DTO.GenreMovieView;
+import com.example.movie.DTO.MovieActorView;
+import com.example.movie.DTO.MovieTitleView;
+import com.example.movie.DTO.MovieView;
+import com.example.movie.DTO.YearStatsView;
 import com.example.movie.entity.Movie;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface MovieRepository extends JpaRepository<Movie, Long> {
-    // Кастомный запрос для пагинации с LIMIT и OFFSET для SQLite
-    @Query(value = "SELECT * FROM movie LIMIT :limit OFFSET :offset", nativeQuery = true)
-    List<Movie> findMoviesWithPagination(@Param("limit") int limit, @Param("offset") int offset);
+public interface MovieRepository extends JpaRepository<Movie, Long>, MovieQueryRepository {
     Page<Movie> findByGenreId(Long genreId, Pageable pageable);
     Page<Movie> findByReleaseYear(int releaseYear, Pageable pageable);
     Page<Movie> findByActorsId(Long actorId, Pageable pageable);
     Page<Movie> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+
+    // Load a movie together with its genre and actors in a single query, used by the write paths
+    @EntityGraph("Movie.withGenreAndActors")
+    Optional<Movie> findWithGenreAndActorsById(Long id);
+
+    // Keyset paging: seek past the last ID of the previous page through the primary key index
+    @Query("SELECT m.id FROM Movie m WHERE m.id > :after ORDER BY m.id")
+    List<Long> findIdsAfter(@Param("after") long after, Limit limit);
+
+    // First phase of the two-phase paging: LIMIT/OFFSET is applied to movie IDs only,
+    // the second phase reads the columns of that page through the projections below
+    @Query(value = "SELECT m.id FROM Movie m WHERE m.genre.id = :genreId ORDER BY m.id",
+            countQuery = "SELECT COUNT(m) FROM Movie m WHERE m.genre.id = :genreId")
+    Page<Long> findIdsByGenreId(@Param("genreId") Long genreId, Pageable pageable);
+
+    @Query(value = "SELECT m.id FROM Movie m WHERE m.releaseYear = :releaseYear ORDER BY m.id",
+            countQuery = "SELECT COUNT(m) FROM Movie m WHERE m.releaseYear = :releaseYear")
+    Page<Long> findIdsByReleaseYear(@Param("releaseYear") int releaseYear, Pageable pageable);
+
+    // The title is expected in lower case; % and _ in it are escaped so they match themselves, as in the derived query
+    @Query(value = "SELECT m.id FROM Movie m WHERE LOWER(m.title) LIKE %?#{escape([0])}% "
+            + "ESCAPE ?#{escapeCharacter()} ORDER BY m.id",
+            countQuery = "SELECT COUNT(m) FROM Movie m WHERE LOWER(m.title) LIKE %?#{escape([0])}% "
+                    + "ESCAPE ?#{escapeCharacter()}")
+    Page<Long> findIdsByTitleContainingIgnoreCase(@Param("title") String title, Pageable pageable);
+
+    @Query("SELECT m.id FROM Movie m JOIN m.actors a WHERE a.id = :actorId ORDER BY m.id")
+    List<Long> findIdsByActorId(@Param("actorId") Long actorId);
+
+    // Read-only projections: only the needed columns, no managed entities in the persistence context
+    @Query("SELECT new com.example.movie.DTO.MovieView(m.id, m.title, m.releaseYear, m.duration, g.id, g.name) "
+            + "FROM Movie m JOIN m.genre g WHERE m.id IN :ids")
+    List<MovieView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Every movie title, for the autocomplete index
+    @Query("SELECT new com.example.movie.DTO.MovieTitleView(m.id, m.title, m.releaseYear) FROM Movie m")
+    List<MovieTitleView> findTitleViews();
+
+    @Query("SELECT new com.example.movie.DTO.MovieActorView(m.id, a.id, a.name, a.birthDate) "
+            + "FROM Movie m JOIN m.actors a WHERE m.id IN :ids")
+    List<MovieActorView> findActorViewsByMovieIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.movie.DTO.ActorView(a.id, a.name, a.birthDate) "
+            + "FROM Movie m JOIN m.actors a WHERE m.id = :movieId")
+    List<ActorView> findActorViewsByMovieId(@Param("movieId") Long movieId);
+
+    @Query("SELECT new com.example.movie.DTO.GenreMovieView(m.genre.id, m.id, m.title, m.releaseYear, m.duration) "
+            + "FROM Movie m WHERE m.genre.id IN :genreIds")
+    List<GenreMovieView> findGenreMovieViewsByGenreIdIn(@Param("genreIds") Collection<Long> genreIds);
+
+    // Movie count and total duration of every release year with movies
+    @Query("SELECT new com.example.movie.DTO.YearStatsView(m.releaseYear, COUNT(m), SUM(m.duration)) "
+            + "FROM Movie m GROUP BY m.releaseYear")
+    List<YearStatsView> findYearStatsViews();
 }
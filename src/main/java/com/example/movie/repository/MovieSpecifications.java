@@ -0,0 +1,96 @@
+package com.example.movie.repository;
+
+import com.example.movie.DTO.MovieCriteriaDto;
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Movie;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Movie filters of the query endpoint; a factory given no value returns null, which Specification.allOf skips
+public final class MovieSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    private MovieSpecifications() {
+    }
+
+    // Every given criterion combined with AND
+    public static Specification<Movie> matching(MovieCriteriaDto criteria) {
+        return Specification.allOf(
+                hasGenre(criteria.getGenreId()),
+                releasedBetween(criteria.getYearFrom(), criteria.getYearTo()),
+                lastingBetween(criteria.getMinDuration(), criteria.getMaxDuration()),
+                withActors(criteria.getActorIds()),
+                titleContains(criteria.getTitle()));
+    }
+
+    // Compares the genre_id column, without a join to the genre
+    public static Specification<Movie> hasGenre(Long genreId) {
+        if (genreId == null) {
+            return null;
+        }
+        return (movie, query, cb) -> cb.equal(movie.get("genre").get("id"), genreId);
+    }
+
+    public static Specification<Movie> releasedBetween(Integer from, Integer to) {
+        return between("releaseYear", from, to);
+    }
+
+    public static Specification<Movie> lastingBetween(Integer min, Integer max) {
+        return between("duration", min, max);
+    }
+
+    // One "id IN (movies of the actor)" per actor, so the movie must have all of them. SQLite reads each list from
+    // the actor_id index and seeks the movies by ID; a correlated EXISTS would be probed once per movie row instead
+    public static Specification<Movie> withActors(Collection<Long> actorIds) {
+        if (actorIds == null || actorIds.isEmpty()) {
+            return null;
+        }
+        return (movie, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            for (Long actorId : actorIds) {
+                Subquery<Long> cast = query.subquery(Long.class);
+                Root<Movie> castMovie = cast.from(Movie.class);
+                Join<Movie, Actor> actor = castMovie.join("actors");
+                cast.select(castMovie.get("id")).where(cb.equal(actor.get("id"), actorId));
+                predicates.add(movie.get("id").in(cast));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // Case-insensitive substring of the title, as the title search; % and _ in the term match themselves
+    public static Specification<Movie> titleContains(String term) {
+        if (term == null || term.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + escapeLike(term.trim().toLowerCase()) + "%";
+        return (movie, query, cb) -> cb.like(cb.lower(movie.get("title")), pattern, ESCAPE);
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static Specification<Movie> between(String attribute, Integer from, Integer to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (movie, query, cb) -> {
+            if (from == null) {
+                return cb.le(movie.get(attribute), to);
+            }
+            if (to == null) {
+                return cb.ge(movie.get(attribute), from);
+            }
+            return cb.between(movie.get(attribute), from, to);
+        };
+    }
+}
@@ -1,22 +1,38 @@
 package com.example.movie.service;
 
+import com.example.movie.DTO.ActorPathDto;
 import com.example.movie.DTO.ActorRequestDto;
 import com.example.movie.DTO.ActorResponseDto;
+import com.example.movie.DTO.BulkResultDto;
+import com.example.movie.DTO.CoStarDto;
+import com.example.movie.DTO.CursorPageDto;
 import com.example.movie.DTO.MovieResponseDto;
+import com.example.movie.DTO.MultiGetDto;
+import com.example.movie.DTO.VersionView;
 import com.example.movie.entity.Actor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Optional;
 
 public interface ActorService {
     ActorResponseDto createActor(ActorRequestDto actorRequestDto);
+    BulkResultDto createActors(List<ActorRequestDto> actors, boolean atomic);
     ActorResponseDto getActorById(Long id);
-    List<ActorResponseDto> getAllActors(Integer page, Integer size);
+    Optional<VersionView> getActorVersion(Long id);
+    MultiGetDto<ActorResponseDto> getActorsByIds(List<Long> ids);
+    CursorPageDto<ActorResponseDto> getAllActors(String cursor, Integer size);
+    void writeAllActors(String cursor, Integer size, OutputStream out);
     ActorResponseDto updateActor(Long id, ActorRequestDto actorDetails);
     void deleteActor(Long id, boolean cascade);
-    Page<Actor> searchActorsByName(String name, Pageable pageable);
+    Page<ActorResponseDto> searchActorsByName(String name, Pageable pageable);
+    Page<ActorResponseDto> searchActors(String query, Pageable pageable);
     List<MovieResponseDto> getAllMoviesByActorId(Long actorId);
+    Optional<VersionView> getActorMoviesVersion(Long actorId);
+    List<CoStarDto> getCoStars(Long actorId, int limit);
+    ActorPathDto getActorPath(Long fromActorId, Long toActorId);
     // New method to get all movies for a given actor
 
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.movie.service;
+
+import com.example.movie.DTO.ChangeBatchDto;
+import com.example.movie.DTO.ChangeDto;
+
+import java.util.List;
+
+public interface ChangeService {
+
+    // Reads the changes logged after the cursor, oldest first, at most limit of them (100 by default, maximum 1000)
+    // A missing cursor starts at the beginning of the log
+    ChangeBatchDto getChanges(String since, Integer limit);
+
+    // Returns an empty batch whose cursor is the last change logged, to sync from after a full download
+    ChangeBatchDto getHead();
+
+    // Reads the changes logged after the given seq, oldest first, for the server-sent-events stream
+    List<ChangeDto> getChangesAfter(long seq, int limit);
+}
@@ -0,0 +1,12 @@
+package com.example.movie.service;
+
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    // Writes every movie with its genre and actors to the stream as NDJSON, one MovieResponseDto per line
+    void exportMoviesAsNdjson(OutputStream out);
+
+    // Writes every movie with its genre and actors to the stream as CSV with a header row
+    void exportMoviesAsCsv(OutputStream out);
+}
@@ -1,9 +1,14 @@
 package com.example.movie.service;
 
+import com.example.movie.DTO.CursorPageDto;
 import com.example.movie.DTO.GenreRequestDto;
 import com.example.movie.DTO.GenreResponseDto;
+import com.example.movie.DTO.MultiGetDto;
+import com.example.movie.DTO.VersionView;
 
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Optional;
 
 public interface GenreService {
 
@@ -15,10 +20,21 @@ public interface GenreService {
     // Takes a genre ID as input and returns GenreResponseDto with the found genre details
     GenreResponseDto getGenreById(Long id);
 
-    // Retrieves all genres, optionally with pagination
-    // Accepts page number and page size as optional input parameters
-    // Returns a list of GenreResponseDto containing details of all found genres
-    List<GenreResponseDto> getAllGenres(Integer page, Integer size);
+    // Reads the validators of a genre response, the version of the genre and its movies, without loading them
+    // Returns an empty Optional when the genre does not exist
+    Optional<VersionView> getGenreVersion(Long id);
+
+    // Retrieves several genres by their IDs at once
+    // Returns the found genres in the order of the IDs together with the IDs that were not found
+    MultiGetDto<GenreResponseDto> getGenresByIds(List<Long> ids);
+
+    // Retrieves genres one keyset page at a time
+    // Accepts the cursor returned with the previous page (null for the first page) and an optional page size
+    // Returns the page of GenreResponseDto together with the cursor of the next page
+    CursorPageDto<GenreResponseDto> getAllGenres(String cursor, Integer size);
+
+    // Writes the same page of genres as JSON straight to the stream while the rows are read, without building DTOs
+    void writeAllGenres(String cursor, Integer size, OutputStream out);
 
     // Updates an existing genre by ID using data from GenreRequestDto
     // Takes a genre ID and genreRequestDto as input, and returns GenreResponseDto with the updated genre details
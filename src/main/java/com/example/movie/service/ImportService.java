@@ -0,0 +1,13 @@
+package com.example.movie.service;
+
+import com.example.movie.DTO.ImportReportDto;
+
+import java.io.InputStream;
+
+public interface ImportService {
+
+    // Imports genres, actors and movies with their actor links from an NDJSON stream, one object per line
+    // Lines are read and written one chunk at a time, each chunk committed through the write queue
+    // Returns the per-chunk throughput and the rejected lines with the reason
+    ImportReportDto importCatalog(InputStream ndjson);
+}
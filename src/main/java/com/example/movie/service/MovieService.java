@@ -1,24 +1,40 @@
 package com.example.movie.service;
 
 import com.example.movie.DTO.ActorResponseDto;
+import com.example.movie.DTO.BulkResultDto;
+import com.example.movie.DTO.CursorPageDto;
+import com.example.movie.DTO.MovieCriteriaDto;
+import com.example.movie.DTO.MovieQueryResultDto;
 import com.example.movie.DTO.MovieRequestDto;
 import com.example.movie.DTO.MovieResponseDto;
+import com.example.movie.DTO.MultiGetDto;
+import com.example.movie.DTO.SimilarMovieDto;
+import com.example.movie.DTO.VersionView;
 import com.example.movie.entity.Movie;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Optional;
 
 public interface MovieService {
     MovieResponseDto createMovie(MovieRequestDto movieRequestDto);
+    BulkResultDto createMovies(List<MovieRequestDto> movies, boolean atomic);
     MovieResponseDto getMovieById(Long id);
-    List<MovieResponseDto> getAllMovies(Integer page, Integer size);
+    Optional<VersionView> getMovieVersion(Long id);
+    MultiGetDto<MovieResponseDto> getMoviesByIds(List<Long> ids);
+    CursorPageDto<MovieResponseDto> getAllMovies(String cursor, Integer size);
+    void writeAllMovies(String cursor, Integer size, OutputStream out);
     MovieResponseDto updateMovie(Long id, MovieRequestDto movieDetails);
     void deleteMovie(Long id, boolean cascade);
     Page<MovieResponseDto> searchMoviesByTitle(String title, Pageable pageable);
+    Page<MovieResponseDto> searchMovies(String query, Pageable pageable);
+    MovieQueryResultDto queryMovies(MovieCriteriaDto criteria, int yearBucket, Pageable pageable);
     Page<MovieResponseDto> getMoviesByReleaseYear(int releaseYear, Pageable pageable);
     List<MovieResponseDto> getMoviesByActorId(Long actorId);
     // New method to get all actors for a specific movie
     List<ActorResponseDto> getAllActorsInMovie(Long movieId);
+    List<SimilarMovieDto> getSimilarMovies(Long movieId, int limit, double yearWeight);
     Page<MovieResponseDto> getMoviesByGenreId(Long genreId, Pageable pageable);
 }
\ No newline at end of file
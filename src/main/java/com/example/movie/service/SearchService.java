@@ -0,0 +1,7 @@
+package com.example.movie.service;
+
+public interface SearchService {
+
+    // Re-indexes every movie title and actor name from the base tables
+    void rebuildIndex();
+}
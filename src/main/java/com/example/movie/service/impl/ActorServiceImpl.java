@@ -3,19 +3,56 @@ package com.example.movie.service.impl;
 import com.example.movie.DTO.*;
 import com.example.movie.entity.Actor;
 import com.example.movie.entity.Movie;
+import com.example.movie.event.ActorChangedEvent;
+import com.example.movie.event.ChangeType;
+import com.example.movie.event.MovieChangedEvent;
+import com.example.movie.event.MovieSnapshot;
+import com.example.movie.graph.CoStarGraph;
 import com.example.movie.exception.ResourceNotFoundException;
+import com.example.movie.json.ActorPageJsonWriter;
 import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.CatalogJdbcRepository;
+import com.example.movie.repository.CatalogJdbcRepository.Table;
+import com.example.movie.repository.CatalogVersionRepository;
+import com.example.movie.repository.FullTextSearchRepository;
 import com.example.movie.repository.MovieRepository;
 import com.example.movie.service.ActorService;
+import com.example.movie.util.Cursors;
+import com.example.movie.util.FullTextQueries;
+import com.example.movie.util.MultiGets;
+import com.example.movie.write.WriteQueue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "catalog.service", histogram = true)
 public class ActorServiceImpl implements ActorService {
 
     @Autowired
@@ -24,101 +61,310 @@ public class ActorServiceImpl implements ActorService {
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private FullTextSearchRepository fullTextSearchRepository;
+
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Autowired
+    private MovieDtoAssembler movieDtoAssembler;
+
+    @Autowired
+    private CatalogJdbcRepository catalogJdbcRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private WriteQueue writeQueue;
+
+    @Autowired
+    private CoStarGraph coStarGraph;
+
+    @Value("${movie.bulk.max-items:1000}")
+    private int maxBulkItems;
+
     // Method to create a new actor
     @Override
     public ActorResponseDto createActor(ActorRequestDto actorRequestDto) {
-        // Create an Actor entity from the DTO
-        Actor actor = Actor.builder()
-                .name(actorRequestDto.getName())
-                .birthDate(actorRequestDto.getBirthDate())
-                .build();
+        // Run on the writer thread, in the transaction of its write group
+        return writeQueue.submit(() -> {
+            // Create an Actor entity from the DTO
+            Actor actor = Actor.builder()
+                    .name(actorRequestDto.getName())
+                    .birthDate(actorRequestDto.getBirthDate())
+                    .build();
 
-        // Check if the provided movie IDs are valid and set movies to the actor
-        List<Movie> movies = new ArrayList<>();
-        if (actorRequestDto.getMovieIds() != null && !actorRequestDto.getMovieIds().isEmpty()) {
-            movies = movieRepository.findAllById(actorRequestDto.getMovieIds());
-            if (movies.size() != actorRequestDto.getMovieIds().size()) {
-                // Throw exception if one or more movie IDs are not found
-                throw new ResourceNotFoundException("One or more movies not found");
+            // Check if the provided movie IDs are valid and set movies to the actor
+            List<Movie> movies = new ArrayList<>();
+            if (actorRequestDto.getMovieIds() != null && !actorRequestDto.getMovieIds().isEmpty()) {
+                movies = movieRepository.findAllById(actorRequestDto.getMovieIds());
+                if (movies.size() != actorRequestDto.getMovieIds().size()) {
+                    // Throw exception if one or more movie IDs are not found
+                    throw new ResourceNotFoundException("One or more movies not found");
+                }
             }
-        }
 
-        actor.setMovies(movies);
+            actor.setMovies(movies);
 
-        // Save the actor entity to the database and convert it to a DTO
-        return convertToDto(actorRepository.save(actor));
+            // Save the actor entity to the database and convert it to a DTO
+            Actor savedActor = actorRepository.save(actor);
+            publishActorChanged(ChangeType.CREATED, savedActor);
+            return convertToDto(savedActor);
+        });
+    }
+
+    // Method to create many actors in one transaction: the movies of all of them are checked with one query
+    // and the rows are inserted with JDBC batches
+    @Override
+    public BulkResultDto createActors(List<ActorRequestDto> actors, boolean atomic) {
+        BulkResults.checkSize(actors, maxBulkItems);
+        BulkResultDto result;
+        try {
+            // Run on the writer thread, in the transaction of its write group
+            result = writeQueue.submit(() -> insertActors(actors, atomic));
+        } catch (DataAccessException ex) {
+            result = BulkResults.rolledBack(atomic, actors.size(), ex);
+        }
+        return result;
     }
 
     // Method to get an actor by their ID
     @Override
+    @Transactional(readOnly = true)
     public ActorResponseDto getActorById(Long id) {
-        // Get actor from the database or throw exception if not found
-        Actor actor = getActorByIdFromDb(id);
-        // Convert the actor entity to a DTO and return
+        // Read the actor projection or throw exception if not found
+        ActorView actor = actorRepository.findViewById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Actor not found"));
+        // Convert the projection to a DTO and return
         return convertToDto(actor);
     }
 
-    // Method to get all actors with optional pagination
+    // Method to read the validators of an actor response from the version of the actor
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VersionView> getActorVersion(Long id) {
+        return catalogVersionRepository.findActorVersion(id);
+    }
+
+    // Method to get several actors by their IDs, in the order of the IDs and with the IDs that were not found
     @Override
-    public List<ActorResponseDto> getAllActors(Integer page, Integer size) {
-        List<Actor> actors = new ArrayList<>();
-        if (page != null && size != null) {
-            // Calculate offset for pagination
-            int offset = (page - 1) * size;
-            // Get actors with pagination
-            actors = actorRepository.findAllWithPagination(offset, size);
-        } else {
-            // Get all actors without pagination
-            actors = actorRepository.findAll();
+    @Transactional(readOnly = true)
+    public MultiGetDto<ActorResponseDto> getActorsByIds(List<Long> ids) {
+        List<Long> actorIds = MultiGets.ids(ids);
+        // Read all actor projections with one IN query
+        MultiGetDto<ActorView> actors = MultiGets.result(actorIds, actorRepository.findViewsByIdIn(actorIds), ActorView::id);
+        return new MultiGetDto<>(
+                actors.getContent().stream().map(this::convertToDto).collect(Collectors.toList()),
+                actors.getMissing());
+    }
+
+    // Method to get one keyset page of actors
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ActorResponseDto> getAllActors(String cursor, Integer size) {
+        int limit = Cursors.pageSize(size);
+        // Seek past the cursor through the primary key instead of skipping rows with OFFSET
+        List<ActorView> actors = actorRepository.findViewsAfter(Cursors.decode(cursor), Limit.of(limit + 1));
+        CursorPageDto<ActorView> actorPage = Cursors.page(actors, limit, ActorView::id);
+        // Convert the page of actors to DTOs and return it with the next cursor
+        return new CursorPageDto<>(
+                actorPage.getContent().stream().map(this::convertToDto).collect(Collectors.toList()),
+                actorPage.getNext());
+    }
+
+    // Method to write the same keyset page of actors as JSON while the rows are read, without building DTOs
+    @Override
+    @Transactional(readOnly = true)
+    public void writeAllActors(String cursor, Integer size, OutputStream out) {
+        int limit = Cursors.pageSize(size);
+        long after = Cursors.decode(cursor);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            ActorPageJsonWriter writer = new ActorPageJsonWriter(generator, limit);
+            catalogJdbcRepository.streamActorPage(after, limit + 1, writer);
+            writer.finish();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write the actors", ex);
         }
-        // Convert the list of actors to DTOs and return
-        return actors.stream().map(this::convertToDto).collect(Collectors.toList());
     }
 
     // Method to update an actor's details
     @Override
     public ActorResponseDto updateActor(Long id, ActorRequestDto actorDetails) {
-        // Get the actor by ID or throw exception if not found
-        Actor actor = getActorByIdFromDb(id);
+        // Run on the writer thread, in the transaction of its write group
+        return writeQueue.submit(() -> {
+            // Get the actor by ID or throw exception if not found
+            Actor actor = getActorByIdFromDb(id);
 
-        // Update actor's name if provided
-        if (actorDetails.getName() != null) {
-            actor.setName(actorDetails.getName());
-        }
-        // Update actor's birth date if provided
-        if (actorDetails.getBirthDate() != null) {
-            actor.setBirthDate(actorDetails.getBirthDate());
-        }
+            // Update actor's name if provided
+            if (actorDetails.getName() != null) {
+                actor.setName(actorDetails.getName());
+            }
+            // Update actor's birth date if provided
+            if (actorDetails.getBirthDate() != null) {
+                actor.setBirthDate(actorDetails.getBirthDate());
+            }
 
-        // Update actor's movies if movie IDs are provided
-        List<Movie> movies = movieRepository.findAllById(actorDetails.getMovieIds());
-        if (movies.isEmpty()) {
-            throw new ResourceNotFoundException("Movie not found");
-        }
-        actor.setMovies(movies);
+            // Update actor's movies if movie IDs are provided
+            List<Movie> movies = movieRepository.findAllById(actorDetails.getMovieIds());
+            if (movies.isEmpty()) {
+                throw new ResourceNotFoundException("Movie not found");
+            }
+            actor.setMovies(movies);
 
-        // Save the updated actor to the database and convert it to a DTO
-        return convertToDto(actorRepository.save(actor));
+            // Save the updated actor to the database and convert it to a DTO
+            Actor savedActor = actorRepository.save(actor);
+            publishActorChanged(ChangeType.UPDATED, savedActor);
+            return convertToDto(savedActor);
+        });
     }
 
     // Method to delete an actor by ID, with an option to cascade delete
     @Override
     public void deleteActor(Long id, boolean cascade) {
-        // Get the actor by ID or throw exception if not found
-        Actor actor = getActorByIdFromDb(id);
-        // If cascade is false and the actor is associated with movies, throw an exception
-        if (!cascade && (actor.getMovies() != null && !actor.getMovies().isEmpty())) {
-            throw new RuntimeException("Cannot delete actor '" + actor.getName() + "' because they are associated with "
-                    + actor.getMovies().size() + " movies.");
-        }
-        // Delete the actor from the database
-        actorRepository.delete(actor);
+        // Run on the writer thread, in the transaction of its write group
+        writeQueue.submit(() -> {
+            // Get the actor by ID or throw exception if not found
+            Actor actor = getActorByIdFromDb(id);
+            // If cascade is false and the actor is associated with movies, throw an exception
+            if (!cascade && (actor.getMovies() != null && !actor.getMovies().isEmpty())) {
+                throw new RuntimeException("Cannot delete actor '" + actor.getName() + "' because they are associated with "
+                        + actor.getMovies().size() + " movies.");
+            }
+            // Delete the actor from the database
+            actorRepository.delete(actor);
+            publishActorChanged(ChangeType.DELETED, actor);
+        });
     }
 
     // Method to search actors by name (case insensitive) with pagination support
     @Override
-    public Page<Actor> searchActorsByName(String name, Pageable pageable) {
-        return actorRepository.findByNameContainingIgnoreCase(name, pageable);
+    @Transactional(readOnly = true)
+    public Page<ActorResponseDto> searchActorsByName(String name, Pageable pageable) {
+        return actorRepository.findViewsByNameContaining(name.toLowerCase(), pageable).map(this::convertToDto);
+    }
+
+    // Method to search actors through the full-text index of names, every word matching as a prefix
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ActorResponseDto> searchActors(String query, Pageable pageable) {
+        String match = FullTextQueries.prefixMatch(query);
+        if (match == null) {
+            return Page.empty(pageable);
+        }
+        Page<Long> idPage = fullTextSearchRepository.findActorIds(match, pageable);
+        Map<Long, ActorView> actorsById = idPage.isEmpty() ? Map.of()
+                : actorRepository.findViewsByIdIn(idPage.getContent()).stream()
+                        .collect(Collectors.toMap(ActorView::id, Function.identity()));
+        // Keep the rank order of the IDs
+        List<ActorResponseDto> actors = idPage.getContent().stream()
+                .map(actorsById::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        return new PageImpl<>(actors, pageable, idPage.getTotalElements());
+    }
+
+    // Helper method to validate the actors of a bulk request and insert the valid ones, all of them or none when atomic
+    private BulkResultDto insertActors(List<ActorRequestDto> actors, boolean atomic) {
+        String[] errors = new String[actors.size()];
+        Set<Long> movieIds = new HashSet<>();
+        for (int i = 0; i < actors.size(); i++) {
+            errors[i] = validateActor(actors.get(i));
+            if (errors[i] == null && actors.get(i).getMovieIds() != null) {
+                movieIds.addAll(actors.get(i).getMovieIds());
+            }
+        }
+
+        // One lookup for the movies of every item
+        Set<Long> existingMovies = movieIds.isEmpty() ? Set.of()
+                : catalogJdbcRepository.findExistingIds(Table.MOVIES, movieIds);
+        for (int i = 0; i < actors.size(); i++) {
+            ActorRequestDto actor = actors.get(i);
+            if (errors[i] == null && actor.getMovieIds() != null && !existingMovies.containsAll(actor.getMovieIds())) {
+                errors[i] = "Movies not found with IDs: " + actor.getMovieIds().stream()
+                        .filter(id -> !existingMovies.contains(id)).sorted().toList();
+            }
+        }
+        if (atomic && BulkResults.anyRejected(errors)) {
+            return BulkResults.of(true, errors, null);
+        }
+
+        // Only the writer thread inserts, so the IDs after the current maximum are free
+        long[] ids = new long[actors.size()];
+        long nextId = catalogJdbcRepository.maxId(Table.ACTORS) + 1;
+        List<ImportLineDto> rows = new ArrayList<>();
+        List<long[]> links = new ArrayList<>();
+        Map<Long, List<Long>> addedActors = new LinkedHashMap<>();
+        for (int i = 0; i < actors.size(); i++) {
+            ActorRequestDto actor = actors.get(i);
+            if (errors[i] != null) {
+                continue;
+            }
+            long id = nextId++;
+            ids[i] = id;
+            rows.add(ImportLineDto.builder()
+                    .type("actor")
+                    .id(id)
+                    .name(actor.getName())
+                    .birthDate(actor.getBirthDate())
+                    .build());
+            if (actor.getMovieIds() != null) {
+                new LinkedHashSet<>(actor.getMovieIds()).forEach(movieId -> {
+                    links.add(new long[]{movieId, id});
+                    addedActors.computeIfAbsent(movieId, key -> new ArrayList<>()).add(id);
+                });
+            }
+        }
+        // The casts of the linked movies before the links are added, with one query
+        Map<Long, MovieSnapshot> linkedMovies = addedActors.isEmpty() ? Map.of()
+                : catalogJdbcRepository.findMovieSnapshots(addedActors.keySet());
+        catalogJdbcRepository.insertActors(rows);
+        if (!links.isEmpty()) {
+            catalogJdbcRepository.insertMovieActors(links);
+        }
+
+        // The rows were written through JDBC, so the events the entity write paths would publish are published here;
+        // they are delivered after the commit of the write group, like the ones of createActor
+        for (ImportLineDto row : rows) {
+            eventPublisher.publishEvent(new ActorChangedEvent(ChangeType.CREATED, row.getId(), row.getName(),
+                    row.getBirthDate()));
+        }
+        linkedMovies.forEach((movieId, before) -> {
+            List<Long> cast = new ArrayList<>(before.actorIds());
+            cast.addAll(addedActors.get(movieId));
+            MovieSnapshot after = new MovieSnapshot(movieId, before.title(), before.releaseYear(), before.duration(),
+                    before.genreId(), List.copyOf(cast));
+            eventPublisher.publishEvent(new MovieChangedEvent(ChangeType.UPDATED, before, after));
+        });
+        return BulkResults.of(atomic, errors, ids);
+    }
+
+    // Helper method to check an actor of a bulk request against the constraints of the entity, null when it is valid
+    private static String validateActor(ActorRequestDto actor) {
+        if (actor == null) {
+            return "Actor is required";
+        }
+        if (BulkResults.isBlank(actor.getName())) {
+            return "Actor name is required";
+        }
+        if (actor.getBirthDate() == null || !actor.getBirthDate().isBefore(LocalDate.now())) {
+            return "Birth date must be in the past";
+        }
+        if (actor.getMovieIds() != null && actor.getMovieIds().contains(null)) {
+            return "Movie IDs must not be null";
+        }
+        return null;
+    }
+
+    // Helper method to tell the caches and indexes about a committed actor change
+    private void publishActorChanged(ChangeType type, Actor actor) {
+        eventPublisher.publishEvent(new ActorChangedEvent(type, actor.getId(), actor.getName(), actor.getBirthDate()));
     }
 
     // Helper method to get actor by ID or throw ResourceNotFoundException
@@ -128,17 +374,85 @@ public class ActorServiceImpl implements ActorService {
 
     // Method to get all movies an actor has appeared in
     @Override
+    @Transactional(readOnly = true)
     public List<MovieResponseDto> getAllMoviesByActorId(Long actorId) {
-        // Get the actor by ID or throw an exception if not found
-        Actor actor = getActorByIdFromDb(actorId);
-        // Convert the list of movies to MovieResponseDto and return it
-        return actor.getMovies().stream()
-                .map(this::convertMovieToDto)
+        // Check that the actor exists or throw an exception if not found
+        if (!actorRepository.existsById(actorId)) {
+            throw new ResourceNotFoundException("Actor not found");
+        }
+        // Read the movies through projections and convert them to MovieResponseDto
+        return movieDtoAssembler.assemble(movieRepository.findIdsByActorId(actorId));
+    }
+
+    // Method to read the validators of an actor's movie list from the versions of the movies and what they embed
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VersionView> getActorMoviesVersion(Long actorId) {
+        return catalogVersionRepository.findActorMoviesVersion(actorId);
+    }
+
+    // Method to get the actors who share the most movies with an actor, from the in-memory co-star graph
+    @Override
+    @Transactional(readOnly = true)
+    public List<CoStarDto> getCoStars(Long actorId, int limit) {
+        List<CoStarGraph.CoStar> coStars = coStarGraph.coStars(actorId, limit);
+        // Read the names of the actor and the co-stars with one IN query, which also tells whether the actor exists
+        Set<Long> actorIds = new HashSet<>();
+        actorIds.add(actorId);
+        coStars.forEach(coStar -> actorIds.add(coStar.actorId()));
+        Map<Long, String> names = actorNames(actorIds);
+        if (!names.containsKey(actorId)) {
+            throw new ResourceNotFoundException("Actor not found");
+        }
+        return coStars.stream()
+                .filter(coStar -> names.containsKey(coStar.actorId()))
+                .map(coStar -> CoStarDto.builder()
+                        .id(coStar.actorId())
+                        .name(names.get(coStar.actorId()))
+                        .sharedMovies(coStar.sharedMovies())
+                        .build())
                 .collect(Collectors.toList());
     }
 
+    // Method to get a shortest chain of co-stars between two actors, with the movies linking them
+    @Override
+    @Transactional(readOnly = true)
+    public ActorPathDto getActorPath(Long fromActorId, Long toActorId) {
+        List<CoStarGraph.PathStep> path = coStarGraph.shortestPath(fromActorId, toActorId);
+        // Read the names of the actors and the titles of the movies of the path with one IN query each
+        Set<Long> actorIds = new HashSet<>(List.of(fromActorId, toActorId));
+        path.forEach(step -> actorIds.add(step.actorId()));
+        Map<Long, String> names = actorNames(actorIds);
+        if (!names.containsKey(fromActorId) || !names.containsKey(toActorId)) {
+            throw new ResourceNotFoundException("Actor not found");
+        }
+        List<Long> movieIds = path.stream().map(CoStarGraph.PathStep::movieId).filter(Objects::nonNull).toList();
+        Map<Long, String> titles = movieIds.isEmpty() ? Map.of()
+                : movieRepository.findViewsByIdIn(movieIds).stream()
+                        .collect(Collectors.toMap(MovieView::id, MovieView::title));
+        return ActorPathDto.builder()
+                .from(fromActorId)
+                .to(toActorId)
+                .connected(!path.isEmpty())
+                .degrees(path.isEmpty() ? null : path.size() - 1)
+                .steps(path.stream()
+                        .map(step -> ActorPathStepDto.builder()
+                                .actorId(step.actorId())
+                                .actorName(names.get(step.actorId()))
+                                .movieId(step.movieId())
+                                .movieTitle(step.movieId() != null ? titles.get(step.movieId()) : null)
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private Map<Long, String> actorNames(Collection<Long> actorIds) {
+        return actorRepository.findViewsByIdIn(actorIds).stream()
+                .collect(Collectors.toMap(ActorView::id, ActorView::name));
+    }
+
     // Helper method to convert an Actor entity to ActorResponseDto
-    private ActorResponseDto convertToDto(Actor actor) {
+    ActorResponseDto convertToDto(Actor actor) {
         return ActorResponseDto.builder()
                 .id(actor.getId())
                 .name(actor.getName())
@@ -146,9 +460,13 @@ public class ActorServiceImpl implements ActorService {
                 .build();
     }
 
-    // Helper method to convert a Movie entity to MovieResponseDto
-    private MovieResponseDto convertMovieToDto(Movie movie) {
-        return movieResponseDto(movie);
+    // Helper method to convert an actor projection to ActorResponseDto
+    private ActorResponseDto convertToDto(ActorView actor) {
+        return ActorResponseDto.builder()
+                .id(actor.id())
+                .name(actor.name())
+                .birthDate(actor.birthDate())
+                .build();
     }
 
     // Static helper method to create a MovieResponseDto from a Movie entity
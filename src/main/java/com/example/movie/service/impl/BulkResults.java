@@ -0,0 +1,67 @@
+package com.example.movie.service.impl;
+
+import com.example.movie.DTO.BulkItemDto;
+import com.example.movie.DTO.BulkResultDto;
+import org.springframework.dao.DataAccessException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Per-item results of the bulk create endpoints. An item is either created with its generated ID or carries the
+// reason it was not; in atomic mode a single rejected item leaves every other item uncreated as well.
+final class BulkResults {
+
+    static final String NOT_CREATED = "Not created: the request is all-or-nothing and another item was rejected";
+
+    private BulkResults() {
+    }
+
+    // Validate the size of a bulk request before it is queued for the writer thread
+    static void checkSize(List<?> items, int maxItems) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one item is required");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " items can be created at once");
+        }
+    }
+
+    static boolean anyRejected(String[] errors) {
+        for (String error : errors) {
+            if (error != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The items are rejected where errors holds a reason, created with the ID in ids otherwise; ids is null
+    // when nothing was written
+    static BulkResultDto of(boolean atomic, String[] errors, long[] ids) {
+        List<BulkItemDto> items = new ArrayList<>(errors.length);
+        int created = 0;
+        for (int i = 0; i < errors.length; i++) {
+            if (errors[i] != null) {
+                items.add(new BulkItemDto(i, null, errors[i]));
+            } else if (ids == null) {
+                items.add(new BulkItemDto(i, null, NOT_CREATED));
+            } else {
+                items.add(new BulkItemDto(i, ids[i], null));
+                created++;
+            }
+        }
+        return new BulkResultDto(atomic, created, errors.length - created, items);
+    }
+
+    // The transaction of the request failed, so none of its items was written
+    static BulkResultDto rolledBack(boolean atomic, int size, DataAccessException ex) {
+        String[] errors = new String[size];
+        Arrays.fill(errors, "Rolled back: " + ex.getMostSpecificCause().getMessage());
+        return of(atomic, errors, null);
+    }
+
+    static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
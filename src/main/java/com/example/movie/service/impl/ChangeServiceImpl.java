@@ -0,0 +1,57 @@
+package com.example.movie.service.impl;
+
+import com.example.movie.DTO.ChangeBatchDto;
+import com.example.movie.DTO.ChangeDto;
+import com.example.movie.repository.ChangeLogRepository;
+import com.example.movie.service.ChangeService;
+import com.example.movie.util.Cursors;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Timed(value = "catalog.service", histogram = true)
+public class ChangeServiceImpl implements ChangeService {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    // Method to read one batch of the change log after a cursor
+    @Override
+    @Transactional(readOnly = true)
+    public ChangeBatchDto getChanges(String since, Integer limit) {
+        long after = Cursors.decode(since);
+        int max = limit == null ? DEFAULT_LIMIT : limit;
+        if (max < 1 || max > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        // One extra row only tells that more changes follow
+        List<ChangeDto> changes = changeLogRepository.findAfter(after, max + 1);
+        boolean hasMore = changes.size() > max;
+        if (hasMore) {
+            changes = changes.subList(0, max);
+        }
+        long last = changes.isEmpty() ? after : changes.get(changes.size() - 1).getSeq();
+        return new ChangeBatchDto(changes, Cursors.encode(last), hasMore);
+    }
+
+    // Method to get the cursor of the last change logged
+    @Override
+    @Transactional(readOnly = true)
+    public ChangeBatchDto getHead() {
+        return new ChangeBatchDto(List.of(), Cursors.encode(changeLogRepository.findLastSeq()), false);
+    }
+
+    // Method to read the changes after a seq for the stream
+    @Override
+    @Transactional(readOnly = true)
+    public List<ChangeDto> getChangesAfter(long seq, int limit) {
+        return changeLogRepository.findAfter(seq, limit);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.movie.service.impl;
+
+import com.example.movie.DTO.MovieResponseActorDto;
+import com.example.movie.DTO.MovieResponseDto;
+import com.example.movie.repository.CatalogJdbcRepository;
+import com.example.movie.service.ExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+
+@Service
+@Timed(value = "catalog.service", histogram = true)
+public class ExportServiceImpl implements ExportService {
+
+    private static final String CSV_HEADER = "id,title,release_year,duration,genre_id,genre_name,actor_ids,actor_names\n";
+
+    @Autowired
+    private CatalogJdbcRepository catalogJdbcRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Method to export the catalog as NDJSON, each movie is written as soon as it was read
+    @Override
+    @Transactional(readOnly = true)
+    public void exportMoviesAsNdjson(OutputStream out) {
+        OutputStream buffered = new BufferedOutputStream(out);
+        try {
+            catalogJdbcRepository.streamMovies(movie -> {
+                try {
+                    buffered.write(objectMapper.writeValueAsBytes(movie));
+                    buffered.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            buffered.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write the export", ex);
+        }
+    }
+
+    // Method to export the catalog as CSV, the actors of a movie are joined with '|' in one column
+    @Override
+    @Transactional(readOnly = true)
+    public void exportMoviesAsCsv(OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            writer.write(CSV_HEADER);
+            catalogJdbcRepository.streamMovies(movie -> {
+                try {
+                    writer.write(csvRow(movie));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write the export", ex);
+        }
+    }
+
+    // Helper method to format one movie as a CSV row
+    private static String csvRow(MovieResponseDto movie) {
+        String actorIds = movie.getActors().stream()
+                .map(actor -> String.valueOf(actor.getId()))
+                .collect(Collectors.joining("|"));
+        String actorNames = movie.getActors().stream()
+                .map(MovieResponseActorDto::getName)
+                .collect(Collectors.joining("|"));
+        return movie.getId() + ","
+                + csv(movie.getTitle()) + ","
+                + movie.getReleaseYear() + ","
+                + movie.getDuration() + ","
+                + movie.getGenre().getId() + ","
+                + csv(movie.getGenre().getName()) + ","
+                + actorIds + ","
+                + csv(actorNames) + "\n";
+    }
+
+    // Quote a value when it contains a separator, a quote or a line break, doubling the quotes inside (RFC 4180)
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,105 +1,198 @@
 package com.example.movie.service.impl;
 
+import com.example.movie.DTO.CursorPageDto;
+import com.example.movie.DTO.GenreMovieView;
 import com.example.movie.DTO.GenreRequestDto;
 import com.example.movie.DTO.GenreResponseDto;
 import com.example.movie.DTO.GenreResponseMovieDto;
+import com.example.movie.DTO.GenreView;
+import com.example.movie.DTO.MultiGetDto;
+import com.example.movie.DTO.VersionView;
 import com.example.movie.entity.Genre;
 import com.example.movie.entity.Movie;
+import com.example.movie.event.ChangeType;
+import com.example.movie.event.GenreChangedEvent;
+import com.example.movie.event.MovieChangedEvent;
+import com.example.movie.event.MovieSnapshot;
 import com.example.movie.exception.ResourceNotFoundException;
+import com.example.movie.json.GenrePageJsonWriter;
+import com.example.movie.repository.CatalogJdbcRepository;
+import com.example.movie.repository.CatalogVersionRepository;
 import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
 import com.example.movie.service.GenreService;
+import com.example.movie.util.Cursors;
+import com.example.movie.util.MultiGets;
+import com.example.movie.write.WriteQueue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "catalog.service", histogram = true)
 public class GenreServiceImpl implements GenreService {
 
     @Autowired
     private GenreRepository genreRepository;
 
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Autowired
+    private CatalogJdbcRepository catalogJdbcRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private WriteQueue writeQueue;
+
     // Method to create a new Genre
     @Override
     public GenreResponseDto createGenre(GenreRequestDto genreRequestDto) {
-        // Creating Genre entity from GenreRequestDto
-        Genre genre = new Genre();
-        genre.setName(genreRequestDto.getName());
+        // Run on the writer thread, in the transaction of its write group
+        return writeQueue.submit(() -> {
+            // Creating Genre entity from GenreRequestDto
+            Genre genre = new Genre();
+            genre.setName(genreRequestDto.getName());
 
-        // Saving the Genre entity and converting to GenreResponseDto
-        return convertToDto(genreRepository.save(genre));
+            // Saving the Genre entity and converting to GenreResponseDto
+            Genre savedGenre = genreRepository.save(genre);
+            eventPublisher.publishEvent(new GenreChangedEvent(ChangeType.CREATED, savedGenre.getId(), savedGenre.getName()));
+            return convertToDto(savedGenre);
+        });
     }
 
     // Method to retrieve a Genre by its ID
     @Override
+    @Transactional(readOnly = true)
     public GenreResponseDto getGenreById(Long id) {
-        // Fetching Genre by ID or throwing exception if not found
-        Genre genre = genreRepository.findById(id)
+        // Reading the Genre projection by ID or throwing exception if not found
+        GenreView genre = genreRepository.findViewById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id " + id));
 
-        // Converting the Genre entity to GenreResponseDto
-        return convertToDto(genre);
+        // Converting the projection and its movies to GenreResponseDto
+        return convertToDtos(List.of(genre)).get(0);
     }
 
-    // Method to get all genres, with optional pagination
+    // Method to read the validators of a genre response from the versions of the genre and its movies
     @Override
-    public List<GenreResponseDto> getAllGenres(Integer page, Integer size) {
-        // List to store all retrieved genres
-        List<Genre> genres;
-
-        // If pagination parameters are provided, get a page of genres
-        if (page != null && size != null) {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Genre> genrePage = genreRepository.findAll(pageable);
-            genres = genrePage.getContent();
-        } else {
-            // If no pagination, retrieve all genres
-            genres = genreRepository.findAll();
-        }
+    @Transactional(readOnly = true)
+    public Optional<VersionView> getGenreVersion(Long id) {
+        return catalogVersionRepository.findGenreVersion(id);
+    }
 
-        // Convert the list of Genre entities to GenreResponseDto
-        return genres.stream().map(this::convertToDto).collect(Collectors.toList());
+    // Method to get several genres by their IDs, in the order of the IDs and with the IDs that were not found
+    @Override
+    @Transactional(readOnly = true)
+    public MultiGetDto<GenreResponseDto> getGenresByIds(List<Long> ids) {
+        List<Long> genreIds = MultiGets.ids(ids);
+        // One IN query for the genres, then one IN query for the movies of all of them
+        MultiGetDto<GenreView> genres = MultiGets.result(genreIds, genreRepository.findViewsByIdIn(genreIds), GenreView::id);
+        return new MultiGetDto<>(convertToDtos(genres.getContent()), genres.getMissing());
     }
 
-    // Method to update the details of an existing Genre
+    // Method to get one keyset page of genres
     @Override
-    public GenreResponseDto updateGenre(Long id, GenreRequestDto genreRequestDto) {
-        // Fetching the Genre entity by ID or throwing an exception if not found
-        Genre genre = genreRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id " + id));
+    @Transactional(readOnly = true)
+    public CursorPageDto<GenreResponseDto> getAllGenres(String cursor, Integer size) {
+        int limit = Cursors.pageSize(size);
 
-        // Update the name of the Genre if provided in request DTO
-        if (genreRequestDto.getName() != null) {
-            genre.setName(genreRequestDto.getName());
+        // Seek past the cursor through the primary key instead of skipping rows with OFFSET
+        List<GenreView> genres = genreRepository.findViewsAfter(Cursors.decode(cursor), Limit.of(limit + 1));
+        CursorPageDto<GenreView> genrePage = Cursors.page(genres, limit, GenreView::id);
+
+        // Convert the page of projections to GenreResponseDto and keep the next cursor
+        return new CursorPageDto<>(convertToDtos(genrePage.getContent()), genrePage.getNext());
+    }
+
+    // Method to write the same keyset page of genres as JSON while the rows are read, without building DTOs
+    @Override
+    @Transactional(readOnly = true)
+    public void writeAllGenres(String cursor, Integer size, OutputStream out) {
+        int limit = Cursors.pageSize(size);
+        long after = Cursors.decode(cursor);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            GenrePageJsonWriter writer = new GenrePageJsonWriter(generator, limit);
+            catalogJdbcRepository.streamGenrePage(after, limit + 1, writer);
+            writer.finish();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write the genres", ex);
         }
+    }
 
-        // Save the updated Genre and convert it to GenreResponseDto
-        return convertToDto(genreRepository.save(genre));
+    // Method to update the details of an existing Genre
+    @Override
+    public GenreResponseDto updateGenre(Long id, GenreRequestDto genreRequestDto) {
+        // Run on the writer thread, in the transaction of its write group
+        return writeQueue.submit(() -> {
+            // Fetching the Genre entity by ID or throwing an exception if not found
+            Genre genre = genreRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id " + id));
+
+            // Update the name of the Genre if provided in request DTO
+            if (genreRequestDto.getName() != null) {
+                genre.setName(genreRequestDto.getName());
+            }
+
+            // Save the updated Genre and convert it to GenreResponseDto
+            Genre savedGenre = genreRepository.save(genre);
+            eventPublisher.publishEvent(new GenreChangedEvent(ChangeType.UPDATED, savedGenre.getId(), savedGenre.getName()));
+            return convertToDto(savedGenre);
+        });
     }
 
     // Method to delete a genre, with an option to cascade delete movies associated with the genre
     @Override
     public void deleteGenre(Long id, boolean cascade) {
-        // Fetch the Genre entity by ID or throw exception if not found
-        Genre genre = genreRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id " + id));
-
-        // If cascade delete is not allowed and there are associated movies, throw an exception
-        if (!cascade && (genre.getMovies() != null && !genre.getMovies().isEmpty())) {
-            throw new RuntimeException("Cannot delete genre '" + genre.getName() + "' because it has "
-                    + genre.getMovies().size() + " associated movies.");
-        }
-
-        // Delete the Genre entity
-        genreRepository.delete(genre);
+        // Run on the writer thread, in the transaction of its write group
+        writeQueue.submit(() -> {
+            // Fetch the Genre entity by ID or throw exception if not found
+            Genre genre = genreRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id " + id));
+
+            // If cascade delete is not allowed and there are associated movies, throw an exception
+            if (!cascade && (genre.getMovies() != null && !genre.getMovies().isEmpty())) {
+                throw new RuntimeException("Cannot delete genre '" + genre.getName() + "' because it has "
+                        + genre.getMovies().size() + " associated movies.");
+            }
+
+            // Snapshot the movies removed by the cascade before deleting them with the Genre entity
+            List<MovieSnapshot> deletedMovies = genre.getMovies() == null ? List.of()
+                    : genre.getMovies().stream().map(MovieSnapshot::of).collect(Collectors.toList());
+
+            // Delete the Genre entity
+            genreRepository.delete(genre);
+            deletedMovies.forEach(movie ->
+                    eventPublisher.publishEvent(new MovieChangedEvent(ChangeType.DELETED, movie, null)));
+            eventPublisher.publishEvent(new GenreChangedEvent(ChangeType.DELETED, genre.getId(), genre.getName()));
+        });
     }
 
     // Helper method to convert Genre entity to GenreResponseDto
-    private GenreResponseDto convertToDto(Genre genre) {
+    GenreResponseDto convertToDto(Genre genre) {
         return GenreResponseDto.builder()
                 .id(genre.getId())
                 .name(genre.getName())
@@ -109,6 +202,31 @@ public class GenreServiceImpl implements GenreService {
                 .build();
     }
 
+    // Helper method to convert genre projections to GenreResponseDto, reading the movies of all genres in one query
+    private List<GenreResponseDto> convertToDtos(List<GenreView> genres) {
+        if (genres.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<GenreResponseMovieDto>> moviesByGenreId = new HashMap<>();
+        List<Long> genreIds = genres.stream().map(GenreView::id).collect(Collectors.toList());
+        for (GenreMovieView movie : movieRepository.findGenreMovieViewsByGenreIdIn(genreIds)) {
+            moviesByGenreId.computeIfAbsent(movie.genreId(), id -> new ArrayList<>())
+                    .add(GenreResponseMovieDto.builder()
+                            .id(movie.id())
+                            .title(movie.title())
+                            .releaseYear(movie.releaseYear())
+                            .duration(movie.duration())
+                            .build());
+        }
+        return genres.stream()
+                .map(genre -> GenreResponseDto.builder()
+                        .id(genre.id())
+                        .name(genre.name())
+                        .movies(moviesByGenreId.getOrDefault(genre.id(), new ArrayList<>()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     // Helper method to convert Movie entity to GenreResponseMovieDto
     private GenreResponseMovieDto convertToMovieDto(Movie movie) {
         return GenreResponseMovieDto.builder()
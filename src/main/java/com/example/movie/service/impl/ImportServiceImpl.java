@@ -0,0 +1,316 @@
+package com.example.movie.service.impl;
+
+import com.example.movie.DTO.ImportChunkDto;
+import com.example.movie.DTO.ImportLineDto;
+import com.example.movie.DTO.ImportReportDto;
+import com.example.movie.DTO.RejectedLineDto;
+import com.example.movie.entity.Movie;
+import com.example.movie.event.CatalogImportedEvent;
+import com.example.movie.repository.CatalogJdbcRepository;
+import com.example.movie.repository.CatalogJdbcRepository.Table;
+import com.example.movie.service.ImportService;
+import com.example.movie.write.WriteQueue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Timed(value = "catalog.service", histogram = true)
+public class ImportServiceImpl implements ImportService {
+
+    // Only the first rejected lines are listed in the report, all of them are counted
+    private static final int MAX_LISTED_REJECTS = 1000;
+
+    @Autowired
+    private CatalogJdbcRepository catalogJdbcRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WriteQueue writeQueue;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${movie.import.chunk-size:5000}")
+    private int chunkSize;
+
+    private record Line(long number, ImportLineDto row) {
+    }
+
+    private record ChunkCounts(int genres, int actors, int movies, int links) {
+
+        static final ChunkCounts NONE = new ChunkCounts(0, 0, 0, 0);
+    }
+
+    // Method to import an NDJSON catalog chunk by chunk
+    @Override
+    public ImportReportDto importCatalog(InputStream ndjson) {
+        long started = System.nanoTime();
+        ImportReportDto report = ImportReportDto.builder()
+                .chunks(new ArrayList<>())
+                .rejectedLines(new ArrayList<>())
+                .build();
+        ObjectReader reader = objectMapper.readerFor(ImportLineDto.class);
+
+        // Read line by line, so at most one chunk of the body is held in memory
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            List<Line> chunk = new ArrayList<>();
+            long number = 0;
+            String text;
+            while ((text = in.readLine()) != null) {
+                number++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    ImportLineDto row = parse(reader, text);
+                    if (row == null) {
+                        reject(report, new RejectedLineDto(number, "Line must be a JSON object"));
+                        continue;
+                    }
+                    chunk.add(new Line(number, row));
+                } catch (JsonProcessingException ex) {
+                    reject(report, new RejectedLineDto(number, "Malformed JSON: " + ex.getOriginalMessage()));
+                }
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, report);
+                    chunk = new ArrayList<>();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, report);
+            }
+            report.setLines(number);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read the import body", ex);
+        } finally {
+            // Committed chunks stay, even when reading the rest of the body failed
+            if (report.getGenres() + report.getActors() + report.getMovies() > 0) {
+                eventPublisher.publishEvent(
+                        new CatalogImportedEvent(report.getGenres(), report.getActors(), report.getMovies()));
+            }
+        }
+        report.setMillis((System.nanoTime() - started) / 1_000_000);
+        return report;
+    }
+
+    // Helper method to parse a line, null when it holds a JSON value other than an object, such as null
+    private static ImportLineDto parse(ObjectReader reader, String text) throws IOException {
+        try (JsonParser parser = reader.createParser(text)) {
+            return parser.nextToken() == JsonToken.START_OBJECT ? reader.readValue(parser) : null;
+        }
+    }
+
+    // Helper method to write one chunk on the writer thread and add its figures to the report
+    private void importChunk(List<Line> lines, ImportReportDto report) {
+        long started = System.nanoTime();
+        List<RejectedLineDto> rejects = new ArrayList<>();
+        ChunkCounts counts;
+        try {
+            counts = writeQueue.submit(() -> writeChunk(lines, rejects));
+        } catch (DataAccessException ex) {
+            // The whole chunk was rolled back
+            rejects.clear();
+            for (Line line : lines) {
+                rejects.add(new RejectedLineDto(line.number(),
+                        "Chunk rolled back: " + ex.getMostSpecificCause().getMessage()));
+            }
+            counts = ChunkCounts.NONE;
+        }
+        long nanos = Math.max(System.nanoTime() - started, 1);
+
+        int inserted = counts.genres() + counts.actors() + counts.movies();
+        report.getChunks().add(ImportChunkDto.builder()
+                .chunk(report.getChunks().size() + 1)
+                .firstLine(lines.get(0).number())
+                .lastLine(lines.get(lines.size() - 1).number())
+                .inserted(inserted)
+                .rejected(rejects.size())
+                .millis(nanos / 1_000_000)
+                .rowsPerSecond(inserted * 1_000_000_000.0 / nanos)
+                .build());
+        report.setGenres(report.getGenres() + counts.genres());
+        report.setActors(report.getActors() + counts.actors());
+        report.setMovies(report.getMovies() + counts.movies());
+        report.setMovieActorLinks(report.getMovieActorLinks() + counts.links());
+        rejects.forEach(reject -> reject(report, reject));
+    }
+
+    // Helper method to validate a chunk, resolve its references in batches and insert it with JDBC batches
+    private ChunkCounts writeChunk(List<Line> lines, List<RejectedLineDto> rejects) {
+        // The write queue runs a chunk again on its own when its write group was rolled back
+        rejects.clear();
+        List<Line> genres = new ArrayList<>();
+        List<Line> actors = new ArrayList<>();
+        List<Line> movies = new ArrayList<>();
+        for (Line line : lines) {
+            String error = validate(line.row());
+            if (error != null) {
+                rejects.add(new RejectedLineDto(line.number(), error));
+            } else if ("genre".equals(line.row().getType())) {
+                genres.add(line);
+            } else if ("actor".equals(line.row().getType())) {
+                actors.add(line);
+            } else {
+                movies.add(line);
+            }
+        }
+
+        genres = assignIds(Table.GENRES, "Genre", genres, rejects);
+        actors = assignIds(Table.ACTORS, "Actor", actors, rejects);
+        movies = assignIds(Table.MOVIES, "Movie", movies, rejects);
+
+        // Resolve the genres and actors the movies refer to: the ones of this chunk, then the database in one query
+        Set<Long> genreIds = ids(genres);
+        Set<Long> actorIds = ids(actors);
+        Set<Long> unknownGenres = movies.stream().map(line -> line.row().getGenreId())
+                .filter(id -> !genreIds.contains(id)).collect(Collectors.toSet());
+        Set<Long> unknownActors = movies.stream().flatMap(line -> line.row().getActorIds().stream())
+                .filter(id -> !actorIds.contains(id)).collect(Collectors.toSet());
+        if (!unknownGenres.isEmpty()) {
+            genreIds.addAll(catalogJdbcRepository.findExistingIds(Table.GENRES, unknownGenres));
+        }
+        if (!unknownActors.isEmpty()) {
+            actorIds.addAll(catalogJdbcRepository.findExistingIds(Table.ACTORS, unknownActors));
+        }
+
+        List<ImportLineDto> resolvedMovies = new ArrayList<>();
+        List<long[]> links = new ArrayList<>();
+        for (Line line : movies) {
+            ImportLineDto movie = line.row();
+            if (!genreIds.contains(movie.getGenreId())) {
+                rejects.add(new RejectedLineDto(line.number(), "Genre not found with ID: " + movie.getGenreId()));
+                continue;
+            }
+            Set<Long> movieActorIds = new LinkedHashSet<>(movie.getActorIds());
+            List<Long> missing = movieActorIds.stream().filter(id -> !actorIds.contains(id)).toList();
+            if (!missing.isEmpty()) {
+                rejects.add(new RejectedLineDto(line.number(), "Actors not found with IDs: " + missing));
+                continue;
+            }
+            resolvedMovies.add(movie);
+            movieActorIds.forEach(actorId -> links.add(new long[]{movie.getId(), actorId}));
+        }
+
+        catalogJdbcRepository.insertGenres(rows(genres));
+        catalogJdbcRepository.insertActors(rows(actors));
+        catalogJdbcRepository.insertMovies(resolvedMovies);
+        catalogJdbcRepository.insertMovieActors(links);
+        return new ChunkCounts(genres.size(), actors.size(), resolvedMovies.size(), links.size());
+    }
+
+    // Helper method to reject lines whose ID is taken and give the lines without an ID the next free ones
+    private List<Line> assignIds(Table table, String kind, List<Line> lines, List<RejectedLineDto> rejects) {
+        if (lines.isEmpty()) {
+            return lines;
+        }
+        Set<Long> explicitIds = lines.stream().map(line -> line.row().getId())
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> existing = explicitIds.isEmpty() ? Set.of()
+                : catalogJdbcRepository.findExistingIds(table, explicitIds);
+        long nextId = Math.max(catalogJdbcRepository.maxId(table),
+                explicitIds.stream().mapToLong(Long::longValue).max().orElse(0)) + 1;
+
+        Set<Long> taken = new HashSet<>();
+        List<Line> accepted = new ArrayList<>();
+        for (Line line : lines) {
+            Long id = line.row().getId();
+            if (id == null) {
+                line.row().setId(nextId++);
+            } else if (existing.contains(id) || !taken.add(id)) {
+                rejects.add(new RejectedLineDto(line.number(), kind + " already exists with ID: " + id));
+                continue;
+            }
+            accepted.add(line);
+        }
+        return accepted;
+    }
+
+    // Helper method to check a line against the same rules as the entities, returns null when it is valid
+    private String validate(ImportLineDto row) {
+        if (row.getId() != null && row.getId() <= 0) {
+            return "ID must be positive";
+        }
+        if (row.getType() == null) {
+            return "Type is required";
+        }
+        switch (row.getType()) {
+            case "genre":
+                return isBlank(row.getName()) ? "Genre name is required" : null;
+            case "actor":
+                if (isBlank(row.getName())) {
+                    return "Actor name is required";
+                }
+                if (row.getBirthDate() == null || !row.getBirthDate().isBefore(LocalDate.now())) {
+                    return "Birth date must be in the past";
+                }
+                return null;
+            case "movie":
+                if (isBlank(row.getTitle())) {
+                    return "Movie title is required";
+                }
+                if (row.getReleaseYear() == null || row.getReleaseYear() < Movie.MIN_RELEASE_YEAR
+                        || row.getReleaseYear() > Movie.MAX_RELEASE_YEAR) {
+                    return "Release year should be valid";
+                }
+                if (row.getDuration() == null || row.getDuration() <= 0) {
+                    return "Duration must be positive";
+                }
+                if (row.getGenreId() == null) {
+                    return "Genre ID is required";
+                }
+                if (row.getActorIds() == null) {
+                    row.setActorIds(List.of());
+                } else if (row.getActorIds().contains(null)) {
+                    return "Actor IDs must not be null";
+                }
+                return null;
+            default:
+                return "Unknown type: " + row.getType();
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static Set<Long> ids(List<Line> lines) {
+        return lines.stream().map(line -> line.row().getId()).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static List<ImportLineDto> rows(List<Line> lines) {
+        return lines.stream().map(Line::row).collect(Collectors.toList());
+    }
+
+    private static void reject(ImportReportDto report, RejectedLineDto reject) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getRejectedLines().size() < MAX_LISTED_REJECTS) {
+            report.getRejectedLines().add(reject);
+        }
+    }
+}
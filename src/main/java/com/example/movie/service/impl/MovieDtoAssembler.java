@@ -0,0 +1,75 @@
+package com.example.movie.service.impl;
+
+import com.example.movie.DTO.MovieActorView;
+import com.example.movie.DTO.MovieResponseActorDto;
+import com.example.movie.DTO.MovieResponseDto;
+import com.example.movie.DTO.MovieResponseGenreDto;
+import com.example.movie.DTO.MovieView;
+import com.example.movie.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Builds MovieResponseDto lists for the read endpoints from projections instead of managed entities:
+// one query for the movie and genre columns, one query for the actors of all movies in the list
+@Component
+public class MovieDtoAssembler {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    // Build the DTOs of the given movie IDs, keeping the order of the IDs and skipping unknown ones
+    public List<MovieResponseDto> assemble(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<MovieView> movies = movieRepository.findViewsByIdIn(ids);
+        List<Long> foundIds = movies.stream().map(MovieView::id).collect(Collectors.toList());
+        return assemble(ids, movies, movieRepository.findActorViewsByMovieIdIn(foundIds));
+    }
+
+    // Convert the movie and actor projections to DTOs in the order of the IDs
+    List<MovieResponseDto> assemble(List<Long> ids, List<MovieView> movies, List<MovieActorView> actorRows) {
+        Map<Long, MovieView> moviesById = movies.stream()
+                .collect(Collectors.toMap(MovieView::id, Function.identity()));
+
+        // Group the actor rows by movie ID
+        Map<Long, List<MovieResponseActorDto>> actorsByMovieId = new HashMap<>();
+        for (MovieActorView row : actorRows) {
+            actorsByMovieId.computeIfAbsent(row.movieId(), id -> new ArrayList<>())
+                    .add(MovieResponseActorDto.builder()
+                            .id(row.actorId())
+                            .name(row.name())
+                            .birthDate(row.birthDate())
+                            .build());
+        }
+
+        return ids.stream()
+                .map(moviesById::get)
+                .filter(Objects::nonNull)
+                .map(movie -> toDto(movie, actorsByMovieId.getOrDefault(movie.id(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    // Helper method to convert a movie projection and its actors to MovieResponseDto
+    private MovieResponseDto toDto(MovieView movie, List<MovieResponseActorDto> actors) {
+        return MovieResponseDto.builder()
+                .id(movie.id())
+                .title(movie.title())
+                .releaseYear(movie.releaseYear())
+                .duration(movie.duration())
+                .genre(MovieResponseGenreDto.builder()
+                        .id(movie.genreId())
+                        .name(movie.genreName())
+                        .build())
+                .actors(actors)
+                .build();
+    }
+}
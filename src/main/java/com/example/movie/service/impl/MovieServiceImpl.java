@@ -1,22 +1,58 @@
 package com.example.movie.service.impl;
 
 import com.example.movie.DTO.*;
-import com.example.movie.entity.Actor;
 import com.example.movie.entity.Movie;
+import com.example.movie.event.ChangeType;
+import com.example.movie.event.MovieChangedEvent;
+import com.example.movie.event.MovieSnapshot;
 import com.example.movie.exception.ResourceNotFoundException;
+import com.example.movie.index.SimilarMoviesIndex;
+import com.example.movie.json.MoviePageJsonWriter;
 import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.CatalogJdbcRepository;
+import com.example.movie.repository.CatalogJdbcRepository.Table;
+import com.example.movie.repository.CatalogVersionRepository;
+import com.example.movie.repository.FullTextSearchRepository;
 import com.example.movie.repository.MovieRepository;
+import com.example.movie.repository.MovieSpecifications;
 import com.example.movie.repository.GenreRepository;
 import com.example.movie.service.MovieService;
+import com.example.movie.util.Cursors;
+import com.example.movie.util.FullTextQueries;
+import com.example.movie.util.MultiGets;
+import com.example.movie.write.WriteQueue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "catalog.service", histogram = true)
 public class MovieServiceImpl implements MovieService {
 
     @Autowired
@@ -28,141 +64,426 @@ public class MovieServiceImpl implements MovieService {
     @Autowired
     private ActorRepository actorRepository;
 
+    @Autowired
+    private FullTextSearchRepository fullTextSearchRepository;
+
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Autowired
+    private MovieDtoAssembler movieDtoAssembler;
+
+    @Autowired
+    private CatalogJdbcRepository catalogJdbcRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private WriteQueue writeQueue;
+
+    @Autowired
+    private SimilarMoviesIndex similarMoviesIndex;
+
+    @Value("${movie.bulk.max-items:1000}")
+    private int maxBulkItems;
+
     // Method to create a new Movie
     @Override
     public MovieResponseDto createMovie(MovieRequestDto movieRequestDto) {
-        // Create and save new movie instance, assuming Genre and Actors already exist
-        Movie movie = Movie.builder()
-                .title(movieRequestDto.getTitle())
-                .releaseYear(movieRequestDto.getReleaseYear())
-                .duration(movieRequestDto.getDuration())
-                .genre(genreRepository.findById((long) movieRequestDto.getGenreId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Genre not found with ID: " + movieRequestDto.getGenreId())))
-                .actors(actorRepository.findAllById(movieRequestDto.getActorIds()))
-                .build();
+        // Run on the writer thread, in the transaction of its write group
+        return writeQueue.submit(() -> {
+            // Create and save new movie instance, assuming Genre and Actors already exist
+            Movie movie = Movie.builder()
+                    .title(movieRequestDto.getTitle())
+                    .releaseYear(movieRequestDto.getReleaseYear())
+                    .duration(movieRequestDto.getDuration())
+                    .genre(genreRepository.findById((long) movieRequestDto.getGenreId())
+                            .orElseThrow(() -> new ResourceNotFoundException("Genre not found with ID: " + movieRequestDto.getGenreId())))
+                    .actors(actorRepository.findAllById(movieRequestDto.getActorIds()))
+                    .build();
+
+            // Save the movie to the repository and convert it to response DTO
+            Movie savedMovie = movieRepository.save(movie);
+            eventPublisher.publishEvent(new MovieChangedEvent(ChangeType.CREATED, null, MovieSnapshot.of(savedMovie)));
+            return convertMovieToDto(savedMovie);
+        });
+    }
 
-        // Save the movie to the repository and convert it to response DTO
-        return convertMovieToDto(movieRepository.save(movie));
+    // Method to create many movies in one transaction: the genres and actors of all of them are checked with
+    // one query each and the rows are inserted with JDBC batches
+    @Override
+    public BulkResultDto createMovies(List<MovieRequestDto> movies, boolean atomic) {
+        BulkResults.checkSize(movies, maxBulkItems);
+        BulkResultDto result;
+        try {
+            // Run on the writer thread, in the transaction of its write group
+            result = writeQueue.submit(() -> insertMovies(movies, atomic));
+        } catch (DataAccessException ex) {
+            result = BulkResults.rolledBack(atomic, movies.size(), ex);
+        }
+        return result;
     }
 
     // Method to get a movie by its ID
     @Override
+    @Transactional(readOnly = true)
     public MovieResponseDto getMovieById(Long id) {
-        Movie movie = getMovieByIdFromDb(id);
-        return convertMovieToDto(movie);
+        // Read the movie through projections, without loading the entity graph
+        return movieDtoAssembler.assemble(List.of(id)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Movie not found with ID: " + id));
+    }
+
+    // Method to read the validators of a movie response from the versions of the movie, its genre and actors
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VersionView> getMovieVersion(Long id) {
+        return catalogVersionRepository.findMovieVersion(id);
+    }
+
+    // Method to get several movies by their IDs, in the order of the IDs and with the IDs that were not found
+    @Override
+    @Transactional(readOnly = true)
+    public MultiGetDto<MovieResponseDto> getMoviesByIds(List<Long> ids) {
+        List<Long> movieIds = MultiGets.ids(ids);
+        // One IN query for the movies and genres, one IN query for the actors of all of them
+        return MultiGets.result(movieIds, movieDtoAssembler.assemble(movieIds), MovieResponseDto::getId);
     }
 
-    // Method to get all movies with optional pagination
+    // Method to get one keyset page of movies
     @Override
-    public List<MovieResponseDto> getAllMovies(Integer page, Integer size) {
-        // Placeholder for getting all movies - modify as needed
-        List<Movie> movies = movieRepository.findAll();
-        return movies.stream().map(this::convertMovieToDto).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageDto<MovieResponseDto> getAllMovies(String cursor, Integer size) {
+        int limit = Cursors.pageSize(size);
+        // Seek past the cursor through the primary key, then fetch that page with genre and actors
+        List<Long> ids = movieRepository.findIdsAfter(Cursors.decode(cursor), Limit.of(limit + 1));
+        CursorPageDto<Long> idPage = Cursors.page(ids, limit, Long::longValue);
+        return new CursorPageDto<>(movieDtoAssembler.assemble(idPage.getContent()), idPage.getNext());
+    }
+
+    // Method to write the same keyset page of movies as JSON while the rows are read, without building DTOs
+    @Override
+    @Transactional(readOnly = true)
+    public void writeAllMovies(String cursor, Integer size, OutputStream out) {
+        int limit = Cursors.pageSize(size);
+        long after = Cursors.decode(cursor);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            MoviePageJsonWriter writer = new MoviePageJsonWriter(generator, limit);
+            catalogJdbcRepository.streamMoviePage(after, limit + 1, writer);
+            writer.finish();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write the movies", ex);
+        }
     }
 
     // Method to update an existing movie
     @Override
     public MovieResponseDto updateMovie(Long id, MovieRequestDto movieDetails) {
-        Movie movie = getMovieByIdFromDb(id);
+        // Run on the writer thread, in the transaction of its write group
+        return writeQueue.submit(() -> {
+            Movie movie = getMovieByIdFromDb(id);
+            MovieSnapshot before = MovieSnapshot.of(movie);
 
-        // Update movie fields if present in request
-        if (movieDetails.getTitle() != null) {
-            movie.setTitle(movieDetails.getTitle());
-        }
-        if (movieDetails.getReleaseYear() != 0) {
-            movie.setReleaseYear(movieDetails.getReleaseYear());
-        }
-        if (movieDetails.getDuration() != 0) {
-            movie.setDuration(movieDetails.getDuration());
-        }
-        if (movieDetails.getGenreId() != 0) {
-            movie.setGenre(genreRepository.findById((long) movieDetails.getGenreId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Genre not found with ID: " + movieDetails.getGenreId())));
-        }
-        if (movieDetails.getActorIds() != null && !movieDetails.getActorIds().isEmpty()) {
-            movie.setActors(actorRepository.findAllById(movieDetails.getActorIds()));
-        }
+            // Update movie fields if present in request
+            if (movieDetails.getTitle() != null) {
+                movie.setTitle(movieDetails.getTitle());
+            }
+            if (movieDetails.getReleaseYear() != 0) {
+                movie.setReleaseYear(movieDetails.getReleaseYear());
+            }
+            if (movieDetails.getDuration() != 0) {
+                movie.setDuration(movieDetails.getDuration());
+            }
+            if (movieDetails.getGenreId() != 0) {
+                movie.setGenre(genreRepository.findById((long) movieDetails.getGenreId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Genre not found with ID: " + movieDetails.getGenreId())));
+            }
+            if (movieDetails.getActorIds() != null && !movieDetails.getActorIds().isEmpty()) {
+                movie.setActors(actorRepository.findAllById(movieDetails.getActorIds()));
+            }
 
-        // Save and return updated movie
-        return convertMovieToDto(movieRepository.save(movie));
+            // Save and return updated movie
+            Movie savedMovie = movieRepository.save(movie);
+            eventPublisher.publishEvent(new MovieChangedEvent(ChangeType.UPDATED, before, MovieSnapshot.of(savedMovie)));
+            return convertMovieToDto(savedMovie);
+        });
     }
 
     // Method to delete a movie by ID
     @Override
     public void deleteMovie(Long id, boolean cascade) {
-        Movie movie = getMovieByIdFromDb(id);
-        if (!cascade && (movie.getActors() != null && !movie.getActors().isEmpty())) {
-            throw new RuntimeException("Cannot delete movie with actors associated. Set cascade=true to delete.");
-        }
-        movieRepository.delete(movie);
+        // Run on the writer thread, in the transaction of its write group
+        writeQueue.submit(() -> {
+            Movie movie = getMovieByIdFromDb(id);
+            if (!cascade && (movie.getActors() != null && !movie.getActors().isEmpty())) {
+                throw new RuntimeException("Cannot delete movie with actors associated. Set cascade=true to delete.");
+            }
+            MovieSnapshot before = MovieSnapshot.of(movie);
+            movieRepository.delete(movie);
+            eventPublisher.publishEvent(new MovieChangedEvent(ChangeType.DELETED, before, null));
+        });
     }
 
     // Method to search movies by title with pagination
     @Override
+    @Transactional(readOnly = true)
     public Page<MovieResponseDto> searchMoviesByTitle(String title, Pageable pageable) {
-        Page<Movie> moviesPage = movieRepository.findByTitleContainingIgnoreCase(title, pageable);
-        // Convert Page<Movie> to Page<MovieResponseDto>
-        return moviesPage.map(this::convertMovieToDto);
+        Page<Long> idPage = movieRepository.findIdsByTitleContainingIgnoreCase(title.toLowerCase(), pageable);
+        // Fetch the page of movies and convert it to Page<MovieResponseDto>
+        return convertMoviePage(idPage);
+    }
+    // Method to search movies through the full-text index of titles, every word matching as a prefix
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MovieResponseDto> searchMovies(String query, Pageable pageable) {
+        String match = FullTextQueries.prefixMatch(query);
+        if (match == null) {
+            return Page.empty(pageable);
+        }
+        // Fetch the ranked page of IDs, then the movies through projections
+        return convertMoviePage(fullTextSearchRepository.findMovieIds(match, pageable));
+    }
+    // Method to query movies by any combination of criteria, with the facet counts of all the matching movies
+    @Override
+    @Transactional(readOnly = true)
+    public MovieQueryResultDto queryMovies(MovieCriteriaDto criteria, int yearBucket, Pageable pageable) {
+        Specification<Movie> spec = MovieSpecifications.matching(criteria);
+        // One grouped query gives both facets, and the total as the sum of the genre counts
+        List<MovieFacetView> facets = movieRepository.findFacetViewsBy(spec);
+        Map<Long, GenreFacetDto> genreFacets = new TreeMap<>();
+        Map<Integer, YearFacetDto> yearFacets = new TreeMap<>();
+        long total = 0;
+        for (MovieFacetView facet : facets) {
+            GenreFacetDto genre = genreFacets.computeIfAbsent(facet.genreId(), genreId -> GenreFacetDto.builder()
+                    .genreId(genreId)
+                    .name(facet.genreName())
+                    .build());
+            genre.setMovies(genre.getMovies() + facet.movies());
+            // Buckets start at the multiples of yearBucket, e.g. 1990 to 1999 for decades
+            int from = facet.releaseYear() / yearBucket * yearBucket;
+            YearFacetDto years = yearFacets.computeIfAbsent(from, year -> YearFacetDto.builder()
+                    .from(year)
+                    .to(year + yearBucket - 1)
+                    .build());
+            years.setMovies(years.getMovies() + facet.movies());
+            total += facet.movies();
+        }
+        // Read the page of IDs only when the page is not past the matching movies
+        List<Long> ids = pageable.getOffset() < total ? movieRepository.findIdsBy(spec, pageable) : List.of();
+        Page<MovieResponseDto> page = new PageImpl<>(movieDtoAssembler.assemble(ids), pageable, total);
+        return MovieQueryResultDto.builder()
+                .content(page.getContent())
+                .page(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .genreFacets(genreFacets.values().stream()
+                        // Ties stay in genre ID order, the order of the map
+                        .sorted(Comparator.comparingLong(GenreFacetDto::getMovies).reversed())
+                        .collect(Collectors.toList()))
+                .yearFacets(new ArrayList<>(yearFacets.values()))
+                .build();
     }
     @Override
+    @Transactional(readOnly = true)
     public List<MovieResponseDto> getMoviesByActorId(Long actorId) {
-        Actor actor = getActorByIdFromDb(actorId);  // Fetch actor or throw error if not found
+        // Check that the actor exists or throw error if not found
+        if (!actorRepository.existsById(actorId)) {
+            throw new ResourceNotFoundException("Actor not found");
+        }
 
-        // Convert List<Movie> to List<MovieResponseDto> and return it
-        return actor.getMovies().stream()
-                .map(this::convertMovieToDto)
-                .collect(Collectors.toList());
-    }
-    private Actor getActorByIdFromDb(Long id) {
-        return actorRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Actor not found"));
+        // Read the actor's movies through projections and convert them to MovieResponseDto
+        return movieDtoAssembler.assemble(movieRepository.findIdsByActorId(actorId));
     }
     // Method to get movies by release year with pagination
     @Override
+    @Transactional(readOnly = true)
     public Page<MovieResponseDto> getMoviesByReleaseYear(int releaseYear, Pageable pageable) {
-        Page<Movie> moviesPage = movieRepository.findByReleaseYear(releaseYear, pageable);
-        // Convert Page<Movie> to Page<MovieResponseDto>
-        return moviesPage.map(this::convertMovieToDto);
+        Page<Long> idPage = movieRepository.findIdsByReleaseYear(releaseYear, pageable);
+        // Fetch the page of movies and convert it to Page<MovieResponseDto>
+        return convertMoviePage(idPage);
     }
 
     // Method to get all actors in a specific movie by its ID
     @Override
+    @Transactional(readOnly = true)
     public List<ActorResponseDto> getAllActorsInMovie(Long movieId) {
-        Movie movie = getMovieByIdFromDb(movieId);
-        return movie.getActors().stream()
+        if (!movieRepository.existsById(movieId)) {
+            throw new ResourceNotFoundException("Movie not found with ID: " + movieId);
+        }
+        return movieRepository.findActorViewsByMovieId(movieId).stream()
                 .map(this::convertActorToDto)
                 .collect(Collectors.toList());
     }
 
+    // Method to get the movies most similar to a movie, ranked by the in-memory inverted index
+    @Override
+    @Transactional(readOnly = true)
+    public List<SimilarMovieDto> getSimilarMovies(Long movieId, int limit, double yearWeight) {
+        List<SimilarMoviesIndex.Match> matches = similarMoviesIndex.similar(movieId, limit, yearWeight);
+        // Read the movie and the matches with one IN query, which also tells whether the movie exists
+        List<Long> ids = new ArrayList<>();
+        ids.add(movieId);
+        matches.forEach(match -> ids.add(match.movieId()));
+        Map<Long, MovieView> moviesById = movieRepository.findViewsByIdIn(ids).stream()
+                .collect(Collectors.toMap(MovieView::id, Function.identity()));
+        if (!moviesById.containsKey(movieId)) {
+            throw new ResourceNotFoundException("Movie not found with ID: " + movieId);
+        }
+        return matches.stream()
+                .filter(match -> moviesById.containsKey(match.movieId()))
+                .map(match -> {
+                    MovieView movie = moviesById.get(match.movieId());
+                    return SimilarMovieDto.builder()
+                            .id(movie.id())
+                            .title(movie.title())
+                            .releaseYear(movie.releaseYear())
+                            .genre(MovieResponseGenreDto.builder().id(movie.genreId()).name(movie.genreName()).build())
+                            .score(match.score())
+                            .sharedActors(match.sharedActors())
+                            .sameGenre(match.sameGenre())
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
     // Method to get all movies by a specific genre ID with pagination
     @Override
+    @Transactional(readOnly = true)
     public Page<MovieResponseDto> getMoviesByGenreId(Long genreId, Pageable pageable) {
         // Check if the genre exists; if not, throw an exception
-        genreRepository.findById(genreId)
-                .orElseThrow(() -> new ResourceNotFoundException("Genre not found with ID: " + genreId));
+        if (!genreRepository.existsById(genreId)) {
+            throw new ResourceNotFoundException("Genre not found with ID: " + genreId);
+        }
 
-        // Find all movies by the specified genre ID with pagination
-        Page<Movie> moviesPage = movieRepository.findByGenreId(genreId, pageable);
+        // Find the IDs of the movies with the specified genre ID with pagination
+        Page<Long> idPage = movieRepository.findIdsByGenreId(genreId, pageable);
 
-        // Convert Page<Movie> to Page<MovieResponseDto> and return it
-        return moviesPage.map(this::convertMovieToDto);
+        // Fetch the page of movies and convert it to Page<MovieResponseDto>
+        return convertMoviePage(idPage);
     }
-    // Helper method to fetch movie by ID
+
+    // Helper method to validate the movies of a bulk request and insert the valid ones, all of them or none when atomic
+    private BulkResultDto insertMovies(List<MovieRequestDto> movies, boolean atomic) {
+        String[] errors = new String[movies.size()];
+        Set<Long> genreIds = new HashSet<>();
+        Set<Long> actorIds = new HashSet<>();
+        for (int i = 0; i < movies.size(); i++) {
+            errors[i] = validateMovie(movies.get(i));
+            if (errors[i] == null) {
+                genreIds.add((long) movies.get(i).getGenreId());
+                if (movies.get(i).getActorIds() != null) {
+                    actorIds.addAll(movies.get(i).getActorIds());
+                }
+            }
+        }
+
+        // One lookup for the genres and one for the actors of every item
+        Set<Long> existingGenres = genreIds.isEmpty() ? Set.of()
+                : catalogJdbcRepository.findExistingIds(Table.GENRES, genreIds);
+        Set<Long> existingActors = actorIds.isEmpty() ? Set.of()
+                : catalogJdbcRepository.findExistingIds(Table.ACTORS, actorIds);
+        for (int i = 0; i < movies.size(); i++) {
+            MovieRequestDto movie = movies.get(i);
+            if (errors[i] != null) {
+                continue;
+            }
+            if (!existingGenres.contains((long) movie.getGenreId())) {
+                errors[i] = "Genre not found with ID: " + movie.getGenreId();
+            } else if (movie.getActorIds() != null && !existingActors.containsAll(movie.getActorIds())) {
+                errors[i] = "Actors not found with IDs: " + movie.getActorIds().stream()
+                        .filter(id -> !existingActors.contains(id)).sorted().toList();
+            }
+        }
+        if (atomic && BulkResults.anyRejected(errors)) {
+            return BulkResults.of(true, errors, null);
+        }
+
+        // Only the writer thread inserts, so the IDs after the current maximum are free
+        long[] ids = new long[movies.size()];
+        long nextId = catalogJdbcRepository.maxId(Table.MOVIES) + 1;
+        List<ImportLineDto> rows = new ArrayList<>();
+        List<long[]> links = new ArrayList<>();
+        List<MovieSnapshot> created = new ArrayList<>();
+        for (int i = 0; i < movies.size(); i++) {
+            MovieRequestDto movie = movies.get(i);
+            if (errors[i] != null) {
+                continue;
+            }
+            long id = nextId++;
+            List<Long> movieActorIds = movie.getActorIds() == null ? List.of()
+                    : List.copyOf(new LinkedHashSet<>(movie.getActorIds()));
+            ids[i] = id;
+            rows.add(ImportLineDto.builder()
+                    .type("movie")
+                    .id(id)
+                    .title(movie.getTitle())
+                    .releaseYear(movie.getReleaseYear())
+                    .duration(movie.getDuration())
+                    .genreId((long) movie.getGenreId())
+                    .build());
+            movieActorIds.forEach(actorId -> links.add(new long[]{id, actorId}));
+            created.add(new MovieSnapshot(id, movie.getTitle(), movie.getReleaseYear(), movie.getDuration(),
+                    (long) movie.getGenreId(), movieActorIds));
+        }
+        catalogJdbcRepository.insertMovies(rows);
+        catalogJdbcRepository.insertMovieActors(links);
+        // The rows were written through JDBC, so the events the entity write path would publish are published here;
+        // they are delivered after the commit of the write group, like the ones of createMovie
+        created.forEach(movie -> eventPublisher.publishEvent(new MovieChangedEvent(ChangeType.CREATED, null, movie)));
+        return BulkResults.of(atomic, errors, ids);
+    }
+
+    // Helper method to check a movie of a bulk request against the constraints of the entity, null when it is valid
+    private static String validateMovie(MovieRequestDto movie) {
+        if (movie == null) {
+            return "Movie is required";
+        }
+        if (BulkResults.isBlank(movie.getTitle())) {
+            return "Movie title is required";
+        }
+        if (movie.getReleaseYear() < Movie.MIN_RELEASE_YEAR || movie.getReleaseYear() > Movie.MAX_RELEASE_YEAR) {
+            return "Release year should be valid";
+        }
+        if (movie.getDuration() <= 0) {
+            return "Duration must be positive";
+        }
+        if (movie.getGenreId() <= 0) {
+            return "Genre ID is required";
+        }
+        if (movie.getActorIds() != null && movie.getActorIds().contains(null)) {
+            return "Actor IDs must not be null";
+        }
+        return null;
+    }
+
+    // Helper method to read a page of movie IDs through projections and convert it to Page<MovieResponseDto>
+    private Page<MovieResponseDto> convertMoviePage(Page<Long> idPage) {
+        return new PageImpl<>(movieDtoAssembler.assemble(idPage.getContent()), idPage.getPageable(), idPage.getTotalElements());
+    }
+
+    // Helper method to fetch movie by ID together with its genre and actors
     private Movie getMovieByIdFromDb(Long id) {
-        return movieRepository.findById(id)
+        return movieRepository.findWithGenreAndActorsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with ID: " + id));
     }
 
-    // Helper method to convert Actor entity to ActorResponseDto
-    private ActorResponseDto convertActorToDto(Actor actor) {
+    // Helper method to convert an actor projection to ActorResponseDto
+    private ActorResponseDto convertActorToDto(ActorView actor) {
         return ActorResponseDto.builder()
-                .id(actor.getId())
-                .name(actor.getName())
-                .birthDate(actor.getBirthDate())
+                .id(actor.id())
+                .name(actor.name())
+                .birthDate(actor.birthDate())
                 .build();
     }
 
     // Helper method to convert Movie entity to MovieResponseDto
-    private MovieResponseDto convertMovieToDto(Movie movie) {
+    MovieResponseDto convertMovieToDto(Movie movie) {
         return MovieResponseDto.builder()
                 .id(movie.getId())
                 .title(movie.getTitle())
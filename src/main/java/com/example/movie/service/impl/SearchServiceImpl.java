@@ -0,0 +1,26 @@
+package com.example.movie.service.impl;
+
+import com.example.movie.repository.FullTextSearchRepository;
+import com.example.movie.service.SearchService;
+import com.example.movie.write.WriteQueue;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+@Timed(value = "catalog.service", histogram = true)
+public class SearchServiceImpl implements SearchService {
+
+    @Autowired
+    private FullTextSearchRepository fullTextSearchRepository;
+
+    @Autowired
+    private WriteQueue writeQueue;
+
+    // Method to rebuild the full-text indexes of movies and actors
+    @Override
+    public void rebuildIndex() {
+        // Run on the writer thread, in the transaction of its write group, so both indexes are rebuilt or neither
+        writeQueue.submit(() -> fullTextSearchRepository.rebuild());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.movie.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Counts the SQL statements of every HTTP request, records them per endpoint in the http.server.requests.statements
+// summary and logs a warning naming the endpoint when a request exceeds movie.query-budget.max-statements
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${movie.query-budget.max-statements:25}")
+    private long maxStatements;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.Scope scope = queryCounter.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            scope.close();
+            record(request, scope.statements());
+        }
+    }
+
+    private void record(HttpServletRequest request, long statements) {
+        // The mapped pattern, e.g. /api/movies/{id}, keeps one series per endpoint
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.requests.statements")
+                .description("SQL statements issued per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+        if (statements > maxStatements) {
+            log.warn("{} {} issued {} SQL statements, over the budget of {}", request.getMethod(),
+                    pattern != null ? uri : request.getRequestURI(), statements, maxStatements);
+        }
+    }
+}
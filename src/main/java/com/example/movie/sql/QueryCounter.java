@@ -0,0 +1,102 @@
+package com.example.movie.sql;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+// Counts the JDBC statements issued on behalf of a unit of work, e.g. an HTTP request. A scope is bound to the
+// current thread; statements are counted in the innermost open scope and added to the enclosing one when it
+// closes. Work handed to another thread, like the writer thread, is counted by attaching the caller's scope there.
+@Component
+public class QueryCounter {
+
+    public static final class Scope implements AutoCloseable {
+
+        private final QueryCounter counter;
+
+        private final Scope parent;
+
+        private long statements;
+
+        private boolean closed;
+
+        private Scope(QueryCounter counter, Scope parent) {
+            this.counter = counter;
+            this.parent = parent;
+        }
+
+        public synchronized long statements() {
+            return statements;
+        }
+
+        private synchronized void increment() {
+            statements++;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (parent != null) {
+                synchronized (parent) {
+                    parent.statements += statements();
+                }
+            }
+            if (counter.current.get() == this) {
+                counter.current.set(parent);
+            }
+        }
+    }
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    // Start counting on the current thread, nested in the scope already open if any
+    public Scope open() {
+        Scope scope = new Scope(this, current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    // The innermost open scope of the current thread, or null
+    public Scope current() {
+        return current.get();
+    }
+
+    // Run work on the current thread counting its statements in a scope opened on another thread
+    public <T> T attach(Scope scope, Supplier<T> work) {
+        Scope previous = current.get();
+        current.set(scope);
+        try {
+            return work.get();
+        } finally {
+            current.set(previous);
+        }
+    }
+
+    // Called by QueryCountingDataSource for every statement created
+    void increment() {
+        Scope scope = current.get();
+        if (scope != null) {
+            scope.increment();
+        }
+    }
+
+    // Method to count the statements issued by an action, e.g. a MockMvc request in an integration test
+    public long count(Callable<?> action) throws Exception {
+        try (Scope scope = open()) {
+            action.call();
+            return scope.statements();
+        }
+    }
+
+    // Method to pin the exact number of statements issued by an action, fails with an AssertionError otherwise
+    public void assertStatements(long expected, String description, Callable<?> action) throws Exception {
+        long actual = count(action);
+        if (actual != expected) {
+            throw new AssertionError("Expected " + expected + " SQL statements for " + description + " but got " + actual);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.movie.stats;
+
+import com.example.movie.DTO.GenreStatsDto;
+import com.example.movie.DTO.GenreStatsView;
+import com.example.movie.DTO.StatsCheckDto;
+import com.example.movie.DTO.YearRangeStatsDto;
+import com.example.movie.DTO.YearStatsDto;
+import com.example.movie.DTO.YearStatsView;
+import com.example.movie.entity.Movie;
+import com.example.movie.event.CatalogImportedEvent;
+import com.example.movie.event.GenreChangedEvent;
+import com.example.movie.event.MovieChangedEvent;
+import com.example.movie.event.MovieSnapshot;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.write.WriteQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Movie counts and total durations per genre and per release year, kept in memory and updated from the committed
+// movie and genre change events, so the statistics endpoints never scan the movie table. The per-year figures are
+// held in Fenwick trees, so the totals of any range of years are read from precomputed prefix sums.
+// The figures are rebuilt from two aggregate queries once the application has started and after a bulk import,
+// and checked against them every check-interval, being rebuilt when they differ. The rebuilds and checks run on
+// the writer thread between two write groups, so no committed write is still waiting for its event to be applied.
+@Component
+public class CatalogStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogStatistics.class);
+
+    // The year trees cover the release years the write paths accept, indexed from the first one. Their size is
+    // fixed rather than taken from the data, and movies outside the window only count in their genre's figures.
+    private static final int FIRST_YEAR = Movie.MIN_RELEASE_YEAR;
+
+    private static final int YEARS = Movie.MAX_RELEASE_YEAR - Movie.MIN_RELEASE_YEAR + 1;
+
+    private static final class GenreCounts {
+
+        private String name;
+        private long movies;
+        private long totalDuration;
+
+        private GenreCounts(String name, long movies, long totalDuration) {
+            this.name = name;
+            this.movies = movies;
+            this.totalDuration = totalDuration;
+        }
+
+        private boolean sameAs(GenreCounts other) {
+            return other != null && Objects.equals(name, other.name)
+                    && movies == other.movies && totalDuration == other.totalDuration;
+        }
+    }
+
+    // The figures aggregated from the database, indexed like the year trees
+    private record Aggregates(Map<Long, GenreCounts> genres, long[] yearMovies, long[] yearDuration) {
+    }
+
+    private final Map<Long, GenreCounts> genres = new TreeMap<>();
+
+    private final FenwickTree yearMovies = new FenwickTree(YEARS);
+
+    private final FenwickTree yearDuration = new FenwickTree(YEARS);
+
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+
+    private final MovieRepository movieRepository;
+
+    private final GenreRepository genreRepository;
+
+    private final WriteQueue writeQueue;
+
+    private final TransactionTemplate readTransaction;
+
+    private final ScheduledExecutorService executor;
+
+    public CatalogStatistics(MovieRepository movieRepository,
+                             GenreRepository genreRepository,
+                             WriteQueue writeQueue,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${movie.stats.check-interval:1h}") Duration checkInterval) {
+        this.movieRepository = movieRepository;
+        this.genreRepository = genreRepository;
+        this.writeQueue = writeQueue;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::scheduledCheck, checkInterval.toMillis(), checkInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        writeQueue.runBetweenGroups(() -> {
+            Aggregates aggregates = aggregate();
+            synchronized (this) {
+                replace(aggregates);
+            }
+            return null;
+        });
+    }
+
+    // Compare the figures with the ones aggregated from the database and rebuild them if they differ
+    public StatsCheckDto check() {
+        long started = System.nanoTime();
+        return writeQueue.runBetweenGroups(() -> {
+            Aggregates aggregates = aggregate();
+            synchronized (this) {
+                int genresRepaired = genreDifferences(aggregates.genres());
+                int yearsRepaired = yearDifferences(aggregates);
+                boolean consistent = genresRepaired == 0 && yearsRepaired == 0;
+                if (!consistent) {
+                    log.warn("Catalog statistics differed from the database in {} genres and {} release years, rebuilt",
+                            genresRepaired, yearsRepaired);
+                    replace(aggregates);
+                }
+                return StatsCheckDto.builder()
+                        .consistent(consistent)
+                        .genresRepaired(genresRepaired)
+                        .yearsRepaired(yearsRepaired)
+                        .movies(yearMovies.total())
+                        .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+                        .build();
+            }
+        });
+    }
+
+    // A movie change moves the movie out of the figures of its old genre and year and into the new ones
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onMovieChanged(MovieChangedEvent event) {
+        apply(event.before(), -1);
+        apply(event.after(), 1);
+    }
+
+    // Genres are listed with their names, including the ones without movies
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onGenreChanged(GenreChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> genres.computeIfAbsent(event.genreId(), id -> new GenreCounts(null, 0, 0))
+                    .name = event.name();
+            case DELETED -> genres.remove(event.genreId());
+        }
+    }
+
+    // A bulk import changes too many records to apply one by one; the rebuild is queued behind the writes
+    // whose events may still be on their way
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        if (reloadScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                reloadScheduled.set(false);
+                try {
+                    load();
+                } catch (RuntimeException ex) {
+                    // Repaired by the next check
+                    log.warn("Could not rebuild the catalog statistics", ex);
+                }
+            });
+        }
+    }
+
+    // Get the movie count and average duration of every genre, by genre ID
+    public synchronized List<GenreStatsDto> genreStats() {
+        List<GenreStatsDto> stats = new ArrayList<>(genres.size());
+        genres.forEach((id, counts) -> stats.add(GenreStatsDto.builder()
+                .genreId(id)
+                .name(counts.name)
+                .movies(counts.movies)
+                .averageDuration(average(counts.totalDuration, counts.movies))
+                .build()));
+        return stats;
+    }
+
+    // Get the movie count and average duration of every release year with movies in the range, by year
+    public synchronized List<YearStatsDto> yearStats(Integer from, Integer to) {
+        int first = Math.max(from != null ? from : FIRST_YEAR, FIRST_YEAR) - FIRST_YEAR;
+        int last = Math.min(to != null ? to : Integer.MAX_VALUE, FIRST_YEAR + YEARS - 1) - FIRST_YEAR;
+        List<YearStatsDto> stats = new ArrayList<>();
+        for (int index = first; index <= last; index++) {
+            long movies = yearMovies.get(index);
+            if (movies > 0) {
+                stats.add(YearStatsDto.builder()
+                        .year(FIRST_YEAR + index)
+                        .movies(movies)
+                        .averageDuration(average(yearDuration.get(index), movies))
+                        .build());
+            }
+        }
+        return stats;
+    }
+
+    // Get the movie count and average duration over a range of release years, from the prefix sums;
+    // an open end of the range stops at the earliest or latest year with movies
+    public synchronized YearRangeStatsDto yearRangeStats(Integer from, Integer to) {
+        int first = from != null ? from : FIRST_YEAR + firstIndexWithMovies();
+        int last = to != null ? to : FIRST_YEAR + lastIndexWithMovies();
+        int firstIndex = Math.max(first - FIRST_YEAR, 0);
+        int lastIndex = Math.min(last - FIRST_YEAR, YEARS - 1);
+        long movies = yearMovies.sum(firstIndex, lastIndex);
+        return YearRangeStatsDto.builder()
+                .from(first)
+                .to(last)
+                .movies(movies)
+                .averageDuration(average(yearDuration.sum(firstIndex, lastIndex), movies))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void scheduledCheck() {
+        try {
+            check();
+        } catch (RuntimeException ex) {
+            log.warn("Could not check the catalog statistics", ex);
+        }
+    }
+
+    private void apply(MovieSnapshot movie, int sign) {
+        if (movie == null) {
+            return;
+        }
+        // Both positions are known before any counter changes, so nothing below can fail half-way
+        int year = yearIndex(movie.releaseYear());
+        if (movie.genreId() != null) {
+            GenreCounts counts = genres.computeIfAbsent(movie.genreId(), id -> new GenreCounts(null, 0, 0));
+            counts.movies += sign;
+            counts.totalDuration += (long) sign * movie.duration();
+        }
+        if (year >= 0) {
+            yearMovies.add(year, sign);
+            yearDuration.add(year, (long) sign * movie.duration());
+        }
+    }
+
+    // Index of a release year in the year trees, or -1 when it is outside their window
+    private static int yearIndex(int releaseYear) {
+        return releaseYear >= FIRST_YEAR && releaseYear < FIRST_YEAR + YEARS ? releaseYear - FIRST_YEAR : -1;
+    }
+
+    private Aggregates aggregate() {
+        return readTransaction.execute(status -> {
+            Map<Long, GenreCounts> genreCounts = new TreeMap<>();
+            for (GenreStatsView genre : genreRepository.findStatsViews()) {
+                genreCounts.put(genre.genreId(), new GenreCounts(genre.name(), genre.movies(), genre.totalDuration()));
+            }
+            List<YearStatsView> years = movieRepository.findYearStatsViews();
+            long[] movies = new long[YEARS];
+            long[] duration = new long[YEARS];
+            for (YearStatsView year : years) {
+                int index = yearIndex(year.releaseYear());
+                if (index >= 0) {
+                    movies[index] = year.movies();
+                    duration[index] = year.totalDuration();
+                }
+            }
+            return new Aggregates(genreCounts, movies, duration);
+        });
+    }
+
+    private void replace(Aggregates aggregates) {
+        genres.clear();
+        genres.putAll(aggregates.genres());
+        yearMovies.load(aggregates.yearMovies());
+        yearDuration.load(aggregates.yearDuration());
+    }
+
+    private int genreDifferences(Map<Long, GenreCounts> actual) {
+        Set<Long> ids = new HashSet<>(genres.keySet());
+        ids.addAll(actual.keySet());
+        return (int) ids.stream().filter(id -> !actual.containsKey(id) || !actual.get(id).sameAs(genres.get(id))).count();
+    }
+
+    private int yearDifferences(Aggregates actual) {
+        int differences = 0;
+        for (int index = 0; index < YEARS; index++) {
+            if (yearMovies.get(index) != actual.yearMovies()[index]
+                    || yearDuration.get(index) != actual.yearDuration()[index]) {
+                differences++;
+            }
+        }
+        return differences;
+    }
+
+    private int firstIndexWithMovies() {
+        for (int index = 0; index < YEARS; index++) {
+            if (yearMovies.get(index) > 0) {
+                return index;
+            }
+        }
+        return 0;
+    }
+
+    private int lastIndexWithMovies() {
+        for (int index = YEARS - 1; index > 0; index--) {
+            if (yearMovies.get(index) > 0) {
+                return index;
+            }
+        }
+        return 0;
+    }
+
+    private static Double average(long total, long movies) {
+        return movies > 0 ? (double) total / movies : null;
+    }
+}
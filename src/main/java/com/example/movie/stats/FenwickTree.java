@@ -0,0 +1,88 @@
+package com.example.movie.stats;
+
+import java.util.Arrays;
+
+// Binary indexed (Fenwick) tree over a fixed number of values, at indexes 0 to size - 1: a value is changed and the
+// sum of any range is read in O(log n), so the prefix sums stay precomputed while the values change one by one.
+// An index outside the tree is rejected. Not thread-safe.
+public class FenwickTree {
+
+    // Values by index, for the point reads
+    private final long[] values;
+
+    // tree[i] holds the sum of the values (i - lowbit(i), i], one-based
+    private final long[] tree;
+
+    public FenwickTree(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be positive: " + size);
+        }
+        values = new long[size];
+        tree = new long[size + 1];
+    }
+
+    // Replace all the values, one per index of the tree, building the tree in O(n)
+    public void load(long[] newValues) {
+        if (newValues.length != values.length) {
+            throw new IllegalArgumentException("Expected " + values.length + " values but got " + newValues.length);
+        }
+        System.arraycopy(newValues, 0, values, 0, values.length);
+        build();
+    }
+
+    public void add(int index, long delta) {
+        checkIndex(index);
+        values[index] += delta;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    // Sum of the values at indexes 0 to index, inclusive; index -1 is the empty prefix
+    public long prefixSum(int index) {
+        if (index != -1) {
+            checkIndex(index);
+        }
+        long sum = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Sum of the values at indexes from to to, inclusive
+    public long sum(int from, int to) {
+        return from > to ? 0 : prefixSum(to) - prefixSum(from - 1);
+    }
+
+    public long total() {
+        return prefixSum(values.length - 1);
+    }
+
+    // Copy of the values
+    public long[] toArray() {
+        return values.clone();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= values.length) {
+            throw new IllegalArgumentException("Index " + index + " is outside the tree of size " + values.length);
+        }
+    }
+
+    private void build() {
+        Arrays.fill(tree, 0);
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += values[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
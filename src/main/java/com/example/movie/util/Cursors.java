@@ -0,0 +1,64 @@
+package com.example.movie.util;
+
+import com.example.movie.DTO.CursorPageDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+// Keyset pagination cursors: a cursor wraps the last ID of a page, and the next page
+// is read with WHERE id > :after ORDER BY id LIMIT :n, so deep pages cost the same as the first
+public final class Cursors {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String PREFIX = "id:";
+
+    private Cursors() {
+    }
+
+    // Encode the last ID of a page as an opaque cursor
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a cursor to the ID to seek past, a missing cursor starts at the beginning
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException is an IllegalArgumentException as well
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Validate the requested page size, falling back to the default when it is missing
+    public static int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
+    }
+
+    // Build a page from rows fetched with LIMIT limit + 1, the extra row only tells that a next page exists
+    public static <T> CursorPageDto<T> page(List<T> rows, int limit, ToLongFunction<T> idOf) {
+        if (rows.size() <= limit) {
+            return new CursorPageDto<>(rows, null);
+        }
+        List<T> content = rows.subList(0, limit);
+        return new CursorPageDto<>(content, encode(idOf.applyAsLong(content.get(limit - 1))));
+    }
+}
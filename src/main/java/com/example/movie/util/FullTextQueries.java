@@ -0,0 +1,24 @@
+package com.example.movie.util;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+// Turns free text from the search box into an FTS5 MATCH expression: every word becomes a quoted
+// prefix term ("matr"* "rel"*), so operators and quotes typed by the user are never interpreted
+public final class FullTextQueries {
+
+    private FullTextQueries() {
+    }
+
+    // Build the prefix MATCH expression, null when the text has no searchable words
+    public static String prefixMatch(String text) {
+        if (text == null) {
+            return null;
+        }
+        String match = Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> "\"" + word + "\"*")
+                .collect(Collectors.joining(" "));
+        return match.isEmpty() ? null : match;
+    }
+}
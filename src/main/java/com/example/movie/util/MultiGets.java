@@ -0,0 +1,57 @@
+package com.example.movie.util;
+
+import com.example.movie.DTO.MultiGetDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+// Multi-get requests such as GET /api/movies?ids=3,1,2: all IDs are read with one IN query,
+// the result keeps the order of the request and lists the IDs that were not found
+public final class MultiGets {
+
+    public static final int MAX_IDS = 100;
+
+    private MultiGets() {
+    }
+
+    // Validate the requested IDs, a repeated ID is kept once at its first position
+    public static List<Long> ids(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one ID is required");
+        }
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("IDs must not be empty");
+            }
+            distinct.add(id);
+        }
+        if (distinct.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " IDs can be requested at once");
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    // Put the rows read for the IDs in the order of the IDs and report the IDs without a row
+    public static <T> MultiGetDto<T> result(List<Long> ids, List<T> rows, ToLongFunction<T> idOf) {
+        Map<Long, T> rowsById = new HashMap<>();
+        for (T row : rows) {
+            rowsById.put(idOf.applyAsLong(row), row);
+        }
+        List<T> content = new ArrayList<>(rowsById.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            T row = rowsById.get(id);
+            if (row != null) {
+                content.add(row);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGetDto<>(content, missing);
+    }
+}
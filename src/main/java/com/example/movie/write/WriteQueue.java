@@ -0,0 +1,221 @@
+package com.example.movie.write;
+
+import com.example.movie.sql.QueryCounter;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Runs every mutation on one dedicated writer thread, since SQLite lets only one connection write at a time.
+// The thread takes the queued mutations in groups of up to max-batch-size, waiting at most max-linger for a
+// group to fill, and runs a group in one transaction so the group pays for a single commit (group commit).
+// Each caller blocks until its group has committed and gets its own result or exception. When a mutation of a
+// group fails, the whole group is rolled back and its mutations are run again one transaction each, so one
+// failing mutation does not fail the others.
+// The SQL statements of a mutation are counted in the QueryCounter scope of its caller; within a group each
+// mutation is flushed on its own, so its statements are issued, and counted, before the next mutation runs.
+// Work that must see the catalog at rest, such as rebuilding state kept up to date by the after-commit events,
+// can run between two groups instead: every write committed before it has had its listeners run, and no write
+// starts until it returns.
+@Component
+public class WriteQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteQueue.class);
+
+    private record Task(Supplier<?> mutation, QueryCounter.Scope scope, CompletableFuture<Object> result,
+                        boolean betweenGroups) {
+    }
+
+    private final BlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManager entityManager;
+
+    private final QueryCounter queryCounter;
+
+    private final int maxBatchSize;
+
+    private final long maxLingerNanos;
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    public WriteQueue(PlatformTransactionManager transactionManager,
+                      EntityManager entityManager,
+                      QueryCounter queryCounter,
+                      @Value("${movie.write-queue.max-batch-size:64}") int maxBatchSize,
+                      @Value("${movie.write-queue.max-linger:2ms}") Duration maxLinger) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("movie.write-queue.max-batch-size must be at least 1");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.queryCounter = queryCounter;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = maxLinger.toNanos();
+        this.writer = new Thread(this::run, "write-queue");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Run the mutation on the writer thread and wait for its group to commit, rethrowing its exception if it
+    // failed. Called on the writer thread itself, e.g. by a mutation, it runs inline in the current group.
+    public <T> T submit(Supplier<T> mutation) {
+        if (Thread.currentThread() == writer) {
+            return mutation.get();
+        }
+        return enqueue(mutation, false);
+    }
+
+    public void submit(Runnable mutation) {
+        submit(() -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    // Run the action on the writer thread after the groups queued before it have committed and before the next
+    // group starts, outside any transaction of the queue, and wait for its result
+    public <T> T runBetweenGroups(Supplier<T> action) {
+        if (Thread.currentThread() == writer) {
+            throw new IllegalStateException("The writer thread cannot wait for its own group to end");
+        }
+        return enqueue(action, true);
+    }
+
+    private <T> T enqueue(Supplier<T> mutation, boolean betweenGroups) {
+        if (!running) {
+            throw new IllegalStateException("The write queue is shut down");
+        }
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        queue.add(new Task(mutation, queryCounter.current(), result, betweenGroups));
+        try {
+            @SuppressWarnings("unchecked")
+            T value = (T) result.join();
+            return value;
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+    }
+
+    private void run() {
+        List<Task> group = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                group.add(queue.take());
+                collect(group);
+            } catch (InterruptedException ex) {
+                break;
+            }
+            runGroup(group);
+            group.clear();
+        }
+        // Fail whatever is still waiting
+        queue.drainTo(group);
+        group.forEach(task -> task.result().completeExceptionally(
+                new IllegalStateException("The write queue is shut down")));
+    }
+
+    // Add the mutations already queued, then wait up to the linger time for more until the group is full
+    private void collect(List<Task> group) throws InterruptedException {
+        queue.drainTo(group, maxBatchSize - group.size());
+        long deadline = System.nanoTime() + maxLingerNanos;
+        while (group.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Task task = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (task == null) {
+                break;
+            }
+            group.add(task);
+            queue.drainTo(group, maxBatchSize - group.size());
+        }
+    }
+
+    // Split the group at the tasks that run between groups, keeping the order of the queue
+    private void runGroup(List<Task> group) {
+        int start = 0;
+        for (int i = 0; i < group.size(); i++) {
+            if (group.get(i).betweenGroups()) {
+                runTransaction(group.subList(start, i));
+                runOutsideTransaction(group.get(i));
+                start = i + 1;
+            }
+        }
+        runTransaction(group.subList(start, group.size()));
+    }
+
+    private void runTransaction(List<Task> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+        if (group.size() == 1) {
+            runAlone(group.get(0));
+            return;
+        }
+        List<Object> results = new ArrayList<>(group.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> group.forEach(task ->
+                    results.add(queryCounter.attach(task.scope(), () -> {
+                        Object result = task.mutation().get();
+                        entityManager.flush();
+                        return result;
+                    }))));
+        } catch (RuntimeException | Error ex) {
+            log.debug("Write group of {} rolled back, running its mutations one by one", group.size(), ex);
+            group.forEach(this::runAlone);
+            return;
+        }
+        // The results are handed out only once the group has committed
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).result().complete(results.get(i));
+        }
+    }
+
+    private void runOutsideTransaction(Task task) {
+        try {
+            task.result().complete(queryCounter.attach(task.scope(), task.mutation()));
+        } catch (RuntimeException | Error ex) {
+            task.result().completeExceptionally(ex);
+        }
+    }
+
+    private void runAlone(Task task) {
+        try {
+            task.result().complete(queryCounter.attach(task.scope(),
+                    () -> transactionTemplate.execute(status -> task.mutation().get())));
+        } catch (RuntimeException | Error ex) {
+            task.result().completeExceptionally(ex);
+        }
+    }
+}
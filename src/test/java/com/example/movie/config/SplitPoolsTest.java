@@ -0,0 +1,137 @@
+package com.example.movie.config;
+
+import com.example.movie.entity.Genre;
+import com.example.movie.repository.GenreRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// With split pools, read-only transactions run on the reader pool and the others on the writer, and a reader sees
+// every write committed before its transaction began. WAL needs a database file, so the test opens one of its own.
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=true",
+        // One reader, so the connection that read before a write is the one that must see it
+        "movie.datasource.reader-pool-size=1",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class SplitPoolsTest {
+
+    @DynamicPropertySource
+    static void databaseFile(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("split-pools-test");
+        directory.toFile().deleteOnExit();
+        Path database = directory.resolve("movies.db");
+        database.toFile().deleteOnExit();
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + database);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HikariDataSource writerDataSource;
+
+    @Autowired
+    private HikariDataSource readerDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    private TransactionTemplate readTransaction;
+
+    private TransactionTemplate writeTransaction;
+
+    @BeforeEach
+    void clearCatalog() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        genreRepository.deleteAll();
+    }
+
+    @Test
+    void databaseIsInWalMode() {
+        assertEquals("wal", jdbcTemplate.queryForObject("PRAGMA journal_mode", String.class));
+    }
+
+    @Test
+    void readOnlyTransactionsRunOnTheReaderPool() {
+        readTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Genres", Long.class);
+            assertEquals(1, readerDataSource.getHikariPoolMXBean().getActiveConnections());
+            assertEquals(0, writerDataSource.getHikariPoolMXBean().getActiveConnections());
+            // The reader connections are opened read-only
+            DataAccessException rejected = assertThrows(DataAccessException.class,
+                    () -> jdbcTemplate.update("INSERT INTO Genres (name) VALUES ('Drama')"));
+            assertTrue(rejected.getMessage().contains("SQLITE_READONLY"), rejected.getMessage());
+        });
+    }
+
+    @Test
+    void writeTransactionsRunOnTheWriterPool() {
+        writeTransaction.executeWithoutResult(status -> {
+            genreRepository.saveAndFlush(genre("Drama"));
+            assertEquals(1, writerDataSource.getHikariPoolMXBean().getActiveConnections());
+            assertEquals(0, readerDataSource.getHikariPoolMXBean().getActiveConnections());
+        });
+        assertEquals(1, genreRepository.count());
+    }
+
+    @Test
+    void readsSeeTheWritesCommittedBeforeThem() throws Exception {
+        assertEquals(0, readTransaction.execute(status -> countGenres()).longValue());
+        Long id = writeTransaction.execute(status -> genreRepository.save(genre("Drama")).getId());
+        assertEquals(1, readTransaction.execute(status -> countGenres()).longValue());
+
+        // The same through the API, whose writes go through the write queue and whose reads are read-only
+        mockMvc.perform(patch("/api/genres/" + id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Period Drama\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Period Drama"));
+        assertEquals("Period Drama", readTransaction.execute(status -> jdbcTemplate.queryForObject(
+                "SELECT name FROM Genres WHERE id = ?", String.class, id)));
+    }
+
+    private Long countGenres() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Genres", Long.class);
+    }
+
+    private static Genre genre(String name) {
+        Genre genre = new Genre();
+        genre.setName(name);
+        return genre;
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.movie.controller;
+
+import com.example.movie.cache.ResponseCache;
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.CatalogJdbcRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.sql.RequestStatements;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every item of a bulk create is either created with its generated ID or reported with its reason, and the
+// rows written through JDBC are seen by every read afterwards
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:bulk-create-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "movie.bulk.max-items=3",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class BulkCreateTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private RequestStatements statements;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @SpyBean
+    private CatalogJdbcRepository catalogJdbcRepository;
+
+    private Genre genre;
+
+    @BeforeEach
+    void clearCatalog() {
+        statements = new RequestStatements(mockMvc, context);
+        movieRepository.deleteAll();
+        actorRepository.deleteAll();
+        genreRepository.deleteAll();
+        // The deletes bypass the write paths that invalidate the serialized responses
+        responseCache.invalidateAll();
+        genre = new Genre();
+        genre.setName("Drama");
+        genre = genreRepository.save(genre);
+    }
+
+    @Test
+    void readsCachedBeforeABulkCreateSeeTheCreatedRows() throws Exception {
+        // Put the empty results in the query cache and the genre's movies in the collection cache
+        mockMvc.perform(get("/api/actors/1")).andExpect(status().isNotFound());
+        assertEquals(0, json(get("/api/actors")).get("content").size());
+        assertEquals(0, json(get("/api/genres/" + genre.getId())).get("movies").size());
+
+        JsonNode actors = perform(post("/api/actors/bulk").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"name\":\"Bulk Actor\",\"birthDate\":\"1970-01-01\"}]"), status().isCreated());
+        assertEquals(1, actors.get("items").get(0).get("id").asLong());
+        perform(post("/api/movies/bulk").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"title\":\"Bulk Movie\",\"releaseYear\":2000,\"duration\":90,\"genreId\":" + genre.getId()
+                        + ",\"actorIds\":[1]}]"), status().isCreated());
+
+        assertEquals("Bulk Actor", json(get("/api/actors/1")).get("name").asText());
+        assertEquals(1, json(get("/api/actors")).get("content").size());
+        JsonNode movies = json(get("/api/genres/" + genre.getId())).get("movies");
+        assertEquals(1, movies.size());
+        assertEquals("Bulk Movie", movies.get(0).get("title").asText());
+    }
+
+    @Test
+    void partialModeCreatesTheValidItemsWithConsecutiveIds() throws Exception {
+        JsonNode result = perform(bulkMovies(false, movie("One"), "{\"releaseYear\":2000}",
+                movie("Two").replace("\"genreId\":" + genre.getId(), "\"genreId\":999")), status().isOk());
+        assertEquals(1, result.get("created").asInt());
+        assertEquals(2, result.get("rejected").asInt());
+        assertEquals(List.of("0 1 null", "1 null Movie title is required", "2 null Genre not found with ID: 999"),
+                items(result));
+
+        // Every item created: 201, the IDs follow the largest one in the table
+        result = perform(bulkMovies(false, movie("Three"), movie("Four")), status().isCreated());
+        assertEquals(List.of("0 2 null", "1 3 null"), items(result));
+        assertEquals(3, movieRepository.count());
+
+        // Nothing created: 400
+        result = perform(bulkMovies(false, "{\"releaseYear\":2000}"), status().isBadRequest());
+        assertEquals(0, result.get("created").asInt());
+        assertEquals(3, movieRepository.count());
+    }
+
+    @Test
+    void atomicModeCreatesNothingWhenAnItemIsRejected() throws Exception {
+        JsonNode result = perform(bulkMovies(true, movie("One"), "{\"title\":\"Far\",\"releaseYear\":3000,\"duration\":90,"
+                + "\"genreId\":" + genre.getId() + "}"), status().isBadRequest());
+        assertTrue(result.get("atomic").asBoolean());
+        assertEquals(0, result.get("created").asInt());
+        assertEquals(2, result.get("rejected").asInt());
+        assertEquals(List.of("0 null Not created: the request is all-or-nothing and another item was rejected",
+                "1 null Release year should be valid"), items(result));
+        assertEquals(0, movieRepository.count());
+
+        // Actors follow the same rules, with their movies checked in one lookup
+        result = perform(post("/api/actors/bulk").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"name\":\"Kept\",\"birthDate\":\"1970-01-01\"},"
+                        + "{\"name\":\"Linked\",\"birthDate\":\"1970-01-01\",\"movieIds\":[42]}]"),
+                status().isBadRequest());
+        assertEquals("1 null Movies not found with IDs: [42]", items(result).get(1));
+        assertEquals(0, actorRepository.count());
+    }
+
+    @Test
+    void aFailedWriteRollsBackEveryItem() throws Exception {
+        doThrow(new DataIntegrityViolationException("constraint failed")).doCallRealMethod()
+                .when(catalogJdbcRepository).insertMovies(anyList());
+        JsonNode result = perform(bulkMovies(false, movie("One"), movie("Two")), status().isBadRequest());
+        assertEquals(List.of("0 null Rolled back: constraint failed", "1 null Rolled back: constraint failed"),
+                items(result));
+        assertEquals(0, movieRepository.count());
+
+        // The writer thread is free again
+        perform(bulkMovies(false, movie("Three")), status().isCreated());
+        assertEquals(1, movieRepository.count());
+    }
+
+    @Test
+    void requestsOutsideTheItemLimitsAreRejected() throws Exception {
+        mockMvc.perform(bulkMovies(true, movie("One"), movie("Two"), movie("Three"), movie("Four")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(bulkMovies(true)).andExpect(status().isBadRequest());
+        perform(bulkMovies(true, movie("One"), movie("Two"), movie("Three")), status().isCreated());
+        assertEquals(3, movieRepository.count());
+    }
+
+    @Test
+    void bulkCreatesIssueExpectedStatements() throws Exception {
+        long actorId = actorRepository.save(Actor.builder().name("Actor").birthDate(LocalDate.of(1970, 1, 1)).build())
+                .getId();
+        // Two lookups, the next ID and two batches whatever the number of items, and after the commit one query
+        // per created movie that refreshes the movie count of its actors in the autocomplete index; the co-star
+        // graph and the similar movies index take the created movies from the events without reading anything
+        String bulkMovie = movie("Bulk").replace("}", ",\"actorIds\":[" + actorId + "]}");
+        statements.assertStatements(8, bulkMovies(true, bulkMovie, bulkMovie, bulkMovie));
+        // Actors without movies: the next ID, one batch, and one autocomplete query per created actor
+        String bulkActor = "{\"name\":\"Bulk\",\"birthDate\":\"1970-01-01\"}";
+        statements.assertStatements(4, post("/api/actors/bulk").contentType(MediaType.APPLICATION_JSON)
+                .content("[" + bulkActor + "," + bulkActor + "]"));
+    }
+
+    private MockHttpServletRequestBuilder bulkMovies(boolean atomic, String... movies) {
+        return post("/api/movies/bulk").param("atomic", String.valueOf(atomic))
+                .contentType(MediaType.APPLICATION_JSON).content("[" + String.join(",", movies) + "]");
+    }
+
+    private String movie(String title) {
+        return "{\"title\":\"" + title + "\",\"releaseYear\":2000,\"duration\":90,\"genreId\":" + genre.getId() + "}";
+    }
+
+    // "index id error" of every item result
+    private static List<String> items(JsonNode result) {
+        List<String> items = new ArrayList<>();
+        result.get("items").forEach(item -> items.add(item.get("index").asInt() + " "
+                + (item.get("id").isNull() ? "null" : item.get("id").asText()) + " " + item.get("error").asText()));
+        return items;
+    }
+
+    private JsonNode json(MockHttpServletRequestBuilder request) throws Exception {
+        return perform(request, status().isOk());
+    }
+
+    private JsonNode perform(MockHttpServletRequestBuilder request, ResultMatcher status) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(request).andExpect(status)
+                .andReturn().getResponse().getContentAsString());
+    }
+}
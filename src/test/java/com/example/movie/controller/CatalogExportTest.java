@@ -0,0 +1,125 @@
+package com.example.movie.controller;
+
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The export writes one line per movie with its genre and actors, as NDJSON or as RFC 4180 CSV
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:catalog-export-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class CatalogExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    private Genre genre;
+
+    private Actor first;
+
+    private Actor second;
+
+    private Movie plain;
+
+    private Movie quoted;
+
+    @BeforeEach
+    void seedCatalog() {
+        movieRepository.deleteAll();
+        actorRepository.deleteAll();
+        genreRepository.deleteAll();
+        genre = new Genre();
+        genre.setName("Crime, Drama");
+        genre = genreRepository.save(genre);
+        first = actorRepository.save(Actor.builder().name("Al Pacino").birthDate(LocalDate.of(1940, 4, 25)).build());
+        second = actorRepository.save(Actor.builder().name("Robert De Niro").birthDate(LocalDate.of(1943, 8, 17)).build());
+        plain = movieRepository.save(Movie.builder().title("Plain").releaseYear(1995).duration(170).genre(genre)
+                .actors(List.of(first, second)).build());
+        quoted = movieRepository.save(Movie.builder().title("Heat, Part \"Two\"").releaseYear(2026).duration(150)
+                .genre(genre).actors(List.of()).build());
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerMovie() throws Exception {
+        String body = export("ndjson", "application/x-ndjson", "movies.ndjson");
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+
+        JsonNode movie = objectMapper.readTree(lines.get(0));
+        assertEquals(plain.getId(), movie.get("id").asLong());
+        assertEquals("Plain", movie.get("title").asText());
+        assertEquals("Crime, Drama", movie.get("genre").get("name").asText());
+        assertEquals(List.of(first.getId(), second.getId()),
+                List.of(movie.get("actors").get(0).get("id").asLong(), movie.get("actors").get(1).get("id").asLong()));
+        JsonNode other = objectMapper.readTree(lines.get(1));
+        assertEquals("Heat, Part \"Two\"", other.get("title").asText());
+        assertEquals(0, other.get("actors").size());
+    }
+
+    @Test
+    void csvJoinsTheActorsAndQuotesFieldsWithSeparatorsOrQuotes() throws Exception {
+        String body = export("csv", "text/csv;charset=UTF-8", "movies.csv");
+        assertEquals(List.of(
+                "id,title,release_year,duration,genre_id,genre_name,actor_ids,actor_names",
+                plain.getId() + ",Plain,1995,170," + genre.getId() + ",\"Crime, Drama\","
+                        + first.getId() + "|" + second.getId() + ",Al Pacino|Robert De Niro",
+                quoted.getId() + ",\"Heat, Part \"\"Two\"\"\",2026,150," + genre.getId() + ",\"Crime, Drama\",,"
+        ), body.lines().toList());
+    }
+
+    @Test
+    void unknownFormatsAreRejected() throws Exception {
+        mockMvc.perform(get("/api/export/movies?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    // The body is streamed after the handler returned, so it is read from the async dispatch
+    private String export(String format, String contentType, String filename) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/export/movies?format=" + format))
+                .andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(contentType))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"" + filename + "\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+}
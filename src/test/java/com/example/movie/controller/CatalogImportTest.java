@@ -0,0 +1,78 @@
+package com.example.movie.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every line of an import is either imported or reported with its reason, whatever it holds
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:catalog-import-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "movie.import.chunk-size=4",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class CatalogImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void reportsTheImportedRowsAndEveryRejectedLine() throws Exception {
+        String body = String.join("\n",
+                "{\"type\":\"genre\",\"id\":1,\"name\":\"Drama\"}",
+                "{\"type\":\"genre\",",
+                "null",
+                "[1, 2]",
+                "{\"type\":\"actor\",\"name\":\"Unborn\",\"birthDate\":\"2999-01-01\"}",
+                "{\"type\":\"actor\",\"id\":1,\"name\":\"Actor One\",\"birthDate\":\"1970-01-01\"}",
+                "",
+                "{\"type\":\"movie\",\"title\":\"Kept\",\"releaseYear\":1999,\"duration\":100,\"genreId\":1,\"actorIds\":[1]}",
+                "{\"type\":\"movie\",\"title\":\"Far\",\"releaseYear\":3000,\"duration\":100,\"genreId\":1}",
+                "42");
+        String response = mockMvc.perform(post("/api/import").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        JsonNode report = objectMapper.readTree(response);
+
+        assertEquals(10, report.get("lines").asLong());
+        assertEquals(1, report.get("genres").asLong());
+        assertEquals(1, report.get("actors").asLong());
+        assertEquals(1, report.get("movies").asLong());
+        assertEquals(1, report.get("movieActorLinks").asLong());
+        assertEquals(6, report.get("rejected").asLong());
+        // The five parsed objects are written in two chunks of up to four lines
+        assertEquals(2, report.get("chunks").size());
+
+        List<String> rejects = new ArrayList<>();
+        report.get("rejectedLines").forEach(reject -> rejects.add(reject.get("line") + " " + reject.get("reason").asText()));
+        rejects.sort(null);
+        assertEquals(6, rejects.size());
+        assertTrue(rejects.get(0).startsWith("10 Line must be a JSON object"), rejects.get(0));
+        assertTrue(rejects.get(1).startsWith("2 Malformed JSON"), rejects.get(1));
+        assertEquals(List.of("3 Line must be a JSON object", "4 Line must be a JSON object",
+                "5 Birth date must be in the past", "9 Release year should be valid"), rejects.subList(2, 6));
+
+        JsonNode movies = objectMapper.readTree(mockMvc.perform(get("/api/movies")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("content");
+        assertEquals(1, movies.size());
+        assertEquals("Kept", movies.get(0).get("title").asText());
+        assertEquals("Actor One", movies.get(0).get("actors").get(0).get("name").asText());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.movie.controller;
+
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.service.ActorService;
+import com.example.movie.service.GenreService;
+import com.example.movie.service.MovieService;
+import com.example.movie.util.Cursors;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The list endpoints write their pages straight from the rows; the JSON must be the one the DTO converters give
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:list-streaming-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class CatalogListStreamingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ActorService actorService;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @BeforeEach
+    void seedCatalog() {
+        if (movieRepository.count() > 0) {
+            return;
+        }
+        List<Genre> genres = new ArrayList<>();
+        for (String name : List.of("Drama", "Comedy \"Classics\"", "Empty")) {
+            Genre genre = new Genre();
+            genre.setName(name);
+            genres.add(genreRepository.save(genre));
+        }
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            actors.add(actorRepository.save(Actor.builder()
+                    .name("Actor " + i)
+                    .birthDate(LocalDate.of(1970 + i, 1, 1))
+                    .build()));
+        }
+        for (int i = 0; i < 12; i++) {
+            movieRepository.save(Movie.builder()
+                    .title("Movie " + i)
+                    .releaseYear(2000)
+                    .duration(90 + i)
+                    .genre(genres.get(i % 2))
+                    .actors(i % 5 == 0 ? List.of() : List.of(actors.get(0), actors.get(1 + i % 3)))
+                    .build());
+        }
+    }
+
+    @Test
+    void streamedPagesMatchTheConvertedDtos() throws Exception {
+        for (Integer size : new Integer[]{null, 1, 5, 100}) {
+            for (String cursor : new String[]{null, Cursors.encode(3)}) {
+                String query = "?" + (size != null ? "size=" + size : "") + (cursor != null ? "&cursor=" + cursor : "");
+                assertJson(movieService.getAllMovies(cursor, size), "/api/movies" + query);
+                assertJson(actorService.getAllActors(cursor, size), "/api/actors" + query);
+                assertJson(genreService.getAllGenres(cursor, size), "/api/genres" + query);
+            }
+        }
+    }
+
+    private void assertJson(Object expected, String uri) throws Exception {
+        String body = mockMvc.perform(get(uri)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(expected)), objectMapper.readTree(body), uri);
+    }
+}
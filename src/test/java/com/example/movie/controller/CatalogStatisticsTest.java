@@ -0,0 +1,147 @@
+package com.example.movie.controller;
+
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.sql.RequestStatements;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The statistics follow the movie and genre writes without rescanning, and the check repairs writes made behind their back
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:catalog-stats-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class CatalogStatisticsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Test
+    void statisticsFollowWritesAndTheCheckRepairsDrift() throws Exception {
+        long drama = create("/api/genres", "{\"name\":\"Drama\"}");
+        long comedy = create("/api/genres", "{\"name\":\"Comedy\"}");
+        long western = create("/api/genres", "{\"name\":\"Western\"}");
+        long first = create("/api/movies", movie(1999, 100, drama));
+        long second = create("/api/movies", movie(2001, 120, drama));
+        create("/api/movies", movie(2001, 90, comedy));
+        create("/api/movies", movie(1960, 150, western));
+        mockMvc.perform(json(patch("/api/movies/" + second), "{\"releaseYear\":2005,\"genreId\":" + comedy + "}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/movies/" + first)).andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/genres/" + western + "?cascade=true")).andExpect(status().isNoContent());
+
+        assertEquals(List.of("Drama 0 null", "Comedy 2 105.0"), genres());
+        assertEquals(List.of("2001 1 90.0", "2005 1 120.0"), years("/api/stats/years"));
+        assertEquals(List.of("2005 1 120.0"), years("/api/stats/years?from=2002&to=2010"));
+        JsonNode range = call(get("/api/stats/years/range?from=1990&to=2003"));
+        assertEquals(1, range.get("movies").asLong());
+        assertEquals(90.0, range.get("averageDuration").asDouble());
+        JsonNode all = call(get("/api/stats/years/range"));
+        assertEquals("2001 2005 2", all.get("from") + " " + all.get("to") + " " + all.get("movies"));
+        mockMvc.perform(get("/api/stats/years/range?from=2010&to=2000")).andExpect(status().isBadRequest());
+
+        assertTrue(call(post("/api/stats/check")).get("consistent").asBoolean());
+
+        // A row written without going through the write paths is only picked up by the check
+        Genre genre = genreRepository.findById(drama).orElseThrow();
+        movieRepository.save(Movie.builder().title("Unseen").releaseYear(2020).duration(80).genre(genre).build());
+        JsonNode check = call(post("/api/stats/check"));
+        assertFalse(check.get("consistent").asBoolean());
+        assertEquals(1, check.get("genresRepaired").asInt());
+        assertEquals(1, check.get("yearsRepaired").asInt());
+        assertEquals(List.of("Drama 1 80.0", "Comedy 2 105.0"), genres());
+        assertTrue(call(post("/api/stats/check")).get("consistent").asBoolean());
+
+        // Release years past the accepted window are rejected by the create paths, which the year trees are sized to
+        mockMvc.perform(json(post("/api/movies"), movie(2_000_000_000, 100, drama))).andExpect(status().isBadRequest());
+        JsonNode bulk = objectMapper.readTree(mockMvc.perform(json(post("/api/movies/bulk"),
+                        "[" + movie(2_000_000_000, 100, drama) + "]"))
+                .andExpect(status().isBadRequest()).andReturn().getResponse().getContentAsString());
+        assertEquals(0, bulk.get("created").asInt());
+        assertEquals(List.of("Drama 1 80.0", "Comedy 2 105.0"), genres());
+        assertTrue(call(post("/api/stats/check")).get("consistent").asBoolean());
+    }
+
+    @Test
+    void statisticsAreServedWithoutStatements() throws Exception {
+        // Read from the in-memory figures
+        RequestStatements statements = new RequestStatements(mockMvc, context);
+        statements.assertStatements(0, get("/api/stats/genres"));
+        statements.assertStatements(0, get("/api/stats/years/range?from=1990&to=2010"));
+    }
+
+    private List<String> genres() throws Exception {
+        return stream(call(get("/api/stats/genres"))).stream()
+                .map(genre -> genre.get("name").asText() + " " + genre.get("movies") + " " + genre.get("averageDuration"))
+                .toList();
+    }
+
+    private List<String> years(String uri) throws Exception {
+        return stream(call(get(uri))).stream()
+                .map(year -> year.get("year") + " " + year.get("movies") + " " + year.get("averageDuration"))
+                .toList();
+    }
+
+    private static List<JsonNode> stream(JsonNode array) {
+        List<JsonNode> nodes = new ArrayList<>();
+        array.forEach(nodes::add);
+        return nodes;
+    }
+
+    private static String movie(int releaseYear, int duration, long genreId) {
+        return "{\"title\":\"Movie " + releaseYear + "\",\"releaseYear\":" + releaseYear + ",\"duration\":" + duration
+                + ",\"genreId\":" + genreId + ",\"actorIds\":[]}";
+    }
+
+    private long create(String uri, String body) throws Exception {
+        String response = mockMvc.perform(json(post(uri), body)).andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    private JsonNode call(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.movie.controller;
+
+import com.example.movie.sql.RequestStatements;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every write is logged in its own transaction, link changes included, and a failed write logs nothing
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:change-log-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class ChangeLogTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void writesAreReadBackInCommitOrder() throws Exception {
+        String since = call(get("/api/changes/head"), status().isOk()).get("next").asText();
+
+        long genreId = call(json(post("/api/genres"), "{\"name\":\"Drama\"}"), status().isCreated()).get("id").asLong();
+        long first = call(json(post("/api/actors"), "{\"name\":\"First\",\"birthDate\":\"1970-01-01\"}"),
+                status().isCreated()).get("id").asLong();
+        long second = call(json(post("/api/actors"), "{\"name\":\"Second\",\"birthDate\":\"1971-01-01\"}"),
+                status().isCreated()).get("id").asLong();
+        long movieId = call(json(post("/api/movies"), "{\"title\":\"Movie\",\"releaseYear\":2000,\"duration\":90,"
+                + "\"genreId\":" + genreId + ",\"actorIds\":[" + first + "]}"), status().isCreated()).get("id").asLong();
+        mockMvc.perform(json(patch("/api/movies/" + movieId), "{\"actorIds\":[" + second + "]}"))
+                .andExpect(status().isOk());
+        // Rejected: the movie still has actors
+        mockMvc.perform(delete("/api/movies/" + movieId)).andExpect(status().isBadRequest());
+
+        List<String> expected = List.of(
+                "genre CREATED " + genreId,
+                "actor CREATED " + first,
+                "actor CREATED " + second,
+                "movie CREATED " + movieId,
+                "movie_actor CREATED " + movieId + "/" + first,
+                "movie_actor DELETED " + movieId + "/" + first,
+                "movie_actor CREATED " + movieId + "/" + second);
+
+        // Read in batches of 3, following the cursors
+        List<String> changes = new ArrayList<>();
+        JsonNode batch = call(get("/api/changes?limit=3&since=" + since), status().isOk());
+        while (batch.get("hasMore").asBoolean()) {
+            assertEquals(3, batch.get("changes").size());
+            batch.get("changes").forEach(change -> changes.add(describe(change)));
+            batch = call(get("/api/changes?limit=3&since=" + batch.get("next").asText()), status().isOk());
+        }
+        batch.get("changes").forEach(change -> changes.add(describe(change)));
+        assertEquals(expected, changes);
+
+        // Polling at the end returns nothing and the same cursor
+        JsonNode end = call(get("/api/changes?since=" + batch.get("next").asText()), status().isOk());
+        assertTrue(end.get("changes").isEmpty());
+        assertFalse(end.get("hasMore").asBoolean());
+        assertEquals(batch.get("next").asText(), end.get("next").asText());
+    }
+
+    @Test
+    void changesIssueExpectedStatements() throws Exception {
+        // One keyset read of the log
+        new RequestStatements(mockMvc, context).assertStatements(1, get("/api/changes?limit=10"));
+    }
+
+    private static String describe(JsonNode change) {
+        String id = change.get("entityId").asText()
+                + (change.get("relatedId").isNull() ? "" : "/" + change.get("relatedId").asText());
+        return change.get("entity").asText() + " " + change.get("type").asText() + " " + id;
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    private JsonNode call(MockHttpServletRequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        String body = mockMvc.perform(request).andExpect(expectedStatus).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
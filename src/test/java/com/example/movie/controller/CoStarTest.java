@@ -0,0 +1,150 @@
+package com.example.movie.controller;
+
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import com.example.movie.graph.CoStarGraph;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.sql.RequestStatements;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Co-stars rank by the number of shared movies, and the path between two actors is a shortest chain of co-stars
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:co-star-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class CoStarTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private RequestStatements statements;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private CoStarGraph coStarGraph;
+
+    // IDs of the actors and the movies by their position in the seed, from 0
+    private final List<Long> actors = new ArrayList<>();
+
+    private final List<Long> movies = new ArrayList<>();
+
+    @BeforeEach
+    void seedCatalog() {
+        statements = new RequestStatements(mockMvc, context);
+        movieRepository.deleteAll();
+        actorRepository.deleteAll();
+        genreRepository.deleteAll();
+        Genre genre = new Genre();
+        genre.setName("Drama");
+        genre = genreRepository.save(genre);
+        List<Actor> saved = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            saved.add(actorRepository.save(Actor.builder().name("Actor " + i).birthDate(LocalDate.of(1970, 1, i + 1)).build()));
+            actors.add(saved.get(i).getId());
+        }
+        // 0 and 1 share two movies, 1 and 2 one, 2 and 3 one; 4 plays alone
+        movies.add(movie("First", genre, saved.get(0), saved.get(1)));
+        movies.add(movie("Second", genre, saved.get(0), saved.get(1), saved.get(2)));
+        movies.add(movie("Third", genre, saved.get(2), saved.get(3)));
+        movies.add(movie("Alone", genre, saved.get(4)));
+        // Rows saved through the repositories publish no change events
+        coStarGraph.load();
+    }
+
+    @Test
+    void coStarsRankBySharedMovies() throws Exception {
+        JsonNode coStars = perform("/api/actors/" + actors.get(1) + "/costars");
+        assertEquals(List.of(actors.get(0), actors.get(2)), ids(coStars));
+        assertEquals("Actor 0", coStars.get(0).get("name").asText());
+        assertEquals(2, coStars.get(0).get("sharedMovies").asInt());
+        assertEquals(1, coStars.get(1).get("sharedMovies").asInt());
+
+        assertEquals(List.of(actors.get(0)), ids(perform("/api/actors/" + actors.get(1) + "/costars?limit=1")));
+        assertEquals(List.of(), ids(perform("/api/actors/" + actors.get(4) + "/costars")));
+        mockMvc.perform(get("/api/actors/999/costars")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void pathsAreShortestChainsOfCoStars() throws Exception {
+        JsonNode path = perform("/api/actors/path?from=" + actors.get(0) + "&to=" + actors.get(3));
+        assertTrue(path.get("connected").asBoolean());
+        assertEquals(2, path.get("degrees").asInt());
+        // Each step names the movie linking the actor to the previous one
+        JsonNode steps = path.get("steps");
+        assertEquals(3, steps.size());
+        assertEquals(actors.get(0), steps.get(0).get("actorId").asLong());
+        assertTrue(steps.get(0).get("movieId").isNull());
+        assertEquals(actors.get(2), steps.get(1).get("actorId").asLong());
+        assertEquals("Second", steps.get(1).get("movieTitle").asText());
+        assertEquals(actors.get(3), steps.get(2).get("actorId").asLong());
+        assertEquals(movies.get(2), steps.get(2).get("movieId").asLong());
+        assertEquals("Actor 3", steps.get(2).get("actorName").asText());
+
+        JsonNode unconnected = perform("/api/actors/path?from=" + actors.get(0) + "&to=" + actors.get(4));
+        assertFalse(unconnected.get("connected").asBoolean());
+        assertTrue(unconnected.get("degrees").isNull());
+        assertEquals(0, unconnected.get("steps").size());
+        mockMvc.perform(get("/api/actors/path?from=" + actors.get(0) + "&to=999")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void coStarsIssueExpectedStatements() throws Exception {
+        // The graph answers; one IN query reads the names of the co-stars, or of the path's actors and its movies
+        statements.assertStatements(1, get("/api/actors/" + actors.get(1) + "/costars"));
+        statements.assertStatements(2, get("/api/actors/path?from=" + actors.get(0) + "&to=" + actors.get(3)));
+    }
+
+    private Long movie(String title, Genre genre, Actor... cast) {
+        return movieRepository.save(Movie.builder().title(title).releaseYear(2000).duration(100).genre(genre)
+                .actors(new ArrayList<>(List.of(cast))).build()).getId();
+    }
+
+    private JsonNode perform(String path) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(path)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static List<Long> ids(JsonNode items) {
+        List<Long> ids = new ArrayList<>();
+        items.forEach(item -> ids.add(item.get("id").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.movie.controller;
+
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.sql.QueryCounter;
+import com.example.movie.sql.RequestStatements;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A current ETag is answered with 304 from the version lookup alone, and any change of what the response embeds
+// changes the ETag
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:conditional-get-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    private RequestStatements statements;
+
+    private Genre genre;
+
+    private Actor actor;
+
+    private Movie movie;
+
+    @BeforeEach
+    void seedCatalog() {
+        statements = new RequestStatements(mockMvc, context);
+        movieRepository.deleteAll();
+        actorRepository.deleteAll();
+        genreRepository.deleteAll();
+        genre = new Genre();
+        genre.setName("Drama");
+        genre = genreRepository.save(genre);
+        actor = actorRepository.save(Actor.builder().name("Actor").birthDate(LocalDate.of(1970, 1, 1)).build());
+        movie = movieRepository.save(Movie.builder().title("Movie").releaseYear(2000).duration(90).genre(genre)
+                .actors(List.of(actor)).build());
+    }
+
+    @Test
+    void currentEtagsAreAnsweredFromTheVersionLookup() throws Exception {
+        String movieTag = etag(get("/api/movies/" + movie.getId()));
+        String actorMoviesTag = etag(get("/api/actors/" + actor.getId() + "/movies"));
+
+        // A current ETag costs the version lookup only, and nothing once the response is cached
+        statements.assertStatements(1, get("/api/movies/" + movie.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, movieTag), status().isNotModified());
+        statements.assertStatements(1, get("/api/actors/" + actor.getId() + "/movies")
+                .header(HttpHeaders.IF_NONE_MATCH, actorMoviesTag), status().isNotModified());
+        mockMvc.perform(get("/api/movies/" + movie.getId()));
+        queryCounter.assertStatements(0, "cached GET /api/movies/" + movie.getId(), () -> mockMvc
+                .perform(get("/api/movies/" + movie.getId()).header(HttpHeaders.IF_NONE_MATCH, movieTag))
+                .andExpect(status().isNotModified()));
+
+        // Renaming the genre the movie embeds changes both representations
+        mockMvc.perform(patch("/api/genres/" + genre.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Period Drama\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/movies/" + movie.getId()).header(HttpHeaders.IF_NONE_MATCH, movieTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/actors/" + actor.getId() + "/movies").header(HttpHeaders.IF_NONE_MATCH, actorMoviesTag))
+                .andExpect(status().isOk());
+    }
+
+    private String etag(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.movie.controller;
+
+import com.example.movie.entity.Genre;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.sql.RequestStatements;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The full-text indexes follow every insert, update and delete of the base tables, and match every word as a prefix
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:full-text-search-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class FullTextSearchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private RequestStatements statements;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Genre genre;
+
+    @BeforeEach
+    void clearCatalog() {
+        statements = new RequestStatements(mockMvc, context);
+        movieRepository.deleteAll();
+        actorRepository.deleteAll();
+        genreRepository.deleteAll();
+        genre = new Genre();
+        genre.setName("Drama");
+        genre = genreRepository.save(genre);
+    }
+
+    @Test
+    void movieSearchFollowsInsertsUpdatesAndDeletes() throws Exception {
+        long matrix = createMovie("Matrix");
+        long reloaded = createMovie("Matrix Reloaded");
+        long amelie = createMovie("Le Fabuleux Destin d'Amélie Poulain");
+
+        // Every word is a prefix, all words must match, the shorter title ranks first, accents are ignored
+        assertEquals(List.of(matrix, reloaded), searchMovies("matr"));
+        assertEquals(List.of(reloaded), searchMovies("MATR rel"));
+        assertEquals(List.of(amelie), searchMovies("amelie"));
+        // Operators typed by the user are plain words
+        assertEquals(List.of(), searchMovies("matrix NOT reloaded"));
+
+        perform(patch("/api/movies/" + reloaded).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Inception\"}"));
+        assertEquals(List.of(), searchMovies("rel"));
+        assertEquals(List.of(reloaded), searchMovies("incep"));
+        assertEquals(List.of(matrix), searchMovies("matr"));
+
+        mockMvc.perform(delete("/api/movies/" + matrix)).andExpect(status().isNoContent());
+        assertEquals(List.of(), searchMovies("matr"));
+    }
+
+    @Test
+    void actorSearchFollowsInsertsUpdatesAndDeletes() throws Exception {
+        long keanu = createActor("Keanu Reeves");
+        long carrie = createActor("Carrie-Anne Moss");
+        // An actor update names the actor's movies
+        long matrix = createMovie("Matrix");
+
+        assertEquals(List.of(keanu), searchActors("kea ree"));
+        assertEquals(List.of(carrie), searchActors("anne"));
+
+        perform(patch("/api/actors/" + keanu).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Laurence Fishburne\",\"movieIds\":[" + matrix + "]}"));
+        assertEquals(List.of(), searchActors("keanu"));
+        assertEquals(List.of(keanu), searchActors("laur"));
+
+        mockMvc.perform(delete("/api/actors/" + carrie)).andExpect(status().isNoContent());
+        assertEquals(List.of(), searchActors("moss"));
+    }
+
+    @Test
+    void rebuildReindexesRowsTheIndexMissed() throws Exception {
+        long matrix = createMovie("Matrix");
+        long keanu = createActor("Keanu Reeves");
+        // Empty the indexes without touching the base tables, as if the rows were written without the triggers
+        jdbcTemplate.update("INSERT INTO movie_fts(movie_fts) VALUES ('delete-all')");
+        jdbcTemplate.update("INSERT INTO actor_fts(actor_fts) VALUES ('delete-all')");
+        assertEquals(List.of(), searchMovies("matr"));
+
+        mockMvc.perform(post("/api/search/rebuild")).andExpect(status().isNoContent());
+        assertEquals(List.of(matrix), searchMovies("matr"));
+        assertEquals(List.of(keanu), searchActors("keanu"));
+    }
+
+    @Test
+    void searchesIssueExpectedStatements() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            createMovie("Movie " + i);
+            createActor("Actor " + i);
+        }
+        // The page of IDs and its count from the index, then the movies and their actors, or the actors
+        statements.assertStatements(4, get("/api/movies/search?q=movie&page=0&size=5"));
+        statements.assertStatements(3, get("/api/actors/search?q=actor&page=0&size=5"));
+    }
+
+    private long createMovie(String title) throws Exception {
+        return perform(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"" + title + "\",\"releaseYear\":2000,\"duration\":100,\"genreId\":"
+                        + genre.getId() + ",\"actorIds\":[]}")).get("id").asLong();
+    }
+
+    private long createActor(String name) throws Exception {
+        return perform(post("/api/actors").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"" + name + "\",\"birthDate\":\"1970-01-01\"}")).get("id").asLong();
+    }
+
+    private List<Long> searchMovies(String q) throws Exception {
+        return ids(perform(get("/api/movies/search").param("q", q)));
+    }
+
+    private List<Long> searchActors(String q) throws Exception {
+        return ids(perform(get("/api/actors/search").param("q", q)));
+    }
+
+    private static List<Long> ids(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.get("content").forEach(item -> ids.add(item.get("id").asLong()));
+        assertEquals(ids.size(), page.get("totalElements").asInt());
+        return ids;
+    }
+
+    private JsonNode perform(MockHttpServletRequestBuilder request) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(request).andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.movie.controller;
+
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.sql.RequestStatements;
+import com.example.movie.util.Cursors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Pins the exact number of SQL statements issued by the core movie, actor and genre endpoints, so N+1 loading
+// of genres, actors and movies cannot creep back into the DTO conversion. The endpoints added since pin their
+// statements next to their own tests, with RequestStatements.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:query-count-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class MovieControllerQueryCountTest {
+
+    private static final int MOVIE_COUNT = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    private RequestStatements statements;
+
+    private Genre genre;
+
+    private Actor actor;
+
+    private final List<Long> movies = new ArrayList<>();
+
+    // Every test starts from the same catalog, whatever the tests before it wrote
+    @BeforeEach
+    void seedCatalog() {
+        statements = new RequestStatements(mockMvc, context);
+        movieRepository.deleteAll();
+        actorRepository.deleteAll();
+        genreRepository.deleteAll();
+
+        genre = new Genre();
+        genre.setName("Drama");
+        genre = genreRepository.save(genre);
+
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            actors.add(actorRepository.save(Actor.builder()
+                    .name("Actor " + i)
+                    .birthDate(LocalDate.of(1970 + i, 1, 1))
+                    .build()));
+        }
+        actor = actors.get(0);
+
+        for (int i = 0; i < MOVIE_COUNT; i++) {
+            movies.add(movieRepository.save(Movie.builder()
+                    .title("Movie " + i)
+                    .releaseYear(2000)
+                    .duration(90 + i)
+                    .genre(genre)
+                    .actors(List.of(actors.get(0), actors.get(1 + i % 3)))
+                    .build()).getId());
+        }
+    }
+
+    @Test
+    void movieEndpointsIssueExpectedStatements() throws Exception {
+        statements.assertStatements(1, get("/api/movies"));
+        statements.assertStatements(1, get("/api/movies?size=5"));
+        statements.assertStatements(1, get("/api/movies?size=5&cursor=" + Cursors.encode(movies.get(4))));
+        statements.assertStatements(3, get("/api/movies/" + movies.get(0)));
+        statements.assertStatements(2, get("/api/movies/" + movies.get(0) + "/actors"));
+        statements.assertStatements(4, get("/api/movies/search/by-title?title=movie&page=0&size=5"));
+        statements.assertStatements(4, get("/api/movies/search/by-year?year=2000&page=0&size=5"));
+        statements.assertStatements(5, get("/api/movies/by-genre?genreId=" + genre.getId() + "&page=0&size=5"));
+        statements.assertStatements(4, get("/api/movies/by-actor?actorId=" + actor.getId()));
+    }
+
+    @Test
+    void actorAndGenreEndpointsIssueExpectedStatements() throws Exception {
+        statements.assertStatements(1, get("/api/actors"));
+        statements.assertStatements(2, get("/api/actors/" + actor.getId()));
+        statements.assertStatements(5, get("/api/actors/" + actor.getId() + "/movies"));
+        statements.assertStatements(1, get("/api/actors/search?name=actor&page=0&size=5"));
+        statements.assertStatements(1, get("/api/genres"));
+        statements.assertStatements(3, get("/api/genres/" + genre.getId()));
+    }
+
+    @Test
+    void writeEndpointsIssueExpectedStatements() throws Exception {
+        statements.assertStatements(1, post("/api/genres").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Comedy\"}"));
+        statements.assertStatements(2, patch("/api/movies/" + movies.get(0)).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"duration\":120}"));
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.movie.controller;
+
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.sql.RequestStatements;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The query endpoint returns the movies matching all the criteria, and facets and totals over all of them
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:movie-query-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class MovieQueryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private RequestStatements statements;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    private Genre drama;
+
+    private Genre comedy;
+
+    private final List<Actor> actors = new ArrayList<>();
+
+    // IDs of the movies by their position in the seed, from 1
+    private final List<Long> movies = new ArrayList<>();
+
+    @BeforeEach
+    void seedCatalog() {
+        statements = new RequestStatements(mockMvc, context);
+        movieRepository.deleteAll();
+        actorRepository.deleteAll();
+        genreRepository.deleteAll();
+        drama = genre("Drama");
+        comedy = genre("Comedy");
+        for (int i = 1; i <= 3; i++) {
+            actors.add(actorRepository.save(Actor.builder().name("Actor " + i).birthDate(LocalDate.of(1970, 1, i)).build()));
+        }
+        movie("Alpha", 1995, 100, drama, 1, 2);
+        movie("Beta", 1999, 120, drama, 1);
+        movie("Gamma", 2003, 90, comedy, 1, 2, 3);
+        movie("Delta 100%", 2005, 150, comedy, 2);
+        movie("Epsilon", 2012, 110, drama, 3, 1);
+        movie("A_Z", 2010, 95, comedy);
+    }
+
+    @Test
+    void criteriaAreCombinedAndFacetsCountEveryMatch() throws Exception {
+        JsonNode all = query("");
+        assertEquals(movies(1, 2, 3, 4, 5, 6), ids(all));
+        assertEquals(6, all.get("totalElements").asLong());
+        assertEquals(List.of("Drama 3", "Comedy 3"), genreFacets(all));
+        assertEquals(List.of("1990-1999 2", "2000-2009 2", "2010-2019 2"), yearFacets(all));
+
+        // Every actor must play in the movie
+        JsonNode cast = query("actorIds=" + actor(1) + "," + actor(2));
+        assertEquals(movies(1, 3), ids(cast));
+        assertEquals(List.of("Drama 1", "Comedy 1"), genreFacets(cast));
+        assertEquals(List.of("1990-1999 1", "2000-2009 1"), yearFacets(cast));
+
+        JsonNode combined = query("actorIds=" + actor(1) + "&genreId=" + drama.getId() + "&yearFrom=1996&yearBucket=5");
+        assertEquals(movies(2, 5), ids(combined));
+        assertEquals(List.of("Drama 2"), genreFacets(combined));
+        assertEquals(List.of("1995-1999 1", "2010-2014 1"), yearFacets(combined));
+
+        assertEquals(movies(6), ids(query("genreId=" + comedy.getId() + "&minDuration=95&maxDuration=120")));
+        assertEquals(movies(3, 4), ids(query("yearFrom=2003&yearTo=2005")));
+        assertEquals(movies(), ids(query("actorIds=" + actor(3) + "&title=alpha")));
+
+        // The title term is a case-insensitive substring, in which % and _ are no wildcards
+        assertEquals(movies(1, 2, 3, 4, 6), ids(query("title=A")));
+        assertEquals(movies(4), ids(call(get("/api/movies/query").param("title", "100%"))));
+        assertEquals(movies(6), ids(query("title=_")));
+    }
+
+    @Test
+    void pagesShareTheTotalAndFacetsOfAllMatches() throws Exception {
+        JsonNode page = query("size=2&page=1");
+        assertEquals(movies(3, 4), ids(page));
+        assertEquals(6, page.get("totalElements").asLong());
+        assertEquals(3, page.get("totalPages").asInt());
+        assertEquals(List.of("Drama 3", "Comedy 3"), genreFacets(page));
+
+        JsonNode past = query("size=2&page=5");
+        assertEquals(movies(), ids(past));
+        assertEquals(6, past.get("totalElements").asLong());
+
+        JsonNode none = query("title=nothing");
+        assertEquals(0, none.get("totalElements").asLong());
+        assertEquals(List.of(), genreFacets(none));
+        assertEquals(List.of(), yearFacets(none));
+
+        mockMvc.perform(get("/api/movies/query?yearFrom=2010&yearTo=2000")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/movies/query?minDuration=120&maxDuration=90")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void queryIssuesExpectedStatements() throws Exception {
+        // The facets and the total from one grouped query, the page of IDs, then the movies and their actors
+        statements.assertStatements(4, get("/api/movies/query?genreId=" + comedy.getId() + "&yearFrom=1990&yearTo=2010"
+                + "&minDuration=90&actorIds=" + actor(1) + "," + actor(2) + "&title=a&size=5"));
+        // Nothing matches: the grouped query only
+        statements.assertStatements(1, get("/api/movies/query?title=nothing"));
+    }
+
+    private Genre genre(String name) {
+        Genre genre = new Genre();
+        genre.setName(name);
+        return genreRepository.save(genre);
+    }
+
+    private void movie(String title, int releaseYear, int duration, Genre genre, int... cast) {
+        List<Actor> movieActors = new ArrayList<>();
+        for (int actor : cast) {
+            movieActors.add(actors.get(actor - 1));
+        }
+        movies.add(movieRepository.save(Movie.builder()
+                .title(title)
+                .releaseYear(releaseYear)
+                .duration(duration)
+                .genre(genre)
+                .actors(movieActors)
+                .build()).getId());
+    }
+
+    private long actor(int position) {
+        return actors.get(position - 1).getId();
+    }
+
+    private List<Long> movies(int... positions) {
+        List<Long> ids = new ArrayList<>();
+        for (int position : positions) {
+            ids.add(movies.get(position - 1));
+        }
+        return ids;
+    }
+
+    private JsonNode query(String parameters) throws Exception {
+        return call(get("/api/movies/query?" + parameters));
+    }
+
+    private JsonNode call(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static List<Long> ids(JsonNode result) {
+        List<Long> ids = new ArrayList<>();
+        result.get("content").forEach(movie -> ids.add(movie.get("id").asLong()));
+        return ids;
+    }
+
+    private static List<String> genreFacets(JsonNode result) {
+        List<String> facets = new ArrayList<>();
+        result.get("genreFacets").forEach(facet -> facets.add(facet.get("name").asText() + " " + facet.get("movies")));
+        return facets;
+    }
+
+    private static List<String> yearFacets(JsonNode result) {
+        List<String> facets = new ArrayList<>();
+        result.get("yearFacets").forEach(facet ->
+                facets.add(facet.get("from") + "-" + facet.get("to") + " " + facet.get("movies")));
+        return facets;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.movie.controller;
+
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.sql.RequestStatements;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A multi-get returns the found resources in the order of the request, once each, and lists the IDs not found
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:multi-get-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class MultiGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private RequestStatements statements;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    private final List<Long> genres = new ArrayList<>();
+
+    private final List<Long> actors = new ArrayList<>();
+
+    private final List<Long> movies = new ArrayList<>();
+
+    @BeforeEach
+    void seedCatalog() {
+        statements = new RequestStatements(mockMvc, context);
+        movieRepository.deleteAll();
+        actorRepository.deleteAll();
+        genreRepository.deleteAll();
+        List<Genre> savedGenres = new ArrayList<>();
+        List<Actor> savedActors = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Genre genre = new Genre();
+            genre.setName("Genre " + i);
+            savedGenres.add(genreRepository.save(genre));
+            genres.add(savedGenres.get(i - 1).getId());
+            savedActors.add(actorRepository.save(Actor.builder().name("Actor " + i).birthDate(LocalDate.of(1970, 1, i)).build()));
+            actors.add(savedActors.get(i - 1).getId());
+        }
+        for (int i = 1; i <= 3; i++) {
+            movies.add(movieRepository.save(Movie.builder().title("Movie " + i).releaseYear(2000 + i).duration(100)
+                    .genre(savedGenres.get(i - 1)).actors(new ArrayList<>(savedActors.subList(0, i))).build()).getId());
+        }
+    }
+
+    @Test
+    void resultsKeepTheRequestOrderWithoutDuplicatesAndListTheMissingIds() throws Exception {
+        JsonNode movieResult = multiGet("/api/movies", movies.get(2), 999L, movies.get(0), movies.get(2));
+        assertEquals(List.of(movies.get(2), movies.get(0)), ids(movieResult));
+        assertEquals(List.of(999L), missing(movieResult));
+        // The genre and actors of every movie are embedded
+        JsonNode third = movieResult.get("content").get(0);
+        assertEquals("Genre 3", third.get("genre").get("name").asText());
+        assertEquals(3, third.get("actors").size());
+
+        JsonNode actorResult = multiGet("/api/actors", actors.get(1), actors.get(0), actors.get(1));
+        assertEquals(List.of(actors.get(1), actors.get(0)), ids(actorResult));
+        assertEquals(List.of(), missing(actorResult));
+        assertEquals("Actor 2", actorResult.get("content").get(0).get("name").asText());
+
+        JsonNode genreResult = multiGet("/api/genres", 998L, genres.get(0), 999L);
+        assertEquals(List.of(genres.get(0)), ids(genreResult));
+        assertEquals(List.of(998L, 999L), missing(genreResult));
+    }
+
+    @Test
+    void invalidIdListsAreRejected() throws Exception {
+        for (String path : List.of("/api/movies", "/api/actors", "/api/genres")) {
+            // 100 distinct IDs are the limit; repeats do not count
+            String hundred = LongStream.rangeClosed(1, 100).mapToObj(Long::toString).collect(Collectors.joining(","));
+            mockMvc.perform(get(path + "?ids=" + hundred + ",1")).andExpect(status().isOk());
+            mockMvc.perform(get(path + "?ids=" + hundred + ",101")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(path + "?ids=")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(path + "?ids=1,,2")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(path + "?ids=1,x")).andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void multiGetsIssueExpectedStatements() throws Exception {
+        // One IN query for the rows, one more for the genre and actors of the movies or the movies of the genres
+        statements.assertStatements(2, get("/api/movies?ids=" + movies.get(2) + "," + movies.get(0) + ",999"));
+        statements.assertStatements(1, get("/api/actors?ids=" + actors.get(0) + ",999"));
+        statements.assertStatements(2, get("/api/genres?ids=" + genres.get(0) + ",999"));
+    }
+
+    private JsonNode multiGet(String path, Long... ids) throws Exception {
+        String list = Arrays.stream(ids).map(String::valueOf).collect(Collectors.joining(","));
+        return objectMapper.readTree(mockMvc.perform(get(path + "?ids=" + list)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static List<Long> ids(JsonNode result) {
+        List<Long> ids = new ArrayList<>();
+        result.get("content").forEach(item -> ids.add(item.get("id").asLong()));
+        return ids;
+    }
+
+    private static List<Long> missing(JsonNode result) {
+        List<Long> missing = new ArrayList<>();
+        result.get("missing").forEach(id -> missing.add(id.asLong()));
+        return missing;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.movie.controller;
+
+import com.example.movie.cache.ResponseCache;
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.sql.QueryCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A cached movie, actor or genre response is dropped by every write that changes it, including the writes to the
+// genre and actors a movie embeds and the bulk import
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:response-cache-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class ResponseCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    private Genre genre;
+
+    private Genre emptyGenre;
+
+    private Actor actor;
+
+    private Actor loneActor;
+
+    private Movie movie;
+
+    @BeforeEach
+    void seedCatalog() {
+        movieRepository.deleteAll();
+        actorRepository.deleteAll();
+        genreRepository.deleteAll();
+        // Rows saved through the repositories publish no change events, and the IDs start over
+        responseCache.invalidateAll();
+        genre = genre("Drama");
+        emptyGenre = genre("Western");
+        actor = actorRepository.save(Actor.builder().name("Keanu Reeves").birthDate(LocalDate.of(1964, 9, 2)).build());
+        loneActor = actorRepository.save(Actor.builder().name("Carrie-Anne Moss").birthDate(LocalDate.of(1967, 8, 21)).build());
+        movie = movieRepository.save(Movie.builder().title("Matrix").releaseYear(1999).duration(136).genre(genre)
+                .actors(new ArrayList<>(List.of(actor))).build());
+    }
+
+    @Test
+    void movieUpdatesAndDeletesDropTheMovie() throws Exception {
+        cached("/api/movies/" + movie.getId());
+        perform(patch("/api/movies/" + movie.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"The Matrix\"}"));
+        assertEquals("The Matrix", cached("/api/movies/" + movie.getId()).get("title").asText());
+
+        cached("/api/genres/" + genre.getId());
+        mockMvc.perform(delete("/api/movies/" + movie.getId() + "?cascade=true")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/movies/" + movie.getId())).andExpect(status().isNotFound());
+        assertEquals(0, cached("/api/genres/" + genre.getId()).get("movies").size());
+    }
+
+    @Test
+    void actorUpdatesDropTheActorAndTheMoviesEmbeddingIt() throws Exception {
+        cached("/api/actors/" + actor.getId());
+        cached("/api/movies/" + movie.getId());
+        perform(patch("/api/actors/" + actor.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Keanu Charles Reeves\",\"movieIds\":[" + movie.getId() + "]}"));
+        assertEquals("Keanu Charles Reeves", cached("/api/actors/" + actor.getId()).get("name").asText());
+        assertEquals("Keanu Charles Reeves",
+                cached("/api/movies/" + movie.getId()).get("actors").get(0).get("name").asText());
+
+        cached("/api/actors/" + loneActor.getId());
+        mockMvc.perform(delete("/api/actors/" + loneActor.getId())).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/actors/" + loneActor.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void genreUpdatesAndDeletesDropTheGenreAndTheMoviesEmbeddingIt() throws Exception {
+        cached("/api/genres/" + genre.getId());
+        cached("/api/movies/" + movie.getId());
+        perform(patch("/api/genres/" + genre.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Science Fiction\"}"));
+        assertEquals("Science Fiction", cached("/api/genres/" + genre.getId()).get("name").asText());
+        assertEquals("Science Fiction", cached("/api/movies/" + movie.getId()).get("genre").get("name").asText());
+
+        cached("/api/genres/" + emptyGenre.getId());
+        mockMvc.perform(delete("/api/genres/" + emptyGenre.getId())).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/genres/" + emptyGenre.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void movieChangesDropTheMovieListsOfTheirGenres() throws Exception {
+        assertEquals(1, cached("/api/genres/" + genre.getId()).get("movies").size());
+        assertEquals(0, cached("/api/genres/" + emptyGenre.getId()).get("movies").size());
+        perform(patch("/api/movies/" + movie.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"genreId\":" + emptyGenre.getId() + "}"));
+        assertEquals(0, cached("/api/genres/" + genre.getId()).get("movies").size());
+        assertEquals(1, cached("/api/genres/" + emptyGenre.getId()).get("movies").size());
+    }
+
+    @Test
+    void importsDropEveryResponse() throws Exception {
+        assertEquals(1, cached("/api/genres/" + genre.getId()).get("movies").size());
+        cached("/api/movies/" + movie.getId());
+        cached("/api/actors/" + loneActor.getId());
+        String body = "{\"type\":\"movie\",\"title\":\"Matrix Reloaded\",\"releaseYear\":2003,\"duration\":138,"
+                + "\"genreId\":" + genre.getId() + ",\"actorIds\":[" + actor.getId() + "]}";
+        perform(post("/api/import").contentType("application/x-ndjson").content(body));
+        assertEquals(2, cached("/api/genres/" + genre.getId()).get("movies").size());
+        // Responses the import did not change are read again as well
+        assertTrue(queryCounter.count(() -> mockMvc.perform(get("/api/movies/" + movie.getId()))
+                .andExpect(status().isOk())) > 0);
+        assertTrue(queryCounter.count(() -> mockMvc.perform(get("/api/actors/" + loneActor.getId()))
+                .andExpect(status().isOk())) > 0);
+    }
+
+    // Reads a response, then checks that reading it again is served from the cache without a statement
+    private JsonNode cached(String path) throws Exception {
+        JsonNode response = perform(get(path));
+        queryCounter.assertStatements(0, "cached GET " + path,
+                () -> mockMvc.perform(get(path)).andExpect(status().isOk()));
+        return response;
+    }
+
+    private JsonNode perform(MockHttpServletRequestBuilder request) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(request).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private Genre genre(String name) {
+        Genre genre = new Genre();
+        genre.setName(name);
+        return genreRepository.save(genre);
+    }
+}
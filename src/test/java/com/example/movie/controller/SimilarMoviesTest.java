@@ -0,0 +1,146 @@
+package com.example.movie.controller;
+
+import com.example.movie.entity.Actor;
+import com.example.movie.entity.Genre;
+import com.example.movie.entity.Movie;
+import com.example.movie.index.SimilarMoviesIndex;
+import com.example.movie.repository.ActorRepository;
+import com.example.movie.repository.GenreRepository;
+import com.example.movie.repository.MovieRepository;
+import com.example.movie.sql.RequestStatements;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Similar movies share actors or the genre, and rank by shared actors, genre and optionally release year
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:file:similar-movies-test?mode=memory&cache=shared",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "movie.datasource.split-pools=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class SimilarMoviesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private RequestStatements statements;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private SimilarMoviesIndex similarMoviesIndex;
+
+    // IDs of the movies by their position in the seed, from 0
+    private final List<Long> movies = new ArrayList<>();
+
+    @BeforeEach
+    void seedCatalog() {
+        statements = new RequestStatements(mockMvc, context);
+        movieRepository.deleteAll();
+        actorRepository.deleteAll();
+        genreRepository.deleteAll();
+        Genre drama = genre("Drama");
+        Genre comedy = genre("Comedy");
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            actors.add(actorRepository.save(Actor.builder().name("Actor " + i).birthDate(LocalDate.of(1970, 1, i)).build()));
+        }
+        movies.add(movie("Base", drama, 2000, actors.get(0), actors.get(1)));
+        movies.add(movie("Same cast and genre", drama, 1980, actors.get(0), actors.get(1)));
+        movies.add(movie("One shared actor", comedy, 2001, actors.get(1), actors.get(2)));
+        movies.add(movie("Same genre only", drama, 2000));
+        movies.add(movie("Nothing shared", comedy, 2000, actors.get(3)));
+        // Rows saved through the repositories publish no change events
+        similarMoviesIndex.load();
+    }
+
+    @Test
+    void candidatesRankBySharedActorsThenGenre() throws Exception {
+        JsonNode similar = similar(movies.get(0), "");
+        assertEquals(List.of(movies.get(1), movies.get(2), movies.get(3)), ids(similar));
+        JsonNode first = similar.get(0);
+        assertEquals(2, first.get("sharedActors").asInt());
+        assertTrue(first.get("sameGenre").asBoolean());
+        assertEquals(2.5, first.get("score").asDouble());
+        assertEquals("Drama", first.get("genre").get("name").asText());
+        assertEquals(1.0, similar.get(1).get("score").asDouble());
+        assertEquals(0.5, similar.get(2).get("score").asDouble());
+
+        assertEquals(List.of(movies.get(1)), ids(similar(movies.get(0), "&limit=1")));
+    }
+
+    @Test
+    void yearWeightFavoursCloseReleaseYears() throws Exception {
+        // The same year adds the whole weight, one year apart half of it, 20 years apart a 21st
+        JsonNode similar = similar(movies.get(0), "&yearWeight=4");
+        assertEquals(List.of(movies.get(3), movies.get(2), movies.get(1)), ids(similar));
+        assertEquals(4.5, similar.get(0).get("score").asDouble());
+        assertEquals(3.0, similar.get(1).get("score").asDouble());
+        assertEquals(2.5 + 4.0 / 21, similar.get(2).get("score").asDouble(), 1e-9);
+    }
+
+    @Test
+    void unknownMoviesAndOutOfRangeParametersAreRejected() throws Exception {
+        mockMvc.perform(get("/api/movies/999/similar")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/movies/" + movies.get(0) + "/similar?limit=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/movies/" + movies.get(0) + "/similar?yearWeight=11")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void similarMoviesIssueExpectedStatements() throws Exception {
+        // The ranking comes from the index; one IN query reads the matched movies with their genres
+        statements.assertStatements(1, get("/api/movies/" + movies.get(0) + "/similar?yearWeight=1"));
+    }
+
+    private Genre genre(String name) {
+        Genre genre = new Genre();
+        genre.setName(name);
+        return genreRepository.save(genre);
+    }
+
+    private Long movie(String title, Genre genre, int releaseYear, Actor... actors) {
+        return movieRepository.save(Movie.builder().title(title).releaseYear(releaseYear).duration(100).genre(genre)
+                .actors(new ArrayList<>(List.of(actors))).build()).getId();
+    }
+
+    private JsonNode similar(Long movieId, String parameters) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/movies/" + movieId + "/similar?" + parameters))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+    }
+
+    private static List<Long> ids(JsonNode similar) {
+        List<Long> ids = new ArrayList<>();
+        similar.forEach(movie -> ids.add(movie.get("id").asLong()));
+        return ids;
+    }
+}
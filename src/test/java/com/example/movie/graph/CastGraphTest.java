@@ -0,0 +1,122 @@
+package com.example.movie.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CastGraphTest {
+
+    @Test
+    void ranksCoStarsBySharedMovies() {
+        CastGraph graph = new CastGraph();
+        graph.load(Map.of(
+                1L, new long[]{10, 20, 30},
+                2L, new long[]{10, 20},
+                3L, new long[]{10, 40, 40}));
+
+        assertThat(graph.coStars(10, 10)).containsExactly(
+                new CoStarGraph.CoStar(20, 2), new CoStarGraph.CoStar(30, 1), new CoStarGraph.CoStar(40, 1));
+        assertThat(graph.coStars(10, 1)).containsExactly(new CoStarGraph.CoStar(20, 2));
+        assertThat(graph.coStars(99, 10)).isEmpty();
+
+        // Recast through the delta, then the actor leaves every movie
+        graph.put(3, new long[]{20, 40});
+        assertThat(graph.coStars(40, 10)).containsExactly(new CoStarGraph.CoStar(20, 1));
+        graph.removeActor(20);
+        assertThat(graph.coStars(10, 10)).containsExactly(new CoStarGraph.CoStar(30, 1));
+        assertThat(graph.coStars(40, 10)).isEmpty();
+    }
+
+    @Test
+    void findsShortestChainsBeforeAndAfterCompaction() {
+        Random random = new Random(7);
+        Map<Long, long[]> casts = new HashMap<>();
+        for (long movieId = 1; movieId <= 400; movieId++) {
+            casts.put(movieId, randomCast(random));
+        }
+        CastGraph graph = new CastGraph();
+        graph.load(casts);
+        assertShortestPaths(graph, casts, random);
+
+        // Enough recasts and removals to go through the delta and past a compaction
+        for (int i = 0; i < 600; i++) {
+            long movieId = 1 + random.nextInt(500);
+            long[] cast = random.nextInt(5) == 0 ? new long[0] : randomCast(random);
+            graph.put(movieId, cast);
+            casts.put(movieId, cast);
+            if (i % 150 == 0) {
+                assertShortestPaths(graph, casts, random);
+            }
+        }
+        assertShortestPaths(graph, casts, random);
+    }
+
+    private static long[] randomCast(Random random) {
+        return random.longs(1 + random.nextInt(4), 1, 1000).toArray();
+    }
+
+    private static void assertShortestPaths(CastGraph graph, Map<Long, long[]> casts, Random random) {
+        for (int i = 0; i < 50; i++) {
+            long from = 1 + random.nextInt(1000);
+            long to = 1 + random.nextInt(1000);
+            List<CoStarGraph.PathStep> path = graph.shortestPath(from, to);
+            int expected = distance(casts, from, to);
+            if (expected < 0) {
+                assertThat(path).isEmpty();
+                continue;
+            }
+            assertThat(path).hasSize(expected + 1);
+            assertThat(path.get(0)).isEqualTo(new CoStarGraph.PathStep(from, null));
+            assertThat(path.get(path.size() - 1).actorId()).isEqualTo(to);
+            // Every step shares its movie with the previous actor
+            for (int k = 1; k < path.size(); k++) {
+                long[] cast = casts.get(path.get(k).movieId());
+                Set<Long> actors = new HashSet<>();
+                Arrays.stream(cast).forEach(actors::add);
+                assertThat(actors).contains(path.get(k - 1).actorId(), path.get(k).actorId());
+            }
+        }
+    }
+
+    // Plain breadth-first search over the casts, -1 when not connected
+    private static int distance(Map<Long, long[]> casts, long from, long to) {
+        if (from == to) {
+            return 0;
+        }
+        Map<Long, Set<Long>> neighbours = new HashMap<>();
+        for (long[] cast : casts.values()) {
+            for (long a : cast) {
+                for (long b : cast) {
+                    if (a != b) {
+                        neighbours.computeIfAbsent(a, id -> new HashSet<>()).add(b);
+                    }
+                }
+            }
+        }
+        Map<Long, Integer> depth = new HashMap<>(Map.of(from, 0));
+        Deque<Long> queue = new ArrayDeque<>(List.of(from));
+        while (!queue.isEmpty()) {
+            long actor = queue.poll();
+            for (long next : neighbours.getOrDefault(actor, Set.of())) {
+                if (!depth.containsKey(next)) {
+                    depth.put(next, depth.get(actor) + 1);
+                    if (next == to) {
+                        return depth.get(next);
+                    }
+                    queue.add(next);
+                }
+            }
+        }
+        return -1;
+    }
+}
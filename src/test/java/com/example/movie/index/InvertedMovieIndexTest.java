@@ -0,0 +1,104 @@
+package com.example.movie.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedMovieIndexTest {
+
+    private static final InvertedMovieIndex.Weights WEIGHTS = new InvertedMovieIndex.Weights(0.5, 1);
+
+    @Test
+    void ranksBySharedActorsThenGenreThenYear() {
+        InvertedMovieIndex index = new InvertedMovieIndex();
+        index.load(Map.of(
+                1L, new InvertedMovieIndex.Movie(1, 2000, new long[]{10, 20, 30}),
+                2L, new InvertedMovieIndex.Movie(2, 1990, new long[]{10, 20}),
+                3L, new InvertedMovieIndex.Movie(1, 2001, new long[]{30}),
+                4L, new InvertedMovieIndex.Movie(1, 1950, new long[]{}),
+                5L, new InvertedMovieIndex.Movie(3, 2000, new long[]{40})));
+
+        assertThat(index.similar(1, 10, WEIGHTS)).extracting(SimilarMoviesIndex.Match::movieId).containsExactly(2L, 3L, 4L);
+        SimilarMoviesIndex.Match best = index.similar(1, 1, WEIGHTS).get(0);
+        assertThat(best.sharedActors()).isEqualTo(2);
+        assertThat(best.sameGenre()).isFalse();
+        assertThat(best.score()).isEqualTo(2 + 1.0 / 11);
+        assertThat(index.similar(99, 10, WEIGHTS)).isEmpty();
+
+        // A new movie, a recast one and a removed one, read through the delta
+        index.put(6, new InvertedMovieIndex.Movie(1, 2000, new long[]{10, 20, 30}));
+        index.put(2, new InvertedMovieIndex.Movie(2, 1990, new long[]{40}));
+        index.remove(3);
+        assertThat(index.similar(1, 10, WEIGHTS)).extracting(SimilarMoviesIndex.Match::movieId).containsExactly(6L, 4L);
+        index.removeActor(10);
+        assertThat(index.similar(6, 10, WEIGHTS).get(0).sharedActors()).isEqualTo(2);
+    }
+
+    @Test
+    void matchesAFullScanBeforeAndAfterCompaction() {
+        Random random = new Random(11);
+        Map<Long, InvertedMovieIndex.Movie> movies = new HashMap<>();
+        for (long movieId = 1; movieId <= 500; movieId++) {
+            movies.put(movieId, randomMovie(random));
+        }
+        InvertedMovieIndex index = new InvertedMovieIndex();
+        index.load(movies);
+        assertRankings(index, movies, random);
+
+        for (int i = 0; i < 800; i++) {
+            long movieId = 1 + random.nextInt(600);
+            if (random.nextInt(6) == 0) {
+                index.remove(movieId);
+                movies.remove(movieId);
+            } else {
+                InvertedMovieIndex.Movie movie = randomMovie(random);
+                index.put(movieId, movie);
+                movies.put(movieId, movie);
+            }
+            if (i % 200 == 0) {
+                assertRankings(index, movies, random);
+            }
+        }
+        assertRankings(index, movies, random);
+    }
+
+    private static InvertedMovieIndex.Movie randomMovie(Random random) {
+        return new InvertedMovieIndex.Movie(1 + random.nextInt(8), 1950 + random.nextInt(70),
+                random.longs(random.nextInt(6), 1, 300).distinct().toArray());
+    }
+
+    private static void assertRankings(InvertedMovieIndex index, Map<Long, InvertedMovieIndex.Movie> movies,
+                                       Random random) {
+        List<Long> ids = new ArrayList<>(movies.keySet());
+        for (int i = 0; i < 30; i++) {
+            long movieId = ids.get(random.nextInt(ids.size()));
+            assertThat(index.similar(movieId, 10, WEIGHTS)).isEqualTo(fullScan(movies, movieId, 10));
+        }
+    }
+
+    private static List<SimilarMoviesIndex.Match> fullScan(Map<Long, InvertedMovieIndex.Movie> movies, long movieId,
+                                                          int n) {
+        InvertedMovieIndex.Movie target = movies.get(movieId);
+        List<SimilarMoviesIndex.Match> matches = new ArrayList<>();
+        movies.forEach((candidateId, candidate) -> {
+            int shared = (int) Arrays.stream(candidate.actorIds())
+                    .filter(actorId -> Arrays.stream(target.actorIds()).anyMatch(id -> id == actorId)).count();
+            boolean sameGenre = candidate.genreId() == target.genreId();
+            if (candidateId != movieId && (shared > 0 || sameGenre)) {
+                matches.add(new SimilarMoviesIndex.Match(candidateId, shared + (sameGenre ? 0.5 : 0)
+                        + 1.0 / (1 + Math.abs(candidate.releaseYear() - target.releaseYear())), shared, sameGenre));
+            }
+        });
+        matches.sort(Comparator.comparingDouble(SimilarMoviesIndex.Match::score).reversed()
+                .thenComparingLong(SimilarMoviesIndex.Match::movieId));
+        return matches.subList(0, Math.min(n, matches.size()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.movie.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+
+    private static List<Long> ids(List<PrefixIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(PrefixIndex.Suggestion::id).toList();
+    }
+
+    @Test
+    void matchesWordPrefixesBestScoreFirst() {
+        PrefixIndex index = new PrefixIndex();
+        index.load(List.of(
+                new PrefixIndex.Suggestion(1, "The Matrix", 1999),
+                new PrefixIndex.Suggestion(2, "Matrix Reloaded", 2003),
+                new PrefixIndex.Suggestion(3, "Amélie", 2001),
+                new PrefixIndex.Suggestion(4, "Mad Max: Fury Road", 2015)));
+
+        assertThat(ids(index.top("ma", 10))).containsExactly(4L, 2L, 1L);
+        assertThat(ids(index.top("ma", 2))).containsExactly(4L, 2L);
+        assertThat(ids(index.top(PrefixIndex.normalize("AMEL"), 10))).containsExactly(3L);
+        assertThat(ids(index.top(PrefixIndex.normalize("max fury"), 10))).containsExactly(4L);
+        assertThat(index.top("zz", 10)).isEmpty();
+    }
+
+    @Test
+    void appliesUpdatesAndRemovalsBeforeAndAfterCompaction() {
+        PrefixIndex index = new PrefixIndex();
+        List<PrefixIndex.Suggestion> movies = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            movies.add(new PrefixIndex.Suggestion(id, "Movie " + id, 1900 + id));
+        }
+        index.load(movies);
+
+        index.put(new PrefixIndex.Suggestion(100, "Renamed", 2000));
+        index.remove(99);
+        assertThat(ids(index.top("movie", 2))).containsExactly(98L, 97L);
+        assertThat(ids(index.top("ren", 10))).containsExactly(100L);
+
+        // Enough changes to fold the delta into a new snapshot
+        for (long id = 1; id <= 300; id++) {
+            index.put(new PrefixIndex.Suggestion(1000 + id, "Sequel " + id, 2100 + id));
+        }
+        assertThat(ids(index.top("movie", 2))).containsExactly(98L, 97L);
+        assertThat(ids(index.top("sequel", 1))).containsExactly(1300L);
+        assertThat(ids(index.top("ren", 10))).containsExactly(100L);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.movie.perf;
+
+import com.example.movie.util.Cursors;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// Open-loop load test of the movie, actor and genre endpoints. The application is started on a random port against
+// a generated SQLite file seeded through the bulk import, then requests are started at a fixed rate, each one picked
+// from a weighted mix of reads and writes, whether or not earlier requests have completed. Latency is measured from
+// the time a request was scheduled, so a stalled server shows up in the latency instead of lowering the request rate.
+// Reports throughput, error rate, percentiles and a latency histogram per endpoint.
+//
+// Run with: mvn -Pload-test test-compile exec:java
+// Tunable with -Dload.rate=50 (requests/s) -Dload.duration=30 -Dload.warmup=5 (seconds)
+// -Dload.movies=5000 -Dload.actors=1000 -Dload.mix=movies.get=30,movies.create=5,...
+// -Dload.args="--spring.threads.virtual.enabled=true" (application arguments, separated by spaces)
+public final class LoadTest {
+
+    private static final String DEFAULT_MIX = "movies.get=25,movies.list=15,movies.create=4,movies.update=6,"
+            + "actors.get=15,actors.list=10,actors.create=3,actors.update=4,"
+            + "genres.get=8,genres.list=4,genres.create=1,genres.update=5";
+
+    // Upper bounds of the histogram buckets printed per endpoint, in milliseconds
+    private static final double[] BUCKETS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000,
+            Double.POSITIVE_INFINITY};
+
+    private record Operation(String name, String method, Function<Context, String> path, Function<Context, String> body) {
+    }
+
+    // What an operation needs to build its request: the catalog size and a sequence for unique names
+    private record Context(ThreadLocalRandom random, int movies, int actors, long sequence) {
+
+        long movieId() {
+            return 1 + random.nextInt(movies);
+        }
+
+        long actorId() {
+            return 1 + random.nextInt(actors);
+        }
+
+        long genreId() {
+            return 1 + random.nextInt(SeededApplication.GENRES);
+        }
+    }
+
+    private static final List<Operation> OPERATIONS = List.of(
+            new Operation("movies.get", "GET", c -> "/api/movies/" + c.movieId(), null),
+            new Operation("movies.list", "GET",
+                    c -> "/api/movies?size=20&cursor=" + Cursors.encode(c.random().nextInt(c.movies())), null),
+            new Operation("movies.create", "POST", c -> "/api/movies",
+                    c -> "{\"title\":\"Load movie " + c.sequence() + "\",\"releaseYear\":" + (1950 + c.random().nextInt(70))
+                            + ",\"duration\":" + (80 + c.random().nextInt(90)) + ",\"genreId\":" + c.genreId()
+                            + ",\"actorIds\":[" + c.actorId() + "," + c.actorId() + "]}"),
+            new Operation("movies.update", "PATCH", c -> "/api/movies/" + c.movieId(),
+                    c -> "{\"duration\":" + (80 + c.random().nextInt(90)) + "}"),
+            new Operation("actors.get", "GET", c -> "/api/actors/" + c.actorId(), null),
+            new Operation("actors.list", "GET",
+                    c -> "/api/actors?size=20&cursor=" + Cursors.encode(c.random().nextInt(c.actors())), null),
+            new Operation("actors.create", "POST", c -> "/api/actors",
+                    c -> "{\"name\":\"Load actor " + c.sequence() + "\",\"birthDate\":\"1980-01-01\"}"),
+            new Operation("actors.update", "PATCH", c -> "/api/actors/" + c.actorId(),
+                    c -> "{\"name\":\"Actor " + c.sequence() + "\",\"movieIds\":[" + c.movieId() + "]}"),
+            new Operation("genres.get", "GET", c -> "/api/genres/" + c.genreId(), null),
+            new Operation("genres.list", "GET", c -> "/api/genres?size=5&cursor=" + Cursors.encode(c.random().nextInt(15)), null),
+            new Operation("genres.create", "POST", c -> "/api/genres",
+                    c -> "{\"name\":\"Load genre " + c.sequence() + "\"}"),
+            new Operation("genres.update", "PATCH", c -> "/api/genres/" + c.genreId(),
+                    c -> "{\"name\":\"Genre " + c.sequence() + "\"}"));
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.getInteger("load.rate", 50);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration", 30));
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup", 5));
+        int movies = Integer.getInteger("load.movies", 5000);
+        int actors = Integer.getInteger("load.actors", 1000);
+        Map<Operation, Integer> mix = parseMix(System.getProperty("load.mix", DEFAULT_MIX));
+        String arguments = System.getProperty("load.args", "").trim();
+
+        try (SeededApplication application = SeededApplication.start(actors, movies,
+                arguments.isEmpty() ? new String[0] : arguments.split("\\s+"))) {
+            System.out.printf("Seeded %d genres, %d actors, %d movies; warming up for %d s%n",
+                    SeededApplication.GENRES, actors, movies, warmup.toSeconds());
+            run(application, mix, rate, warmup);
+            System.out.printf("Measuring for %d s at %d requests/s%n", duration.toSeconds(), rate);
+            Map<String, LatencyHistogram> histograms = run(application, mix, rate, duration);
+            report(histograms, duration);
+        }
+    }
+
+    // Start requests at the given rate for the given time, then wait for the outstanding ones
+    private static Map<String, LatencyHistogram> run(SeededApplication application, Map<Operation, Integer> mix,
+                                                     int rate, Duration duration) throws InterruptedException {
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        mix.keySet().forEach(operation -> histograms.put(operation.name(), new LatencyHistogram()));
+        List<Operation> weighted = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+
+        HttpClient client = application.client();
+        AtomicLong sequence = new AtomicLong();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long started = System.nanoTime();
+        long requests = duration.toNanos() / interval;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long scheduled = started + i * interval;
+                long delay = scheduled - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                Operation operation = weighted.get(ThreadLocalRandom.current().nextInt(weighted.size()));
+                LatencyHistogram histogram = histograms.get(operation.name());
+                executor.submit(() -> {
+                    Context context = new Context(ThreadLocalRandom.current(), application.movies(),
+                            application.actors(), sequence.incrementAndGet());
+                    boolean error;
+                    try {
+                        HttpResponse<Void> response = client.send(request(application.baseUrl(), operation, context),
+                                HttpResponse.BodyHandlers.discarding());
+                        error = response.statusCode() >= 400;
+                    } catch (Exception ex) {
+                        error = true;
+                    }
+                    histogram.record(System.nanoTime() - scheduled, error);
+                    return null;
+                });
+            }
+        }
+        return histograms;
+    }
+
+    private static HttpRequest request(String baseUrl, Operation operation, Context context) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + operation.path().apply(context)))
+                .timeout(Duration.ofSeconds(30));
+        if (operation.body() == null) {
+            return builder.method(operation.method(), HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .method(operation.method(), HttpRequest.BodyPublishers.ofString(operation.body().apply(context)))
+                .build();
+    }
+
+    private static void report(Map<String, LatencyHistogram> histograms, Duration duration) {
+        double seconds = duration.toMillis() / 1_000.0;
+        LatencyHistogram all = new LatencyHistogram();
+        histograms.values().forEach(all::add);
+
+        System.out.printf("%n%-15s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        histograms.forEach((name, histogram) -> printSummary(name, histogram, seconds));
+        printSummary("total", all, seconds);
+
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.count() == 0) {
+                continue;
+            }
+            System.out.printf("%n%s latency histogram%n", entry.getKey());
+            double from = 0;
+            for (double to : BUCKETS_MILLIS) {
+                long count = histogram.countBetweenMillis(from, to);
+                double share = 100.0 * count / histogram.count();
+                String label = Double.isInfinite(to) ? String.format(">= %.0f ms", from) : String.format("< %.0f ms", to);
+                System.out.printf("  %-12s %8d %6.2f %% %s%n", label, count, share, "#".repeat((int) Math.round(share / 2)));
+                from = to;
+            }
+        }
+    }
+
+    private static void printSummary(String name, LatencyHistogram histogram, double seconds) {
+        double errorRate = histogram.count() == 0 ? 0 : 100.0 * histogram.errors() / histogram.count();
+        System.out.printf("%-15s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.count(),
+                histogram.count() / seconds, errorRate, histogram.percentileMillis(50), histogram.percentileMillis(90),
+                histogram.percentileMillis(99), histogram.percentileMillis(99.9), histogram.percentileMillis(100));
+    }
+
+    // Parse "name=weight,name=weight", leaving out operations with a weight of 0
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            Operation operation = OPERATIONS.stream().filter(candidate -> candidate.name().equals(parts[0].trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown operation in load.mix: " + parts[0]));
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no operation with a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.movie.perf;
+
+import com.example.movie.MovieApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// The application started on a random port against a generated SQLite file in a temporary directory, seeded with
+// a catalog of GENRES genres, the given number of actors, and movies with three actors each through the bulk import.
+// Closing it stops the application and deletes the database.
+final class SeededApplication implements AutoCloseable {
+
+    static final int GENRES = 20;
+
+    private final Path directory;
+
+    private final ConfigurableApplicationContext context;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private final String baseUrl;
+
+    private final int actors;
+
+    private final int movies;
+
+    private SeededApplication(Path directory, ConfigurableApplicationContext context, int actors, int movies) {
+        this.directory = directory;
+        this.context = context;
+        this.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        this.actors = actors;
+        this.movies = movies;
+    }
+
+    // Start the application, extra arguments override application.properties like command-line arguments
+    static SeededApplication start(int actors, int movies, String... arguments) throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("movie-perf-");
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:sqlite:" + directory.resolve("movies.db"),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        args.addAll(List.of(arguments));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MovieApplication.class)
+                .run(args.toArray(String[]::new));
+        SeededApplication application = new SeededApplication(directory, context, actors, movies);
+        try {
+            application.seed();
+        } catch (IOException | InterruptedException | RuntimeException ex) {
+            application.close();
+            throw ex;
+        }
+        return application;
+    }
+
+    HttpClient client() {
+        return client;
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    int actors() {
+        return actors;
+    }
+
+    int movies() {
+        return movies;
+    }
+
+    // Import the genres, actors and movies in one NDJSON request
+    private void seed() throws IOException, InterruptedException {
+        StringBuilder ndjson = new StringBuilder();
+        for (int genre = 1; genre <= GENRES; genre++) {
+            ndjson.append("{\"type\":\"genre\",\"id\":").append(genre).append(",\"name\":\"Genre ").append(genre)
+                    .append("\"}\n");
+        }
+        for (int actor = 1; actor <= actors; actor++) {
+            ndjson.append("{\"type\":\"actor\",\"id\":").append(actor).append(",\"name\":\"Actor ").append(actor)
+                    .append("\",\"birthDate\":\"1970-01-01\"}\n");
+        }
+        for (int movie = 1; movie <= movies; movie++) {
+            ndjson.append("{\"type\":\"movie\",\"id\":").append(movie).append(",\"title\":\"Movie ").append(movie)
+                    .append("\",\"releaseYear\":").append(1950 + movie % 70)
+                    .append(",\"duration\":").append(80 + movie % 90)
+                    .append(",\"genreId\":").append(1 + movie % GENRES)
+                    .append(",\"actorIds\":[").append(1 + movie % actors).append(',').append(1 + (movie * 7L) % actors)
+                    .append(',').append(1 + (movie * 13L) % actors).append("]}\n");
+        }
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/import"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Seeding failed: " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        for (String file : new String[]{"movies.db", "movies.db-wal", "movies.db-shm"}) {
+            Files.deleteIfExists(directory.resolve(file));
+        }
+        Files.deleteIfExists(directory);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.movie.perf;
+
+import com.example.movie.util.Cursors;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Compares requests/sec and latency of the MovieController GET endpoints with Tomcat serving requests on its
+// platform thread pool and on virtual threads. For each mode the application is started on a random port
+// against a fresh SQLite file, seeded through the bulk import, warmed up, then loaded by concurrent clients
+// requesting a random mix of GET /api/movies/{id}, GET /api/movies?cursor= and GET /api/movies/by-genre.
+//
+// Run with: mvn -Pvirtual-thread-benchmark test-compile exec:java
+// Tunable with -Dbenchmark.clients=200 -Dbenchmark.warmup=5 -Dbenchmark.duration=20 (seconds)
+// -Dbenchmark.movies=5000
+public final class VirtualThreadBenchmark {
+
+    private static final int ACTORS = 1000;
+
+    private record Result(String mode, long requests, long errors, double seconds, long[] latenciesNanos) {
+
+        double requestsPerSecond() {
+            return requests / seconds;
+        }
+
+        double percentileMillis(double percentile) {
+            if (latenciesNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+
+    private VirtualThreadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("benchmark.clients", 200);
+        int movies = Integer.getInteger("benchmark.movies", 5000);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("benchmark.warmup", 5));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("benchmark.duration", 20));
+
+        List<Result> results = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            results.add(run(virtualThreads, clients, movies, warmup, duration));
+        }
+
+        System.out.printf("%n%d clients, %d movies, %d s per mode%n", clients, movies, duration.toSeconds());
+        System.out.printf("%-10s %12s %10s %10s %10s %8s%n", "mode", "requests/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (Result result : results) {
+            System.out.printf("%-10s %12.0f %10.2f %10.2f %10.2f %8d%n", result.mode(), result.requestsPerSecond(),
+                    result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(100),
+                    result.errors());
+        }
+    }
+
+    private static Result run(boolean virtualThreads, int clients, int movies, Duration warmup, Duration duration)
+            throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (SeededApplication application = SeededApplication.start(ACTORS, movies,
+                "--spring.threads.virtual.enabled=" + virtualThreads)) {
+            System.out.printf("%s: warming up for %d s%n", mode, warmup.toSeconds());
+            load(application, clients, warmup);
+            System.out.printf("%s: measuring for %d s with %d clients%n", mode, duration.toSeconds(), clients);
+            Result result = load(application, clients, duration);
+            return new Result(mode, result.requests(), result.errors(), result.seconds(), result.latenciesNanos());
+        }
+    }
+
+    // Run the clients for the given time, each sending its next request as soon as the previous one completed
+    private static Result load(SeededApplication application, int clients, Duration duration) throws Exception {
+        HttpClient client = application.client();
+        String baseUrl = application.baseUrl();
+        int movies = application.movies();
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        List<Future<long[]>> workers = new ArrayList<>();
+        long[] errors = new long[clients];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int worker = i;
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + randomPath(movies))).GET().build();
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        long elapsed = System.nanoTime() - sent;
+                        if (response.statusCode() != 200) {
+                            errors[worker]++;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = elapsed;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        long[] all = new long[0];
+        for (Future<long[]> worker : workers) {
+            long[] latencies = worker.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        Arrays.sort(all);
+        return new Result(null, all.length, Arrays.stream(errors).sum(), seconds, all);
+    }
+
+    private static String randomPath(int movies) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (random.nextInt(3)) {
+            case 0 -> "/api/movies/" + (1 + random.nextInt(movies));
+            case 1 -> "/api/movies?size=20&cursor=" + Cursors.encode(random.nextInt(movies));
+            default -> "/api/movies/by-genre?genreId=" + (1 + random.nextInt(SeededApplication.GENRES))
+                    + "&page=" + random.nextInt(10) + "&size=10";
+        };
+    }
+}
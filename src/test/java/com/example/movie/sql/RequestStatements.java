@@ -0,0 +1,47 @@
+package com.example.movie.sql;
+
+import com.example.movie.cache.ResponseCache;
+import com.example.movie.cache.SecondLevelCacheStatistics;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Pins the exact number of SQL statements of a MockMvc request made with cold caches, so the count does not
+// depend on the requests made before it. Used by the tests of every endpoint whose statements are budgeted.
+public final class RequestStatements {
+
+    private final MockMvc mockMvc;
+
+    private final QueryCounter queryCounter;
+
+    private final ResponseCache responseCache;
+
+    private final SecondLevelCacheStatistics secondLevelCache;
+
+    public RequestStatements(MockMvc mockMvc, ApplicationContext context) {
+        this.mockMvc = mockMvc;
+        this.queryCounter = context.getBean(QueryCounter.class);
+        this.responseCache = context.getBean(ResponseCache.class);
+        this.secondLevelCache = context.getBean(SecondLevelCacheStatistics.class);
+    }
+
+    // The request must succeed with a 2xx status
+    public void assertStatements(long expected, MockHttpServletRequestBuilder request) throws Exception {
+        assertStatements(expected, request, status().is2xxSuccessful());
+    }
+
+    public void assertStatements(long expected, MockHttpServletRequestBuilder request, ResultMatcher result)
+            throws Exception {
+        responseCache.invalidateAll();
+        secondLevelCache.evictAll();
+        MockHttpServletRequest built = request.buildRequest(new MockServletContext());
+        String description = built.getMethod() + " " + built.getRequestURI()
+                + (built.getQueryString() != null ? "?" + built.getQueryString() : "");
+        queryCounter.assertStatements(expected, description, () -> mockMvc.perform(request).andExpect(result));
+    }
+}
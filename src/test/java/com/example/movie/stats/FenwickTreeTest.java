@@ -0,0 +1,73 @@
+package com.example.movie.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FenwickTreeTest {
+
+    @Test
+    void rangeSumsFollowPointUpdates() {
+        long[] expected = new long[300];
+        FenwickTree tree = new FenwickTree(expected.length);
+        Random random = new Random(42);
+        for (int step = 0; step < 2000; step++) {
+            int index = random.nextInt(expected.length);
+            long delta = random.nextInt(21) - 10;
+            tree.add(index, delta);
+            expected[index] += delta;
+        }
+
+        for (int from = 0; from < expected.length; from += 7) {
+            for (int to = from; to < expected.length; to += 13) {
+                long sum = 0;
+                for (int i = from; i <= to; i++) {
+                    sum += expected[i];
+                }
+                assertThat(tree.sum(from, to)).isEqualTo(sum);
+            }
+        }
+        assertThat(tree.get(17)).isEqualTo(expected[17]);
+        assertThat(tree.toArray()).isEqualTo(expected);
+        assertThat(tree.sum(10, 5)).isZero();
+    }
+
+    @Test
+    void indexesOutsideTheTreeAreRejected() {
+        FenwickTree tree = new FenwickTree(10);
+        tree.add(9, 5);
+
+        assertThatThrownBy(() -> tree.add(10, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tree.add(-1, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tree.get(10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tree.prefixSum(10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tree.sum(-1, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tree.sum(5, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tree.load(new long[11])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FenwickTree(0)).isInstanceOf(IllegalArgumentException.class);
+        // A rejected call changes nothing
+        assertThat(tree.total()).isEqualTo(5);
+        assertThat(tree.prefixSum(-1)).isZero();
+    }
+
+    @Test
+    void loadBuildsTheSamePrefixSums() {
+        long[] values = {3, 0, 5, 1, 0, 0, 9, 2, 4};
+        FenwickTree loaded = new FenwickTree(values.length);
+        loaded.add(4, 7);
+        loaded.load(values);
+        FenwickTree added = new FenwickTree(values.length);
+        for (int i = 0; i < values.length; i++) {
+            added.add(i, values[i]);
+        }
+
+        for (int i = -1; i < values.length; i++) {
+            assertThat(loaded.prefixSum(i)).isEqualTo(added.prefixSum(i));
+        }
+        assertThat(loaded.total()).isEqualTo(24);
+        assertThat(loaded.toArray()).isEqualTo(values);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.movie.write;
+
+import com.example.movie.sql.QueryCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Group commit and its fallback against a transaction manager that records what each transaction committed
+class WriteQueueTest {
+
+    // Values staged by the mutations of the current transaction, kept on commit and dropped on rollback
+    private static final class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final List<String> committed = new ArrayList<>();
+        private final List<String> staged = new ArrayList<>();
+        private int commits;
+        private int rollbacks;
+        private boolean active;
+
+        synchronized void stage(String value) {
+            if (!active) {
+                throw new IllegalStateException("Staged outside a transaction: " + value);
+            }
+            staged.add(value);
+        }
+
+        synchronized List<String> committed() {
+            return new ArrayList<>(committed);
+        }
+
+        synchronized boolean active() {
+            return active;
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected synchronized void doBegin(Object transaction, TransactionDefinition definition) {
+            staged.clear();
+            active = true;
+        }
+
+        @Override
+        protected synchronized void doCommit(DefaultTransactionStatus status) {
+            committed.addAll(staged);
+            commits++;
+            active = false;
+        }
+
+        @Override
+        protected synchronized void doRollback(DefaultTransactionStatus status) {
+            staged.clear();
+            rollbacks++;
+            active = false;
+        }
+    }
+
+    private final RecordingTransactionManager transactions = new RecordingTransactionManager();
+
+    // No linger: a group is whatever is queued when the writer takes its first task
+    private final WriteQueue writeQueue = new WriteQueue(transactions, Mockito.mock(EntityManager.class),
+            new QueryCounter(), 64, Duration.ZERO);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutDown() {
+        release.countDown();
+        writeQueue.shutdown();
+    }
+
+    @Test
+    void aFailingMutationRollsBackItsGroupAndTheOthersCommitOnce() throws Exception {
+        blockWriter();
+        CompletableFuture<String> first = queue(() -> write("first"));
+        CompletableFuture<String> failing = queue(() -> {
+            write("failing");
+            throw new IllegalArgumentException("failing mutation");
+        });
+        CompletableFuture<String> last = queue(() -> write("last"));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(last.get(5, TimeUnit.SECONDS)).isEqualTo("last");
+        assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(IllegalArgumentException.class).hasMessage("failing mutation");
+        assertThat(transactions.committed()).containsExactly("blocker", "first", "last");
+        synchronized (transactions) {
+            // The blocker alone, the group, then each of its mutations alone
+            assertThat(transactions.commits).isEqualTo(3);
+            assertThat(transactions.rollbacks).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void workBetweenGroupsSeesTheEarlierGroupCommittedAndNoneStarted() throws Exception {
+        blockWriter();
+        CompletableFuture<String> before = queue(() -> write("before"));
+        CompletableFuture<List<String>> between = queue(() -> {
+            assertThat(transactions.active()).isFalse();
+            return transactions.committed();
+        }, true);
+        CompletableFuture<String> after = queue(() -> write("after"));
+        release.countDown();
+
+        assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("before");
+        assertThat(between.get(5, TimeUnit.SECONDS)).containsExactly("blocker", "before");
+        assertThat(after.get(5, TimeUnit.SECONDS)).isEqualTo("after");
+        assertThat(transactions.committed()).containsExactly("blocker", "before", "after");
+        assertThatThrownBy(() -> writeQueue.submit(() -> writeQueue.runBetweenGroups(() -> null)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    // A mutation committed on its own, the result is handed out only once it is in the committed list
+    private String write(String value) {
+        transactions.stage(value);
+        return value;
+    }
+
+    // Hold the writer thread in a first mutation, so the next ones queue up in order and run as one group
+    private void blockWriter() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        queue(() -> {
+            write("blocker");
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private <T> CompletableFuture<T> queue(Supplier<T> mutation) throws InterruptedException {
+        return queue(mutation, false);
+    }
+
+    // Submit from a caller thread and wait until it is parked on its result, so the queue keeps the call order
+    private <T> CompletableFuture<T> queue(Supplier<T> mutation, boolean betweenGroups) throws InterruptedException {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Thread caller = new Thread(() -> {
+            try {
+                T value = betweenGroups ? writeQueue.runBetweenGroups(mutation) : writeQueue.submit(mutation);
+                if (value instanceof String written) {
+                    assertThat(transactions.committed()).contains(written);
+                }
+                result.complete(value);
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        caller.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (caller.getState() != Thread.State.WAITING && !result.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return result;
+    }
+}